@@ -28,6 +28,8 @@ package com.github.rolecraftdev.quests;
 
 import com.github.rolecraftdev.RolecraftCore;
 
+import com.volumetricpixels.questy.storage.ProgressionSnapshot;
+
 import org.bukkit.scheduler.BukkitRunnable;
 
 import javax.annotation.Nonnull;
@@ -35,6 +37,11 @@ import javax.annotation.Nonnull;
 /**
  * Periodically stores data used in the {@link RolecraftQuests} plugin.
  *
+ * This should be scheduled to run on the main thread. Each run only captures a
+ * {@link ProgressionSnapshot} of the quest progression which has changed,
+ * which is cheap, and then serializes and saves it asynchronously so that the
+ * main thread never waits for disk I/O.
+ *
  * @since 0.1.0
  */
 public final class RQDataUpdater extends BukkitRunnable {
@@ -47,6 +54,11 @@ public final class RQDataUpdater extends BukkitRunnable {
      * {@link RolecraftQuests} instance is for.
      */
     private final RolecraftCore core;
+    /**
+     * The snapshot which is waiting to be saved, or is being saved,
+     * asynchronously. Guarded by {@code this}.
+     */
+    private ProgressionSnapshot pending;
 
     /**
      * Constructs a new data updater object for {@link RolecraftQuests}.
@@ -64,7 +76,39 @@ public final class RQDataUpdater extends BukkitRunnable {
      */
     @Override
     public void run() {
+        synchronized (this) {
+            if (this.pending != null) {
+                // the last save is still running - leave the changes to be
+                // captured next time so saves are never reordered
+                return;
+            }
+            this.pending = this.plugin.getQuestManager()
+                    .captureChangedProgression();
+        }
+
+        final ProgressionSnapshot snapshot = this.pending;
+        this.plugin.getServer().getScheduler().runTaskAsynchronously(
+                this.plugin, () -> this.save(snapshot));
+    }
+
+    /**
+     * Waits for any asynchronous save which is in progress to finish, and
+     * prevents any which hasn't yet started from running. Used when disabling,
+     * before all progression is saved on the main thread.
+     *
+     * @since 0.1.0
+     */
+    public synchronized void finish() {
+        this.pending = null;
+    }
+
+    private synchronized void save(final ProgressionSnapshot snapshot) {
+        if (this.pending != snapshot) {
+            return;
+        }
+
         this.plugin.getDungeonManager().save();
-        this.plugin.getQuestManager().saveProgression();
+        snapshot.save();
+        this.pending = null;
     }
 }
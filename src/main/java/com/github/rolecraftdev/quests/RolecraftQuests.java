@@ -41,17 +41,28 @@ import com.github.rolecraftdev.quests.quest.QuestingHandler;
 import com.github.rolecraftdev.quests.quest.QuestingListener;
 
 import com.volumetricpixels.questy.QuestManager;
+import com.volumetricpixels.questy.questy.QuestReloader;
 import com.volumetricpixels.questy.questy.SimpleQuestManager;
 import com.volumetricpixels.questy.questy.loader.JSQuestLoader;
+import com.volumetricpixels.questy.questy.loader.QuestCache;
 import com.volumetricpixels.questy.questy.loader.YMLQuestLoader;
+import com.volumetricpixels.questy.storage.ProgressMigrator;
 import com.volumetricpixels.questy.storage.ProgressStore;
+import com.volumetricpixels.questy.storage.store.JournalProgressStore;
+import com.volumetricpixels.questy.storage.store.ShardedProgressStore;
 import com.volumetricpixels.questy.storage.store.SimpleProgressStore;
+import com.volumetricpixels.questy.storage.store.SqlProgressStore;
 
 import org.bukkit.Server;
+import org.bukkit.entity.Player;
 import org.bukkit.plugin.PluginManager;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.File;
+import java.io.IOException;
+import java.sql.SQLException;
 
 /**
  * Main plugin class for RolecraftQuests, the quest add-on for the Rolecraft RPG
@@ -73,10 +84,63 @@ public final class RolecraftQuests extends JavaPlugin {
      * @since 0.1.0
      */
     public static final String QUEST_SIGN_TYPE = "Quest";
+    /**
+     * The configuration key for which {@link ProgressStore} to use.
+     */
+    private static final String STORAGE_TYPE_KEY = "storage.type";
+    /**
+     * The configuration key for the time between journal commits.
+     */
+    private static final String COMMIT_INTERVAL_KEY = "storage.commit-interval";
+    /**
+     * The configuration key for the journal size which triggers compaction.
+     */
+    private static final String COMPACT_THRESHOLD_KEY = "storage.compact-threshold";
+    /**
+     * The configuration key for the JDBC url of the progression database.
+     */
+    private static final String SQL_URL_KEY = "storage.sql.url";
+    /**
+     * The configuration key for the user to connect to the database as.
+     */
+    private static final String SQL_USER_KEY = "storage.sql.user";
+    /**
+     * The configuration key for the database user's password.
+     */
+    private static final String SQL_PASSWORD_KEY = "storage.sql.password";
+    /**
+     * The configuration key for the number of database connections to keep.
+     */
+    private static final String SQL_POOL_SIZE_KEY = "storage.sql.pool-size";
+    /**
+     * An SQLite database in the data folder, as SQLite is bundled with
+     * CraftBukkit.
+     */
+    private static final String DEFAULT_SQL_URL = "jdbc:sqlite:{data}/progress.db";
+    /**
+     * The configuration key for the number of ticks between saves.
+     */
+    private static final String SAVE_PERIOD_KEY = "storage.save-period";
+    /**
+     * Five seconds.
+     */
+    private static final long DEFAULT_SAVE_PERIOD = 100L;
+    /**
+     * The configuration key for whether quests are reloaded when their files
+     * change.
+     */
+    private static final String HOT_RELOAD_KEY = "quests.hot-reload";
+    /**
+     * The configuration key for the time to wait for quest files to stop
+     * changing before reloading them.
+     */
+    private static final String RELOAD_DELAY_KEY = "quests.reload-delay";
 
     private RolecraftCore core;
     private QuestManager questManager;
     private ProgressStore progressStore;
+    private QuestCache questCache;
+    private QuestReloader questReloader;
     private DungeonManager dungeonManager;
     private QuestingHandler questingHandler;
     private RQDataUpdater dataUpdater;
@@ -89,6 +153,8 @@ public final class RolecraftQuests extends JavaPlugin {
         final Server server = getServer();
         final PluginManager pluginManager = server.getPluginManager();
 
+        saveDefaultConfig();
+
         // plugin.yml has dependency for RolecraftCore so this should always work
         this.core = (RolecraftCore) pluginManager.getPlugin(CORE_PLUGIN_NAME);
 
@@ -115,25 +181,45 @@ public final class RolecraftQuests extends JavaPlugin {
             return;
         }
 
+        this.progressStore = this.createProgressStore(storageFolder);
+        if (this.progressStore == null) {
+            // questing with another store would hide, and then save over,
+            // what is in the configured one
+            pluginManager.disablePlugin(this);
+            return;
+        }
+        final SimpleQuestManager simpleQuestManager = new SimpleQuestManager(
+                progressStore);
+        this.questManager = simpleQuestManager;
+
+        // YAML quests whose files haven't changed since the last start are
+        // rebuilt from the cache rather than parsed again. Scripts always run,
+        // as they may do more than build a quest, such as register listeners
+        this.questCache = new QuestCache(questManager,
+                new File(storageFolder, "quests.cache"));
+        questCache.load();
         questManager.addLoader(new JSQuestLoader(questManager));
-        questManager.addLoader(new YMLQuestLoader(questManager));
+        questManager.addLoader(
+                questCache.wrap(new YMLQuestLoader(questManager)));
 
         questManager.loadQuests(questsFolder);
+        questCache.save();
 
         // create & load dungeons AFTER quests as dungeons depend on quests
         // (progression doesn't matter at this point)
         this.dungeonManager = new DungeonManager(this, dungeonsFolder);
 
-        // we'll use a different implementation of progress store (SQLite / MySQL) when it is added to Questy
-        this.progressStore = new SimpleProgressStore(storageFolder);
-        this.questManager = new SimpleQuestManager(progressStore);
-
         this.questManager.loadProgression();
 
         this.questingHandler = new QuestingHandler(this);
+        // players who are already online (e.g. after a reload) won't join
+        for (final Player player : server.getOnlinePlayers()) {
+            this.questingHandler.loadQuester(player);
+        }
 
         // deals with events regarding starting, finishing quests, giving rewards etc
-        pluginManager.registerEvents(new QuestingListener(this), this);
+        // these are Questy events, so they are fired by the quest manager
+        questManager.getEventManager().register(new QuestingListener(this));
 
         // listeners dealing with updating quest objectives
         pluginManager.registerEvents(new BlockListener(this), this);
@@ -146,11 +232,29 @@ public final class RolecraftQuests extends JavaPlugin {
         pluginManager.registerEvents(new ProfessionListener(this), this);
 
         this.dataUpdater = new RQDataUpdater(this);
-        this.dataUpdater
-                .runTaskTimerAsynchronously(this, 6000L, 6000L); // 5 min delay
+        final long savePeriod = getConfig().getLong(SAVE_PERIOD_KEY,
+                DEFAULT_SAVE_PERIOD);
+        this.dataUpdater.runTaskTimer(this, savePeriod, savePeriod);
 
         core.getSignManager()
                 .registerHandler(new QuestSignInteractionHandler(this));
+
+        if (getConfig().getBoolean(HOT_RELOAD_KEY, true)) {
+            try {
+                // parsed in the background, but swapped in on the main thread
+                this.questReloader = new QuestReloader(simpleQuestManager,
+                        questsFolder,
+                        task -> server.getScheduler().runTask(this, task),
+                        getConfig().getLong(RELOAD_DELAY_KEY,
+                                QuestReloader.DEFAULT_DELAY),
+                        questingHandler::prepareReload);
+                this.questReloader.start();
+            } catch (IOException e) {
+                getLogger().warning("Could not watch the quest folder, so "
+                        + "quests won't be reloaded when they change: "
+                        + e.getMessage());
+            }
+        }
     }
 
     /**
@@ -158,10 +262,125 @@ public final class RolecraftQuests extends JavaPlugin {
      */
     @Override
     public void onDisable() {
+        if (this.questManager == null) {
+            // disabled while enabling, before anything was started
+            return;
+        }
+        if (this.questReloader != null) {
+            this.questReloader.close();
+        }
+        // include quests which were reloaded since the server started
+        this.questCache.save();
         this.dataUpdater.cancel();
+        this.dataUpdater.finish();
 
         this.dungeonManager.cleanup();
         this.questManager.saveProgression();
+        this.progressStore.close();
+        this.questManager.getEventManager().shutdown();
+    }
+
+    /**
+     * Creates the {@link ProgressStore} of the configured type. When a store
+     * is used for the first time, any progression stored by one of the other
+     * types is imported into it. If the configured store can't be used no
+     * other store is used in its place.
+     *
+     * @param storageFolder the folder to store progression in
+     * @return the configured {@link ProgressStore}, or {@code null} if it
+     *         can't be used
+     */
+    @Nullable
+    private ProgressStore createProgressStore(
+            @Nonnull final File storageFolder) {
+        final String type = getConfig().getString(STORAGE_TYPE_KEY, "sharded");
+        final SimpleProgressStore simple = new SimpleProgressStore(
+                storageFolder);
+        if ("simple".equalsIgnoreCase(type)) {
+            return simple;
+        }
+
+        final JournalProgressStore journal = new JournalProgressStore(
+                storageFolder,
+                getConfig().getLong(COMMIT_INTERVAL_KEY,
+                        JournalProgressStore.DEFAULT_COMMIT_INTERVAL),
+                getConfig().getLong(COMPACT_THRESHOLD_KEY,
+                        JournalProgressStore.DEFAULT_COMPACT_THRESHOLD));
+        if ("journal".equalsIgnoreCase(type)) {
+            if (!journal.exists() && simple.exists()) {
+                this.importProgression(simple, journal);
+            }
+            return journal;
+        }
+
+        if ("sql".equalsIgnoreCase(type)) {
+            try {
+                final SqlProgressStore sql = this.openSqlStore(storageFolder);
+                if (sql.isEmpty()) {
+                    final ShardedProgressStore sharded =
+                            new ShardedProgressStore(storageFolder);
+                    if (!sharded.isEmpty()) {
+                        this.importProgression(sharded, sql);
+                    } else {
+                        this.importLegacyProgression(journal, simple, sql);
+                    }
+                }
+                return sql;
+            } catch (final SQLException e) {
+                getLogger().severe("Could not connect to the progression "
+                        + "database: " + e.getMessage());
+                getLogger().severe("RolecraftQuests will be disabled");
+                return null;
+            }
+        }
+        if (!"sharded".equalsIgnoreCase(type)) {
+            getLogger().severe("Unknown storage type '" + type + "'");
+            getLogger().severe("RolecraftQuests will be disabled");
+            return null;
+        }
+        final ShardedProgressStore sharded = new ShardedProgressStore(
+                storageFolder);
+        if (sharded.isEmpty()) {
+            this.importLegacyProgression(journal, simple, sharded);
+        }
+        return sharded;
+    }
+
+    private SqlProgressStore openSqlStore(@Nonnull final File storageFolder)
+            throws SQLException {
+        final String url = getConfig().getString(SQL_URL_KEY,
+                DEFAULT_SQL_URL).replace("{data}",
+                storageFolder.getAbsolutePath());
+        final String user = getConfig().getString(SQL_USER_KEY, "");
+        final String password = getConfig().getString(SQL_PASSWORD_KEY, "");
+        return new SqlProgressStore(url, user.isEmpty() ? null : user,
+                password.isEmpty() ? null : password,
+                getConfig().getInt(SQL_POOL_SIZE_KEY,
+                        SqlProgressStore.DEFAULT_POOL_SIZE));
+    }
+
+    /**
+     * Imports progression from the journal or, failing that, the simple files
+     * into the given store, if either has been used.
+     */
+    private void importLegacyProgression(
+            @Nonnull final JournalProgressStore journal,
+            @Nonnull final SimpleProgressStore simple,
+            @Nonnull final ProgressStore to) {
+        if (journal.exists()) {
+            this.importProgression(journal, to);
+            journal.close();
+        } else if (simple.exists()) {
+            this.importProgression(simple, to);
+        }
+    }
+
+    private void importProgression(@Nonnull final ProgressStore from,
+            @Nonnull final ProgressStore to) {
+        getLogger().info("Importing progression from "
+                + from.getClass().getSimpleName());
+        final int players = ProgressMigrator.migrate(from, to);
+        getLogger().info("Imported progression of " + players + " players");
     }
 
     /**
@@ -28,10 +28,11 @@ package com.github.rolecraftdev.quests.listener;
 
 import com.github.rolecraftdev.event.experience.RCLevelChangeEvent;
 import com.github.rolecraftdev.quests.RolecraftQuests;
+import com.github.rolecraftdev.quests.quest.OutcomeKind;
+import com.github.rolecraftdev.quests.quest.OutcomeRoutingIndex.Subscription;
 import com.github.rolecraftdev.quests.quest.QuestingHandler;
 
-import com.volumetricpixels.questy.QuestInstance;
-import com.volumetricpixels.questy.objective.ObjectiveProgress;
+import com.volumetricpixels.questy.QuesterId;
 import com.volumetricpixels.questy.objective.OutcomeProgress;
 
 import org.bukkit.entity.Player;
@@ -39,9 +40,6 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 
-import java.util.Collection;
-import java.util.Optional;
-
 /**
  * Listens for experience-related events in order to update quests for Rolecraft.
  *
@@ -78,19 +76,18 @@ public final class ExperienceListener implements Listener {
         }
 
         final Player player = event.getPlayer();
-        final Collection<QuestInstance> quests = this.questingHandler
-                .getQuests(player);
+        final QuesterId quester = QuesterId.of(player.getUniqueId());
 
-        for (final QuestInstance quest : quests) {
-            final ObjectiveProgress objective = quest.getCurrentObjective();
-            final Optional<OutcomeProgress> completedOutcome = questingHandler
+        // only visit outcomes which depend on this event
+        for (final Subscription subscription : this.questingHandler
+                .getSubscriptions(player, OutcomeKind.REACH_LEVEL)) {
+            final OutcomeProgress outcome = subscription.getOutcome();
+            if (subscription.isActive() && questingHandler
                     .getObjectiveCompletionChecker().checkCompletion(
-                            objective, player.getUniqueId().toString(),
-                            event.getNewLevel());
-
-            if (completedOutcome.isPresent()) {
-                completedOutcome.get().setProgress(1);
-                quest.objectiveComplete(objective, completedOutcome.get());
+                            outcome, quester, event.getNewLevel())) {
+                outcome.setCount(1);
+                subscription.getQuest().objectiveComplete(
+                        subscription.getObjective(), outcome);
             }
         }
     }
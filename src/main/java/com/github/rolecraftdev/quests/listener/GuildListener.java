@@ -28,10 +28,11 @@ package com.github.rolecraftdev.quests.listener;
 
 import com.github.rolecraftdev.event.guild.GuildPlayerJoinEvent;
 import com.github.rolecraftdev.quests.RolecraftQuests;
+import com.github.rolecraftdev.quests.quest.OutcomeKind;
+import com.github.rolecraftdev.quests.quest.OutcomeRoutingIndex.Subscription;
 import com.github.rolecraftdev.quests.quest.QuestingHandler;
 
-import com.volumetricpixels.questy.QuestInstance;
-import com.volumetricpixels.questy.objective.ObjectiveProgress;
+import com.volumetricpixels.questy.QuesterId;
 import com.volumetricpixels.questy.objective.OutcomeProgress;
 
 import org.bukkit.entity.Player;
@@ -39,9 +40,6 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 
-import java.util.Collection;
-import java.util.Optional;
-
 /**
  * Listens for guild-related events in order to update quests for Rolecraft.
  *
@@ -74,19 +72,18 @@ public final class GuildListener implements Listener {
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onGuildJoin(final GuildPlayerJoinEvent event) {
         final Player player = event.getPlayer();
-        final Collection<QuestInstance> quests = this.questingHandler
-                .getQuests(player);
+        final QuesterId quester = QuesterId.of(player.getUniqueId());
 
-        for (final QuestInstance quest : quests) {
-            final ObjectiveProgress objective = quest.getCurrentObjective();
-            final Optional<OutcomeProgress> completedOutcome = questingHandler
+        // only visit outcomes which depend on this event
+        for (final Subscription subscription : this.questingHandler
+                .getSubscriptions(player, OutcomeKind.JOIN_GUILD)) {
+            final OutcomeProgress outcome = subscription.getOutcome();
+            if (subscription.isActive() && questingHandler
                     .getObjectiveCompletionChecker().checkCompletion(
-                            objective, player.getUniqueId().toString(),
-                            event.getGuild().getId());
-
-            if (completedOutcome.isPresent()) {
-                completedOutcome.get().setProgress(1);
-                quest.objectiveComplete(objective, completedOutcome.get());
+                            outcome, quester, event.getGuild().getId())) {
+                outcome.setCount(1);
+                subscription.getQuest().objectiveComplete(
+                        subscription.getObjective(), outcome);
             }
         }
     }
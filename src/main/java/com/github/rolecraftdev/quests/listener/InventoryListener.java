@@ -27,23 +27,17 @@
 package com.github.rolecraftdev.quests.listener;
 
 import com.github.rolecraftdev.quests.RolecraftQuests;
+import com.github.rolecraftdev.quests.quest.OutcomeKind;
 import com.github.rolecraftdev.quests.quest.QuestingHandler;
 
-import com.volumetricpixels.questy.QuestInstance;
-import com.volumetricpixels.questy.objective.ObjectiveProgress;
-import com.volumetricpixels.questy.objective.OutcomeProgress;
-
 import org.bukkit.entity.HumanEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
-import org.bukkit.event.inventory.InventoryPickupItemEvent;
-import org.bukkit.inventory.Inventory;
-import org.bukkit.inventory.PlayerInventory;
-
-import java.util.Collection;
-import java.util.Optional;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.player.PlayerPickupItemEvent;
 
 /**
  * Listens for inventory-related events in order to update quests for Rolecraft.
@@ -71,34 +65,37 @@ public final class InventoryListener implements Listener {
         this.questingHandler = plugin.getQuestingHandler();
     }
 
-    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
-    public void onPickupItem(final InventoryPickupItemEvent event) {
-        final Inventory inventory = event.getInventory();
-        if (!(inventory instanceof PlayerInventory)) {
-            return;
-        }
+    // these events fire before the player's inventory has changed, so the
+    // affected outcomes are checked by the completion check task afterwards
 
-        final PlayerInventory playerInventory = (PlayerInventory) inventory;
-        final HumanEntity humanEntity = playerInventory.getHolder();
-        if (!(humanEntity instanceof Player)) {
-            return;
-        }
+    /**
+     * @since 0.1.0
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPickupItem(final PlayerPickupItemEvent event) {
+        questingHandler.markDirty(event.getPlayer(), OutcomeKind.ACQUIRE_ITEMS);
+    }
 
-        final Player player = (Player) humanEntity;
-        final Collection<QuestInstance> quests = this.questingHandler
-                .getQuests(player);
+    /**
+     * @since 0.1.0
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryClick(final InventoryClickEvent event) {
+        markDirty(event.getWhoClicked());
+    }
 
-        for (final QuestInstance quest : quests) {
-            final ObjectiveProgress objective = quest.getCurrentObjective();
-            final Optional<OutcomeProgress> completedOutcome = questingHandler
-                    .getObjectiveCompletionChecker().checkCompletion(
-                            objective, player.getUniqueId().toString(),
-                            playerInventory);
+    /**
+     * @since 0.1.0
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onInventoryClose(final InventoryCloseEvent event) {
+        markDirty(event.getPlayer());
+    }
 
-            if (completedOutcome.isPresent()) {
-                completedOutcome.get().setProgress(1);
-                quest.objectiveComplete(objective, completedOutcome.get());
-            }
+    private void markDirty(final HumanEntity humanEntity) {
+        if (humanEntity instanceof Player) {
+            questingHandler.markDirty((Player) humanEntity,
+                    OutcomeKind.ACQUIRE_ITEMS);
         }
     }
 }
@@ -26,13 +26,11 @@
  */
 package com.github.rolecraftdev.quests.listener;
 
-import com.github.rolecraftdev.quests.RQUtil;
 import com.github.rolecraftdev.quests.RolecraftQuests;
+import com.github.rolecraftdev.quests.quest.OutcomeKind;
+import com.github.rolecraftdev.quests.quest.OutcomeRoutingIndex.Subscription;
 import com.github.rolecraftdev.quests.quest.QuestingHandler;
 
-import com.volumetricpixels.questy.QuestInstance;
-import com.volumetricpixels.questy.objective.ObjectiveProgress;
-import com.volumetricpixels.questy.objective.Outcome;
 import com.volumetricpixels.questy.objective.OutcomeProgress;
 
 import org.bukkit.entity.Entity;
@@ -43,12 +41,10 @@ import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityDamageByEntityEvent;
 import org.bukkit.event.entity.EntityDamageEvent;
 import org.bukkit.event.entity.PlayerDeathEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 
-import java.util.Collection;
-import java.util.Set;
-
-import static com.github.rolecraftdev.quests.quest.ObjectiveOutcomeTypes.KILL_PLAYER;
-import static com.github.rolecraftdev.quests.quest.ObjectiveOutcomeTypes.KILL_PLAYERS;
+import java.util.UUID;
 
 /**
  * Listens for player-related events in order to update quests for Rolecraft.
@@ -76,6 +72,32 @@ public final class PlayerListener implements Listener {
         this.questingHandler = plugin.getQuestingHandler();
     }
 
+    /**
+     * @since 0.1.0
+     */
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void loadPlayerQuests(final PlayerJoinEvent event) {
+        // load before anything else may look at the player's quests
+        questingHandler.loadQuester(event.getPlayer());
+    }
+
+    /**
+     * @since 0.1.0
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(final PlayerJoinEvent event) {
+        // anything may have changed while the player was offline
+        questingHandler.markDirty(event.getPlayer());
+    }
+
+    /**
+     * @since 0.1.0
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(final PlayerQuitEvent event) {
+        questingHandler.unloadQuester(event.getPlayer());
+    }
+
     /**
      * @since 0.1.0
      */
@@ -98,56 +120,29 @@ public final class PlayerListener implements Listener {
         }
 
         final Player killer = (Player) entityKiller;
-        final Collection<QuestInstance> killerQuestInstances = questingHandler
-                .getQuests(killer);
-
-        for (final QuestInstance questInstance : killerQuestInstances) {
-            final ObjectiveProgress objectiveProgress = questInstance
-                    .getCurrentObjective();
-            final Set<OutcomeProgress> outcomeProgresses = objectiveProgress
-                    .getOutcomeProgresses();
-
-            for (final OutcomeProgress outcomeProgress : outcomeProgresses) {
-                final Outcome outcome = outcomeProgress.getInfo();
-                final String[] typeSegments = outcome.getType().split(
-                        RQUtil.QUOTED_UNDERSCORE);
-                final int length = typeSegments.length;
-
-                if (length == 0) {
-                    continue;
-                }
-
-                if (length == 1) {
-                    if (typeSegments[0].equals(KILL_PLAYER) && outcomeProgress
-                            .getProgress().toString().equals("0")) { // case-sensitive
-                        outcomeProgress.setProgress(1);
-                        questInstance.objectiveComplete(objectiveProgress,
-                                outcomeProgress);
-                    }
-
-                    continue;
-                }
-
-                // at this point we know length > 1
-                if (typeSegments[0].equals(KILL_PLAYER) && outcomeProgress
-                        .getProgress().toString().equals("0")) {
-                    final String playerID = typeSegments[1];
-                    if (killed.getUniqueId().toString().equals(playerID)) {
-                        outcomeProgress.setProgress(1);
-                        questInstance.objectiveComplete(objectiveProgress,
-                                outcomeProgress);
-                    }
-                } else if (typeSegments[0].equals(KILL_PLAYERS)) {
-                    final int killsNeeded = Integer.valueOf(typeSegments[1]); // if this causes an exception, the quest is not valid
-                    outcomeProgress.setProgress(Integer.valueOf(
-                            outcomeProgress.getProgress().toString()) + 1);
-
-                    if (Integer.valueOf(
-                            outcomeProgress.getProgress().toString()) >= killsNeeded) {
-                        questInstance.objectiveComplete(objectiveProgress,
-                                outcomeProgress);
-                    }
-                }
+
+        // only visit the killer's outcomes which count kills
+        for (final Subscription subscription : questingHandler
+                .getSubscriptions(killer, OutcomeKind.KILL_PLAYER)) {
+            final OutcomeProgress outcomeProgress = subscription.getOutcome();
+            // a null target means any player will do
+            final UUID target = subscription.getDescriptor().getPlayer();
+            if (subscription.isActive() && outcomeProgress.getCount() == 0
+                    && (target == null
+                    || target.equals(killed.getUniqueId()))) {
+                outcomeProgress.setCount(1);
+                subscription.getQuest().objectiveComplete(
+                        subscription.getObjective(), outcomeProgress);
+            }
+        }
+
+        for (final Subscription subscription : questingHandler
+                .getSubscriptions(killer, OutcomeKind.KILL_PLAYERS)) {
+            final OutcomeProgress outcomeProgress = subscription.getOutcome();
+            if (subscription.isActive() && outcomeProgress.increment()
+                    >= subscription.getDescriptor().getQuantity()) {
+                subscription.getQuest().objectiveComplete(
+                        subscription.getObjective(), outcomeProgress);
             }
         }
     }
@@ -0,0 +1,109 @@
+/*
+ * This file is part of RolecraftQuests.
+ *
+ * Copyright (c) 2016 RolecraftDev <http://rolecraftdev.github.com>
+ * RolecraftQuests is licensed under the Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License. To view a copy of this
+ * license, visit http://creativecommons.org/licenses/by-nc-nd/3.0
+ *
+ * As long as you follow the following terms, you are free to copy and redistribute
+ * the material in any medium or format.
+ *
+ * You must give appropriate credit, provide a link to the license, and indicate
+ * whether any changes were made to the material. You may do so in any reasonable
+ * manner, but not in any way which suggests the licensor endorses you or your use.
+ *
+ * You may not use the material for commercial purposes.
+ *
+ * If you remix, transform, or build upon the material, you may not distribute the
+ * modified material.
+ *
+ * You may not apply legal terms or technological measures that legally restrict
+ * others from doing anything the license permits.
+ *
+ * DISCLAIMER: This is a human-readable summary of (and not a substitute for) the
+ * license.
+ */
+package com.github.rolecraftdev.quests.quest;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Records which kinds of outcome may have changed for which players since
+ * they were last checked, so that periodic completion checks only re-read the
+ * data which could actually have changed. Players are kept in the order they
+ * were first marked. This class is not threadsafe.
+ *
+ * @since 0.1.0
+ */
+public final class DirtyOutcomeSet {
+    /**
+     * A {@link Map} of player ids to the kinds of outcome to re-check for them.
+     */
+    private final Map<UUID, Set<OutcomeKind>> dirty = new LinkedHashMap<>();
+
+    /**
+     * Marks the given kind of outcome as needing to be re-checked for the
+     * given player.
+     *
+     * @param player the id of the player
+     * @param kind the {@link OutcomeKind} which may have changed
+     * @since 0.1.0
+     */
+    public void mark(@Nonnull final UUID player,
+            @Nonnull final OutcomeKind kind) {
+        Set<OutcomeKind> kinds = dirty.get(player);
+        if (kinds == null) {
+            kinds = EnumSet.noneOf(OutcomeKind.class);
+            dirty.put(player, kinds);
+        }
+        kinds.add(kind);
+    }
+
+    /**
+     * Checks whether any player has outcomes to be re-checked.
+     *
+     * @return whether this set is empty
+     * @since 0.1.0
+     */
+    public boolean isEmpty() {
+        return dirty.isEmpty();
+    }
+
+    /**
+     * Gets the number of players with outcomes to be re-checked.
+     *
+     * @return the number of dirty players
+     * @since 0.1.0
+     */
+    public int size() {
+        return dirty.size();
+    }
+
+    /**
+     * Removes and returns the player who was marked the longest time ago,
+     * along with the kinds of outcome to re-check for them.
+     *
+     * @return the next dirty player, or {@code null} if there isn't one
+     * @since 0.1.0
+     */
+    @Nullable
+    public Map.Entry<UUID, Set<OutcomeKind>> poll() {
+        final Iterator<Map.Entry<UUID, Set<OutcomeKind>>> it = dirty.entrySet()
+                .iterator();
+        if (!it.hasNext()) {
+            return null;
+        }
+
+        final Map.Entry<UUID, Set<OutcomeKind>> next = it.next();
+        it.remove();
+        return next;
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * This file is part of RolecraftQuests.
+ *
+ * Copyright (c) 2016 RolecraftDev <http://rolecraftdev.github.com>
+ * RolecraftQuests is licensed under the Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License. To view a copy of this
+ * license, visit http://creativecommons.org/licenses/by-nc-nd/3.0
+ *
+ * As long as you follow the following terms, you are free to copy and redistribute
+ * the material in any medium or format.
+ *
+ * You must give appropriate credit, provide a link to the license, and indicate
+ * whether any changes were made to the material. You may do so in any reasonable
+ * manner, but not in any way which suggests the licensor endorses you or your use.
+ *
+ * You may not use the material for commercial purposes.
+ *
+ * If you remix, transform, or build upon the material, you may not distribute the
+ * modified material.
+ *
+ * You may not apply legal terms or technological measures that legally restrict
+ * others from doing anything the license permits.
+ *
+ * DISCLAIMER: This is a human-readable summary of (and not a substitute for) the
+ * license.
+ */
+package com.github.rolecraftdev.quests.quest;
+
+import com.github.rolecraftdev.quests.RQUtil;
+
+import org.bukkit.Material;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.UUID;
+
+/**
+ * An immutable, pre-parsed form of a quest objective outcome type string such
+ * as {@code killplayers_5} or {@code acquireitems_DIAMOND_3}. Outcome types are
+ * parsed once when quests are loaded so that checks made while questing only
+ * need to read fields.
+ *
+ * @since 0.1.0
+ */
+public final class OutcomeDescriptor {
+    /**
+     * The kind of outcome described.
+     */
+    private final OutcomeKind kind;
+    /**
+     * The item required, for {@link OutcomeKind#ACQUIRE_ITEMS}.
+     */
+    private final Material material;
+    /**
+     * The number of items or kills required, for {@link
+     * OutcomeKind#ACQUIRE_ITEMS} and {@link OutcomeKind#KILL_PLAYERS}.
+     */
+    private final int quantity;
+    /**
+     * The level required, for {@link OutcomeKind#REACH_LEVEL}.
+     */
+    private final int level;
+    /**
+     * The balance required, for {@link OutcomeKind#ACQUIRE_MONEY}.
+     */
+    private final double amount;
+    /**
+     * The specific player to kill, for {@link OutcomeKind#KILL_PLAYER}, or
+     * {@code null} if any player will do.
+     */
+    private final UUID player;
+
+    private OutcomeDescriptor(final OutcomeKind kind, final Material material,
+            final int quantity, final int level, final double amount,
+            final UUID player) {
+        this.kind = kind;
+        this.material = material;
+        this.quantity = quantity;
+        this.level = level;
+        this.amount = amount;
+        this.player = player;
+    }
+
+    /**
+     * Parses the given outcome type.
+     *
+     * @param type the outcome type to parse
+     * @return the parsed {@link OutcomeDescriptor}
+     * @throws IllegalArgumentException if the given type is not a valid
+     *         RolecraftQuests outcome type
+     * @since 0.1.0
+     */
+    @Nonnull
+    public static OutcomeDescriptor parse(@Nonnull final String type) {
+        final String[] split = type.split(RQUtil.QUOTED_UNDERSCORE);
+        final OutcomeKind kind = OutcomeKind.fromPrefix(split[0]);
+        if (kind == null) {
+            throw new IllegalArgumentException(
+                    "Unknown outcome type '" + type + "'");
+        }
+
+        try {
+            switch (kind) {
+                case KILL_PLAYER:
+                    checkLength(type, split, 1, 2);
+                    return new OutcomeDescriptor(kind, null, 1, 0, 0,
+                            split.length == 2 ? UUID.fromString(split[1]) :
+                                    null);
+                case KILL_PLAYERS:
+                    checkLength(type, split, 2, 2);
+                    return new OutcomeDescriptor(kind, null,
+                            Integer.parseInt(split[1]), 0, 0, null);
+                case REACH_LEVEL:
+                    checkLength(type, split, 2, 2);
+                    return new OutcomeDescriptor(kind, null, 0,
+                            Integer.parseInt(split[1]), 0, null);
+                case ACQUIRE_ITEMS:
+                    // format: 'acquireitems_ITEM-NAME' or 'acquireitems_ITEM-NAME_quantity'
+                    checkLength(type, split, 2, 3);
+                    final Material material = Material.getMaterial(
+                            split[1].replace('-', '_').toUpperCase());
+                    if (material == null) {
+                        throw new IllegalArgumentException(
+                                "Unknown item in outcome type '" + type + "'");
+                    }
+                    return new OutcomeDescriptor(kind, material,
+                            split.length == 3 ? Integer.parseInt(split[2]) : 1,
+                            0, 0, null);
+                case ACQUIRE_MONEY:
+                    checkLength(type, split, 2, 2);
+                    return new OutcomeDescriptor(kind, null, 0, 0,
+                            Double.parseDouble(split[1]), null);
+                default:
+                    // SELECT_PROFESSION and JOIN_GUILD take no arguments
+                    checkLength(type, split, 1, 1);
+                    return new OutcomeDescriptor(kind, null, 0, 0, 0, null);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(
+                    "Invalid number in outcome type '" + type + "'", e);
+        }
+    }
+
+    private static void checkLength(final String type, final String[] split,
+            final int min, final int max) {
+        if (split.length < min || split.length > max) {
+            throw new IllegalArgumentException(
+                    "Wrong number of arguments in outcome type '" + type
+                            + "'");
+        }
+    }
+
+    /**
+     * @return the kind of outcome described
+     * @since 0.1.0
+     */
+    @Nonnull
+    public OutcomeKind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return the item required, or {@code null} if not applicable
+     * @since 0.1.0
+     */
+    @Nullable
+    public Material getMaterial() {
+        return material;
+    }
+
+    /**
+     * @return the number of items or kills required
+     * @since 0.1.0
+     */
+    public int getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * @return the level required
+     * @since 0.1.0
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * @return the balance required
+     * @since 0.1.0
+     */
+    public double getAmount() {
+        return amount;
+    }
+
+    /**
+     * @return the specific player to kill, or {@code null} for any player
+     * @since 0.1.0
+     */
+    @Nullable
+    public UUID getPlayer() {
+        return player;
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * This file is part of RolecraftQuests.
+ *
+ * Copyright (c) 2016 RolecraftDev <http://rolecraftdev.github.com>
+ * RolecraftQuests is licensed under the Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License. To view a copy of this
+ * license, visit http://creativecommons.org/licenses/by-nc-nd/3.0
+ *
+ * As long as you follow the following terms, you are free to copy and redistribute
+ * the material in any medium or format.
+ *
+ * You must give appropriate credit, provide a link to the license, and indicate
+ * whether any changes were made to the material. You may do so in any reasonable
+ * manner, but not in any way which suggests the licensor endorses you or your use.
+ *
+ * You may not use the material for commercial purposes.
+ *
+ * If you remix, transform, or build upon the material, you may not distribute the
+ * modified material.
+ *
+ * You may not apply legal terms or technological measures that legally restrict
+ * others from doing anything the license permits.
+ *
+ * DISCLAIMER: This is a human-readable summary of (and not a substitute for) the
+ * license.
+ */
+package com.github.rolecraftdev.quests.quest;
+
+import com.github.rolecraftdev.quests.quest.completion.EconomyOutcomeCompletionChecker;
+import com.github.rolecraftdev.quests.quest.completion.ExperienceOutcomeCompletionChecker;
+import com.github.rolecraftdev.quests.quest.completion.GuildOutcomeCompletionChecker;
+import com.github.rolecraftdev.quests.quest.completion.InventoryOutcomeCompletionChecker;
+import com.github.rolecraftdev.quests.quest.completion.ProfessionOutcomeCompletionChecker;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The kinds of quest objective outcome implemented by RolecraftQuests. Each
+ * kind corresponds to one of the type prefixes in {@link
+ * ObjectiveOutcomeTypes}.
+ *
+ * @since 0.1.0
+ */
+public enum OutcomeKind {
+    /**
+     * @see ObjectiveOutcomeTypes#KILL_PLAYER
+     * @since 0.1.0
+     */
+    KILL_PLAYER(ObjectiveOutcomeTypes.KILL_PLAYER, null),
+    /**
+     * @see ObjectiveOutcomeTypes#KILL_PLAYERS
+     * @since 0.1.0
+     */
+    KILL_PLAYERS(ObjectiveOutcomeTypes.KILL_PLAYERS, null),
+    /**
+     * @see ObjectiveOutcomeTypes#SELECT_PROFESSION
+     * @since 0.1.0
+     */
+    SELECT_PROFESSION(ObjectiveOutcomeTypes.SELECT_PROFESSION,
+            ProfessionOutcomeCompletionChecker.TYPE),
+    /**
+     * @see ObjectiveOutcomeTypes#JOIN_GUILD
+     * @since 0.1.0
+     */
+    JOIN_GUILD(ObjectiveOutcomeTypes.JOIN_GUILD,
+            GuildOutcomeCompletionChecker.TYPE),
+    /**
+     * @see ObjectiveOutcomeTypes#REACH_LEVEL
+     * @since 0.1.0
+     */
+    REACH_LEVEL(ObjectiveOutcomeTypes.REACH_LEVEL,
+            ExperienceOutcomeCompletionChecker.TYPE),
+    /**
+     * @see ObjectiveOutcomeTypes#ACQUIRE_ITEMS
+     * @since 0.1.0
+     */
+    ACQUIRE_ITEMS(ObjectiveOutcomeTypes.ACQUIRE_ITEMS,
+            InventoryOutcomeCompletionChecker.TYPE),
+    /**
+     * @see ObjectiveOutcomeTypes#ACQUIRE_MONEY
+     * @since 0.1.0
+     */
+    ACQUIRE_MONEY(ObjectiveOutcomeTypes.ACQUIRE_MONEY,
+            EconomyOutcomeCompletionChecker.TYPE);
+
+    /**
+     * The lowercase type prefix for this kind of outcome.
+     */
+    private final String prefix;
+    /**
+     * The type of the {@link
+     * com.github.rolecraftdev.quests.quest.completion.OutcomeCompletionChecker}
+     * which checks this kind of outcome, or {@code null} if it is only
+     * progressed by listeners.
+     */
+    private final String checkerType;
+
+    OutcomeKind(final String prefix, final String checkerType) {
+        this.prefix = prefix;
+        this.checkerType = checkerType;
+    }
+
+    /**
+     * Gets the lowercase type prefix for this kind of outcome.
+     *
+     * @return this kind's type prefix
+     * @since 0.1.0
+     */
+    @Nonnull
+    public String getPrefix() {
+        return prefix;
+    }
+
+    /**
+     * Gets the type of the outcome completion checker responsible for this
+     * kind of outcome.
+     *
+     * @return the checker type, or {@code null} if there isn't one
+     * @since 0.1.0
+     */
+    @Nullable
+    public String getCheckerType() {
+        return checkerType;
+    }
+
+    /**
+     * Gets the {@link OutcomeKind} with the given type prefix, ignoring case.
+     *
+     * @param prefix the type prefix
+     * @return the kind with the given prefix, or {@code null} if there isn't
+     *         one
+     * @since 0.1.0
+     */
+    @Nullable
+    public static OutcomeKind fromPrefix(@Nonnull final String prefix) {
+        for (final OutcomeKind kind : values()) {
+            if (kind.prefix.equalsIgnoreCase(prefix)) {
+                return kind;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,323 @@
+/*
+ * This file is part of RolecraftQuests.
+ *
+ * Copyright (c) 2016 RolecraftDev <http://rolecraftdev.github.com>
+ * RolecraftQuests is licensed under the Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License. To view a copy of this
+ * license, visit http://creativecommons.org/licenses/by-nc-nd/3.0
+ *
+ * As long as you follow the following terms, you are free to copy and redistribute
+ * the material in any medium or format.
+ *
+ * You must give appropriate credit, provide a link to the license, and indicate
+ * whether any changes were made to the material. You may do so in any reasonable
+ * manner, but not in any way which suggests the licensor endorses you or your use.
+ *
+ * You may not use the material for commercial purposes.
+ *
+ * If you remix, transform, or build upon the material, you may not distribute the
+ * modified material.
+ *
+ * You may not apply legal terms or technological measures that legally restrict
+ * others from doing anything the license permits.
+ *
+ * DISCLAIMER: This is a human-readable summary of (and not a substitute for) the
+ * license.
+ */
+package com.github.rolecraftdev.quests.quest;
+
+import com.volumetricpixels.questy.QuestInstance;
+import com.volumetricpixels.questy.QuesterId;
+import com.volumetricpixels.questy.event.Listen;
+import com.volumetricpixels.questy.event.Priority;
+import com.volumetricpixels.questy.event.quest.QuestAbandonEvent;
+import com.volumetricpixels.questy.event.quest.QuestCompleteEvent;
+import com.volumetricpixels.questy.event.quest.QuestMigrateEvent;
+import com.volumetricpixels.questy.event.quest.objective.ObjectiveCompleteEvent;
+import com.volumetricpixels.questy.event.quest.objective.ObjectiveFailEvent;
+import com.volumetricpixels.questy.event.quest.objective.ObjectiveStartEvent;
+import com.volumetricpixels.questy.objective.ObjectiveProgress;
+import com.volumetricpixels.questy.objective.OutcomeProgress;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Indexes the outcomes of each quester's active objectives by
+ * {@link OutcomeKind}, so that a listener for e.g. level changes only has to
+ * visit the outcomes which actually depend on the player's level rather than
+ * every outcome of every quest the player has in progress.
+ *
+ * The index keeps itself up to date by listening for objective and quest
+ * events, so it must be registered to the Questy event manager. It is only
+ * intended to be used from the main server thread.
+ *
+ * @since 0.1.0
+ */
+public final class OutcomeRoutingIndex {
+    /**
+     * The {@link QuestingHandler} used to look up outcome descriptors.
+     */
+    private final QuestingHandler questingHandler;
+    /**
+     * A {@link Map} of questers to the subscriptions of their active outcomes,
+     * grouped by kind.
+     */
+    private final Map<QuesterId, Map<OutcomeKind, List<Subscription>>> routes;
+
+    /**
+     * Constructor.
+     *
+     * @param questingHandler the {@link QuestingHandler} to look up outcome
+     *        descriptors with
+     * @since 0.1.0
+     */
+    public OutcomeRoutingIndex(@Nonnull final QuestingHandler questingHandler) {
+        this.questingHandler = questingHandler;
+        this.routes = new HashMap<>();
+    }
+
+    /**
+     * Gets the active outcomes of the given kind for the given quester. The
+     * returned {@link List} is a snapshot, so it is safe to complete objectives
+     * while iterating it; subscriptions which are removed in the meantime are
+     * marked as no longer {@link Subscription#isActive() active}.
+     *
+     * @param quester the quester to get subscriptions for
+     * @param kind the {@link OutcomeKind} to get subscriptions for
+     * @return the quester's active outcomes of the given kind
+     * @since 0.1.0
+     */
+    @Nonnull
+    public List<Subscription> getSubscriptions(@Nonnull final QuesterId quester,
+            @Nonnull final OutcomeKind kind) {
+        final Map<OutcomeKind, List<Subscription>> byKind = routes.get(quester);
+        if (byKind == null) {
+            return Collections.emptyList();
+        }
+
+        final List<Subscription> subscriptions = byKind.get(kind);
+        if (subscriptions == null || subscriptions.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(subscriptions);
+    }
+
+    /**
+     * Checks whether the given quester has any active outcomes of the given
+     * kind.
+     *
+     * @param quester the quester to check
+     * @param kind the {@link OutcomeKind} to check for
+     * @return whether the quester has an active outcome of the given kind
+     * @since 0.1.0
+     */
+    public boolean hasSubscriptions(@Nonnull final QuesterId quester,
+            @Nonnull final OutcomeKind kind) {
+        final Map<OutcomeKind, List<Subscription>> byKind = routes.get(quester);
+        return byKind != null && byKind.containsKey(kind);
+    }
+
+    /**
+     * Adds every outcome of the given {@link ObjectiveProgress} to the index.
+     *
+     * @param objective the newly active objective
+     * @since 0.1.0
+     */
+    public void subscribe(@Nonnull final ObjectiveProgress objective) {
+        final QuestInstance quest = objective.getQuest();
+        Map<OutcomeKind, List<Subscription>> byKind = routes
+                .get(quest.getQuesterId());
+
+        for (final OutcomeProgress outcome : objective.getOutcomeProgresses()) {
+            final OutcomeDescriptor descriptor = questingHandler
+                    .getOutcomeDescriptor(outcome.getInfo());
+            if (descriptor == null) {
+                continue;
+            }
+
+            if (byKind == null) {
+                byKind = new EnumMap<>(OutcomeKind.class);
+                routes.put(quest.getQuesterId(), byKind);
+            }
+            List<Subscription> subscriptions = byKind.get(descriptor.getKind());
+            if (subscriptions == null) {
+                subscriptions = new ArrayList<>(1);
+                byKind.put(descriptor.getKind(), subscriptions);
+            }
+            subscriptions.add(new Subscription(objective, outcome, descriptor));
+        }
+    }
+
+    /**
+     * Removes every outcome of the given {@link ObjectiveProgress} from the
+     * index.
+     *
+     * @param objective the objective which is no longer active
+     * @since 0.1.0
+     */
+    public void unsubscribe(@Nonnull final ObjectiveProgress objective) {
+        final QuestInstance quest = objective.getQuest();
+        remove(quest.getQuesterId(), s -> s.objective == objective);
+    }
+
+    /**
+     * Removes every outcome of the given {@link QuestInstance} from the index.
+     *
+     * @param quest the quest which is no longer active
+     * @since 0.1.0
+     */
+    public void unsubscribe(@Nonnull final QuestInstance quest) {
+        remove(quest.getQuesterId(), s -> s.objective.getQuest() == quest);
+    }
+
+    private void remove(final QuesterId quester,
+            final Predicate<Subscription> filter) {
+        final Map<OutcomeKind, List<Subscription>> byKind = routes.get(quester);
+        if (byKind == null) {
+            return;
+        }
+
+        final Iterator<List<Subscription>> lists = byKind.values().iterator();
+        while (lists.hasNext()) {
+            final List<Subscription> subscriptions = lists.next();
+            subscriptions.removeIf(s -> filter.test(s) && s.deactivate());
+            if (subscriptions.isEmpty()) {
+                lists.remove();
+            }
+        }
+        if (byKind.isEmpty()) {
+            routes.remove(quester);
+        }
+    }
+
+    /**
+     * @since 0.1.0
+     */
+    @Listen(monitor = true, priority = Priority.LOWEST)
+    public void onObjectiveStart(final ObjectiveStartEvent event) {
+        subscribe(event.getObjective());
+    }
+
+    /**
+     * @since 0.1.0
+     */
+    @Listen(monitor = true, priority = Priority.LOWEST)
+    public void onObjectiveComplete(final ObjectiveCompleteEvent event) {
+        unsubscribe(event.getObjective());
+    }
+
+    /**
+     * @since 0.1.0
+     */
+    @Listen(monitor = true, priority = Priority.LOWEST)
+    public void onObjectiveFail(final ObjectiveFailEvent event) {
+        // a failed objective is replaced with fresh progress, so re-index the
+        // quest's current objective rather than the failed one
+        final QuestInstance quest = event.getQuest();
+        unsubscribe(quest);
+        subscribe(quest.getCurrentObjective());
+    }
+
+    /**
+     * @since 0.1.0
+     */
+    @Listen(monitor = true, priority = Priority.LOWEST, ignoreCancelled = true)
+    public void onQuestAbandon(final QuestAbandonEvent event) {
+        unsubscribe(event.getQuest());
+    }
+
+    /**
+     * @since 0.1.0
+     */
+    @Listen(monitor = true, priority = Priority.LOWEST)
+    public void onQuestComplete(final QuestCompleteEvent event) {
+        unsubscribe(event.getQuest());
+    }
+
+    /**
+     * @since 0.1.0
+     */
+    @Listen(monitor = true, priority = Priority.LOWEST)
+    public void onQuestMigrate(final QuestMigrateEvent event) {
+        // the quest was reloaded, so index the new version's objective
+        unsubscribe(event.getPrevious());
+        subscribe(event.getQuest().getCurrentObjective());
+    }
+
+    /**
+     * A single outcome of an active objective, along with its parsed type.
+     *
+     * @since 0.1.0
+     */
+    public static final class Subscription {
+        private final ObjectiveProgress objective;
+        private final OutcomeProgress outcome;
+        private final OutcomeDescriptor descriptor;
+        private boolean active = true;
+
+        private Subscription(final ObjectiveProgress objective,
+                final OutcomeProgress outcome,
+                final OutcomeDescriptor descriptor) {
+            this.objective = objective;
+            this.outcome = outcome;
+            this.descriptor = descriptor;
+        }
+
+        /**
+         * @since 0.1.0
+         */
+        @Nonnull
+        public QuestInstance getQuest() {
+            return objective.getQuest();
+        }
+
+        /**
+         * @since 0.1.0
+         */
+        @Nonnull
+        public ObjectiveProgress getObjective() {
+            return objective;
+        }
+
+        /**
+         * @since 0.1.0
+         */
+        @Nonnull
+        public OutcomeProgress getOutcome() {
+            return outcome;
+        }
+
+        /**
+         * @since 0.1.0
+         */
+        @Nonnull
+        public OutcomeDescriptor getDescriptor() {
+            return descriptor;
+        }
+
+        /**
+         * Checks whether the outcome is still part of an active objective.
+         * This becomes {@code false} once the objective is completed or failed,
+         * or the quest ends.
+         *
+         * @return whether the outcome is still active
+         * @since 0.1.0
+         */
+        public boolean isActive() {
+            return active;
+        }
+
+        private boolean deactivate() {
+            active = false;
+            return true;
+        }
+    }
+}
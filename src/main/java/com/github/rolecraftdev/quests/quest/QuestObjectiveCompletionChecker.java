@@ -29,6 +29,7 @@ package com.github.rolecraftdev.quests.quest;
 import com.github.rolecraftdev.quests.RolecraftQuests;
 import com.github.rolecraftdev.quests.quest.completion.OutcomeCompletionChecker;
 
+import com.volumetricpixels.questy.QuesterId;
 import com.volumetricpixels.questy.objective.ObjectiveProgress;
 import com.volumetricpixels.questy.objective.OutcomeProgress;
 
@@ -52,8 +53,8 @@ public final class QuestObjectiveCompletionChecker {
      */
     private final QuestingHandler questingHandler;
     /**
-     * A {@link Map} of objective outcome types to outcome completion checkers
-     * of those types.
+     * A {@link Map} of outcome completion checker types to outcome completion
+     * checkers of those types.
      */
     private final Map<String, OutcomeCompletionChecker> outcomeCheckers;
 
@@ -61,12 +62,15 @@ public final class QuestObjectiveCompletionChecker {
      * Constructor.
      *
      * @param plugin the {@link RolecraftQuests} plugin instance
+     * @param questingHandler the plugin's {@link QuestingHandler}, which may
+     *        still be under construction
      * @since 0.1.0
      */
     public QuestObjectiveCompletionChecker(
-            @Nonnull final RolecraftQuests plugin) {
+            @Nonnull final RolecraftQuests plugin,
+            @Nonnull final QuestingHandler questingHandler) {
         this.plugin = plugin;
-        this.questingHandler = plugin.getQuestingHandler();
+        this.questingHandler = questingHandler;
         this.outcomeCheckers = new HashMap<>();
     }
 
@@ -77,19 +81,15 @@ public final class QuestObjectiveCompletionChecker {
      *
      * @param objective the quester's progress in the objective which is being
      *        checked
-     * @param quester the player UUID of the quester to check progress for
+     * @param quester the id of the quester to check progress for
      * @return the completed outcome progress, or empty if there isn't one
      * @since 0.1.0
      */
     public Optional<OutcomeProgress> checkCompletion(
-            final ObjectiveProgress objective, final String quester,
+            final ObjectiveProgress objective, final QuesterId quester,
             final Object newData) {
         for (final OutcomeProgress outcome : objective.getOutcomeProgresses()) {
-            final String type = outcome.getInfo().getType();
-            final OutcomeCompletionChecker checker = outcomeCheckers.get(type);
-
-            if (checker != null && checker.checkCompletion(questingHandler,
-                    outcome, quester, newData)) {
+            if (checkCompletion(outcome, quester, newData)) {
                 return Optional.of(outcome);
             }
         }
@@ -97,6 +97,32 @@ public final class QuestObjectiveCompletionChecker {
         return Optional.empty();
     }
 
+    /**
+     * Checks whether the given {@link OutcomeProgress} has been achieved by the
+     * given quester, using the checker registered for its kind of outcome.
+     *
+     * @param outcome the quester's progress in the outcome which is being
+     *        checked
+     * @param quester the id of the quester to check progress for
+     * @param newData the newly updated data, if applicable
+     * @return whether the outcome has been achieved
+     * @since 0.1.0
+     */
+    public boolean checkCompletion(final OutcomeProgress outcome,
+            final QuesterId quester, final Object newData) {
+        final OutcomeDescriptor descriptor = questingHandler
+                .getOutcomeDescriptor(outcome.getInfo());
+        if (descriptor == null
+                || descriptor.getKind().getCheckerType() == null) {
+            return false;
+        }
+
+        final OutcomeCompletionChecker checker = outcomeCheckers
+                .get(descriptor.getKind().getCheckerType());
+        return checker != null && checker.checkCompletion(questingHandler,
+                outcome, quester, newData);
+    }
+
     /**
      * Registers the given {@link OutcomeCompletionChecker} to this quest
      * objective completion checker. Note that this overwrites any previous
@@ -39,6 +39,8 @@ import com.github.rolecraftdev.quests.task.CompletionCheckTask;
 import com.volumetricpixels.questy.Quest;
 import com.volumetricpixels.questy.QuestInstance;
 import com.volumetricpixels.questy.QuestManager;
+import com.volumetricpixels.questy.QuesterId;
+import com.volumetricpixels.questy.objective.Objective;
 import com.volumetricpixels.questy.objective.ObjectiveProgress;
 import com.volumetricpixels.questy.objective.Outcome;
 import com.volumetricpixels.questy.objective.OutcomeProgress;
@@ -47,11 +49,15 @@ import org.bukkit.entity.Player;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Optional;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
-
-import static com.github.rolecraftdev.quests.quest.ObjectiveOutcomeTypes.*;
+import java.util.logging.Level;
 
 /**
  * Handles the linking of RolecraftQuests with the Questy framework.
@@ -60,14 +66,48 @@ import static com.github.rolecraftdev.quests.quest.ObjectiveOutcomeTypes.*;
  */
 public final class QuestingHandler {
     /**
-     * Five seconds.
+     * One tick - the check task is cheap when nothing has changed.
+     */
+    private static final long CHECK_PERIOD = 1L;
+    /**
+     * The configuration key for the completion check time budget per tick.
      */
-    private static final long CHECK_PERIOD = 100L;
+    private static final String TICK_BUDGET_KEY = "completion-check.tick-budget";
+    /**
+     * The configuration key for the number of ticks between full sweeps.
+     */
+    private static final String SWEEP_PERIOD_KEY = "completion-check.sweep-period";
+    /**
+     * One millisecond.
+     */
+    private static final long DEFAULT_TICK_BUDGET = 1000000L;
+    /**
+     * One minute.
+     */
+    private static final int DEFAULT_SWEEP_PERIOD = 1200;
 
     private final RolecraftQuests plugin;
     private final RolecraftCore core;
     private final QuestManager questManager;
     private final QuestObjectiveCompletionChecker objectiveCompletionChecker;
+    /**
+     * Parsed outcome types for every {@link Outcome} of every loaded quest.
+     */
+    private final Map<Outcome, OutcomeDescriptor> outcomeDescriptors;
+    /**
+     * Parsed outcome types mapped by the type strings they were parsed from,
+     * so that outcomes of the same type share a single descriptor.
+     */
+    private final Map<String, OutcomeDescriptor> descriptorsByType;
+    /**
+     * Active outcomes of each quester, indexed by kind.
+     */
+    private final OutcomeRoutingIndex routingIndex;
+    /**
+     * Outcomes which may have changed since they were last checked.
+     */
+    private final DirtyOutcomeSet dirtyOutcomes;
+    private final CompletionCheckTask completionCheckTask;
 
     /**
      * Constructor for the RolecraftQuests quest handler, which links the plugin
@@ -81,7 +121,38 @@ public final class QuestingHandler {
         this.core = plugin.getCore();
         this.questManager = plugin.getQuestManager();
         this.objectiveCompletionChecker = new QuestObjectiveCompletionChecker(
-                plugin);
+                plugin, this);
+        this.outcomeDescriptors = new IdentityHashMap<>();
+        this.descriptorsByType = new HashMap<>();
+        this.dirtyOutcomes = new DirtyOutcomeSet();
+
+        // parse outcome types up front, so invalid quests are rejected now
+        // rather than failing part way through an event
+        for (final Quest quest : questManager.getLoadedQuests().values()) {
+            if (!registerOutcomeTypes(quest)) {
+                questManager.removeQuest(quest);
+            }
+        }
+        for (final Quest quest : questManager.getLoadedQuests().values()) {
+            for (final String prerequisite : quest.getPrerequisites()) {
+                if (questManager.getQuest(prerequisite) == null) {
+                    plugin.getLogger().warning("The quest '" + quest.getName()
+                            + "' requires the unknown quest '" + prerequisite
+                            + "' and can't be started");
+                }
+            }
+        }
+
+        // index the current objectives of quests which were loaded from
+        // storage, then keep the index up to date through quest events
+        this.routingIndex = new OutcomeRoutingIndex(this);
+        for (final Quest quest : questManager.getLoadedQuests().values()) {
+            for (final QuestInstance instance : questManager
+                    .getInstances(quest)) {
+                routingIndex.subscribe(instance.getCurrentObjective());
+            }
+        }
+        questManager.getEventManager().register(routingIndex);
 
         this.objectiveCompletionChecker.registerOutcomeChecker(
                 new ExperienceOutcomeCompletionChecker(this));
@@ -94,7 +165,12 @@ public final class QuestingHandler {
         this.objectiveCompletionChecker.registerOutcomeChecker(
                 new EconomyOutcomeCompletionChecker(this));
 
-        new CompletionCheckTask(plugin)
+        this.completionCheckTask = new CompletionCheckTask(plugin,
+                plugin.getConfig().getLong(TICK_BUDGET_KEY,
+                        DEFAULT_TICK_BUDGET),
+                plugin.getConfig().getInt(SWEEP_PERIOD_KEY,
+                        DEFAULT_SWEEP_PERIOD));
+        this.completionCheckTask
                 .runTaskTimer(plugin, CHECK_PERIOD, CHECK_PERIOD);
     }
 
@@ -103,59 +179,305 @@ public final class QuestingHandler {
     public void checkCompletion(@Nonnull final Player player,
             @Nonnull final ObjectiveProgress objective) {
         final QuestInstance quest = objective.getQuest();
-        final String quester = player.getUniqueId().toString();
+        final QuesterId quester = QuesterId.of(player.getUniqueId());
 
         for (final OutcomeProgress outcome : objective.getOutcomeProgresses()) {
-            final Outcome info = outcome.getInfo();
-            final String type = info.getType().toLowerCase();
+            final OutcomeDescriptor descriptor = getOutcomeDescriptor(
+                    outcome.getInfo());
+            if (descriptor == null
+                    || descriptor.getKind().getCheckerType() == null) {
+                continue; // progressed by listeners instead
+            }
 
-            if (type.startsWith(REACH_LEVEL)) {
-                final Optional<OutcomeProgress> completedOutcome = objectiveCompletionChecker
-                        .checkCompletion(objective, quester,
-                                getPlayerData(quester).getLevel());
+            if (objectiveCompletionChecker.checkCompletion(outcome, quester,
+                    getOutcomeData(player, descriptor.getKind()))) {
+                // outcome completed
+                quest.objectiveComplete(objective, outcome);
+                break;
+            }
+        }
+    }
 
-                if (completedOutcome.isPresent()) {
-                    quest.objectiveComplete(objective, completedOutcome.get());
-                    break;
-                }
-            } else if (type.equals(JOIN_GUILD)) {
-                final Optional<OutcomeProgress> completedOutcome = objectiveCompletionChecker
-                        .checkCompletion(objective, quester,
-                                getPlayerData(quester).getGuild());
-
-                if (completedOutcome.isPresent()) { // outcome completed
-                    quest.objectiveComplete(objective, completedOutcome.get());
-                    break;
-                }
-            } else if (type.equals(SELECT_PROFESSION)) {
-                final Optional<OutcomeProgress> completedOutcome = objectiveCompletionChecker
-                        .checkCompletion(objective, quester,
-                                getPlayerData(quester).getProfession());
-
-                if (completedOutcome.isPresent()) {
-                    quest.objectiveComplete(objective, completedOutcome.get());
-                    break;
-                }
-            } else if (type.equals(ACQUIRE_ITEMS)) {
-                final Optional<OutcomeProgress> completedOutcome = objectiveCompletionChecker
-                        .checkCompletion(objective, quester,
-                                player.getInventory());
-
-                if (completedOutcome.isPresent()) {
-                    quest.objectiveComplete(objective, completedOutcome.get());
-                    break;
+    /**
+     * Checks every active outcome of the given kind for the given player,
+     * reading the data they depend on once.
+     *
+     * @param player the player to check outcomes for
+     * @param kind the kind of outcome to check
+     * @since 0.1.0
+     */
+    public void checkCompletion(@Nonnull final Player player,
+            @Nonnull final OutcomeKind kind) {
+        if (kind.getCheckerType() == null) {
+            return; // progressed by listeners instead
+        }
+
+        final QuesterId quester = QuesterId.of(player.getUniqueId());
+        final List<OutcomeRoutingIndex.Subscription> subscriptions = routingIndex
+                .getSubscriptions(quester, kind);
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+
+        final Object data = getOutcomeData(player, kind);
+        for (final OutcomeRoutingIndex.Subscription subscription : subscriptions) {
+            final OutcomeProgress outcome = subscription.getOutcome();
+            if (subscription.isActive() && objectiveCompletionChecker
+                    .checkCompletion(outcome, quester, data)) {
+                subscription.getQuest().objectiveComplete(
+                        subscription.getObjective(), outcome);
+            }
+        }
+    }
+
+    /**
+     * Marks the given kind of outcome as needing to be re-checked for the
+     * given player on the next run of the completion check task. Nothing is
+     * recorded if the player has no active outcomes of that kind.
+     *
+     * @param player the player whose data may have changed
+     * @param kind the kind of outcome which depends on the changed data
+     * @since 0.1.0
+     */
+    public void markDirty(@Nonnull final Player player,
+            @Nonnull final OutcomeKind kind) {
+        if (routingIndex.hasSubscriptions(QuesterId.of(player.getUniqueId()),
+                kind)) {
+            dirtyOutcomes.mark(player.getUniqueId(), kind);
+        }
+    }
+
+    /**
+     * Marks every kind of outcome as needing to be re-checked for the given
+     * player.
+     *
+     * @param player the player whose data may have changed
+     * @since 0.1.0
+     */
+    public void markDirty(@Nonnull final Player player) {
+        for (final OutcomeKind kind : OutcomeKind.values()) {
+            markDirty(player, kind);
+        }
+    }
+
+    /**
+     * Checks every active outcome of the given player.
+     *
+     * @param player the player to check outcomes for
+     * @since 0.1.0
+     */
+    public void checkCompletion(@Nonnull final Player player) {
+        for (final OutcomeKind kind : OutcomeKind.values()) {
+            checkCompletion(player, kind);
+        }
+    }
+
+    /**
+     * Re-checks the outcomes of the player who was marked dirty the longest
+     * time ago, if they are still online.
+     *
+     * @return {@code false} if no players were marked dirty
+     * @since 0.1.0
+     */
+    public boolean checkNextDirty() {
+        final Map.Entry<UUID, Set<OutcomeKind>> next = dirtyOutcomes.poll();
+        if (next == null) {
+            return false;
+        }
+
+        final Player player = plugin.getServer().getPlayer(next.getKey());
+        if (player != null) {
+            for (final OutcomeKind kind : next.getValue()) {
+                checkCompletion(player, kind);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the number of players with outcomes waiting to be re-checked.
+     *
+     * @return the number of dirty players
+     * @since 0.1.0
+     */
+    public int getDirtyCount() {
+        return dirtyOutcomes.size();
+    }
+
+    /**
+     * Loads the stored progression of the given player, if the quest manager
+     * only keeps progression of online players, and indexes their current
+     * objectives. If it can't be read the player is left unloaded, and can't
+     * quest until they rejoin.
+     *
+     * @param player the player who has joined
+     * @since 0.1.0
+     */
+    public void loadQuester(@Nonnull final Player player) {
+        final QuesterId quester = QuesterId.of(player.getUniqueId());
+        final boolean loaded;
+        try {
+            loaded = questManager.loadProgression(quester);
+        } catch (final IllegalStateException e) {
+            plugin.getLogger().log(Level.SEVERE, "Couldn't load the quest "
+                    + "progression of " + player.getName(), e);
+            return;
+        }
+        if (loaded) {
+            for (final QuestInstance instance : questManager
+                    .getQuestInstances(quester)) {
+                routingIndex.subscribe(instance.getCurrentObjective());
+            }
+        }
+    }
+
+    /**
+     * Unloads the progression of the given player, if the quest manager only
+     * keeps progression of online players, and removes their objectives from
+     * the index. Unsaved changes are kept until they have been saved.
+     *
+     * @param player the player who has quit
+     * @since 0.1.0
+     */
+    public void unloadQuester(@Nonnull final Player player) {
+        final QuesterId quester = QuesterId.of(player.getUniqueId());
+        final List<QuestInstance> instances = new ArrayList<>(
+                questManager.getQuestInstances(quester));
+        if (questManager.unloadProgression(quester)) {
+            for (final QuestInstance instance : instances) {
+                routingIndex.unsubscribe(instance);
+            }
+        }
+    }
+
+    /**
+     * Reads the current value of the data which outcomes of the given kind
+     * depend on, in the form expected by their completion checker.
+     */
+    @Nullable
+    private Object getOutcomeData(final Player player, final OutcomeKind kind) {
+        switch (kind) {
+            case REACH_LEVEL:
+                return getPlayerData(player).getLevel();
+            case JOIN_GUILD:
+                return getPlayerData(player).getGuild();
+            case SELECT_PROFESSION:
+                return getPlayerData(player).getProfession();
+            case ACQUIRE_ITEMS:
+                return player.getInventory();
+            case ACQUIRE_MONEY:
+                return core.getVaultEcon().getBalance(player);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Parses the types of all outcomes in the given {@link Quest}, storing the
+     * results for later use via {@link #getOutcomeDescriptor(Outcome)}. If any
+     * outcome type is invalid, nothing is stored and the problem is logged.
+     *
+     * @param quest the {@link Quest} to parse the outcome types of
+     * @return whether all of the quest's outcome types were valid
+     * @since 0.1.0
+     */
+    public boolean registerOutcomeTypes(@Nonnull final Quest quest) {
+        final Map<Outcome, OutcomeDescriptor> parsed = new IdentityHashMap<>();
+        for (final Objective objective : quest.getObjectives()) {
+            for (final Outcome outcome : objective.getOutcomes()) {
+                try {
+                    parsed.put(outcome, parseOutcomeType(outcome.getType()));
+                } catch (IllegalArgumentException e) {
+                    plugin.getLogger().severe("The quest '" + quest.getName()
+                            + "' is incorrectly configured and will not be available: "
+                            + e.getMessage());
+                    return false;
                 }
-            } else if (type.equals(ACQUIRE_MONEY)) {
-                final Optional<OutcomeProgress> completedOutcome = objectiveCompletionChecker
-                        .checkCompletion(objective, quester, plugin.getCore()
-                                .getVaultEcon().getBalance(player));
-
-                if (completedOutcome.isPresent()) {
-                    quest.objectiveComplete(objective, completedOutcome.get());
-                    break;
+            }
+        }
+
+        this.outcomeDescriptors.putAll(parsed);
+        return true;
+    }
+
+    /**
+     * Parses the given outcome type, reusing the descriptor of an identical
+     * type which has already been parsed.
+     */
+    private OutcomeDescriptor parseOutcomeType(final String type) {
+        OutcomeDescriptor descriptor = this.descriptorsByType.get(type);
+        if (descriptor == null) {
+            descriptor = OutcomeDescriptor.parse(type);
+            this.descriptorsByType.put(type, descriptor);
+        }
+        return descriptor;
+    }
+
+    /**
+     * Prepares for the given {@link Quest} to replace the loaded quest with
+     * the same name after its file has been changed, parsing its outcome
+     * types and forgetting those of the version it replaces. Instances of the
+     * old version are re-indexed as they are migrated.
+     *
+     * @param quest the new version of the quest
+     * @return whether the quest is valid and may be swapped in
+     * @since 0.1.0
+     */
+    public boolean prepareReload(@Nonnull final Quest quest) {
+        if (!registerOutcomeTypes(quest)) {
+            plugin.getLogger().warning("The quest '" + quest.getName()
+                    + "' was not reloaded");
+            return false;
+        }
+
+        final Quest previous = questManager.getQuest(quest.getName());
+        if (previous != null && previous != quest) {
+            for (final Objective objective : previous.getObjectives()) {
+                for (final Outcome outcome : objective.getOutcomes()) {
+                    this.outcomeDescriptors.remove(outcome);
                 }
             }
         }
+        for (final String prerequisite : quest.getPrerequisites()) {
+            if (questManager.getQuest(prerequisite) == null) {
+                plugin.getLogger().warning("The quest '" + quest.getName()
+                        + "' requires the unknown quest '" + prerequisite
+                        + "' and can't be started");
+            }
+        }
+        plugin.getLogger().info("Reloaded the quest '" + quest.getName()
+                + "'");
+        return true;
+    }
+
+    /**
+     * Gets the parsed type of the given {@link Outcome}.
+     *
+     * @param outcome the {@link Outcome} to get the parsed type of
+     * @return the parsed type, or {@code null} if the outcome isn't part of a
+     *         quest which was successfully registered
+     * @since 0.1.0
+     */
+    @Nullable
+    public OutcomeDescriptor getOutcomeDescriptor(
+            @Nonnull final Outcome outcome) {
+        return outcomeDescriptors.get(outcome);
+    }
+
+    /**
+     * Gets the active outcomes of the given kind for the given player. See
+     * {@link OutcomeRoutingIndex#getSubscriptions(QuesterId, OutcomeKind)}.
+     *
+     * @param player the player to get active outcomes for
+     * @param kind the kind of outcome to get
+     * @return the player's active outcomes of the given kind
+     * @since 0.1.0
+     */
+    @Nonnull
+    public List<OutcomeRoutingIndex.Subscription> getSubscriptions(
+            @Nonnull final Player player, @Nonnull final OutcomeKind kind) {
+        return routingIndex.getSubscriptions(
+                QuesterId.of(player.getUniqueId()), kind);
     }
 
     @Nonnull
@@ -163,6 +485,18 @@ public final class QuestingHandler {
         return plugin;
     }
 
+    /**
+     * Gets the task which periodically checks quest completion, which exposes
+     * metrics for tuning its time budget.
+     *
+     * @return the plugin's {@link CompletionCheckTask}
+     * @since 0.1.0
+     */
+    @Nonnull
+    public CompletionCheckTask getCompletionCheckTask() {
+        return completionCheckTask;
+    }
+
     @Nonnull
     public QuestObjectiveCompletionChecker getObjectiveCompletionChecker() {
         return objectiveCompletionChecker;
@@ -170,60 +504,63 @@ public final class QuestingHandler {
 
     @Nullable
     public Player getPlayer(@Nonnull final String quester) {
-        return plugin.getServer().getPlayer(UUID.fromString(quester));
+        return getPlayer(QuesterId.of(quester));
+    }
+
+    @Nullable
+    public Player getPlayer(@Nonnull final QuesterId quester) {
+        final UUID uniqueId = quester.getUniqueId();
+        return uniqueId == null ? null : plugin.getServer().getPlayer(uniqueId);
     }
 
     @Nullable
     public PlayerData getPlayerData(@Nonnull final String quester) {
-        return core.getDataManager().getPlayerData(UUID.fromString(quester));
+        return getPlayerData(QuesterId.of(quester));
+    }
+
+    @Nullable
+    public PlayerData getPlayerData(@Nonnull final QuesterId quester) {
+        final UUID uniqueId = quester.getUniqueId();
+        return uniqueId == null ? null :
+                core.getDataManager().getPlayerData(uniqueId);
     }
 
     @Nullable
     public PlayerData getPlayerData(@Nonnull final Player player) {
-        return getPlayerData(player.getUniqueId().toString());
+        return core.getDataManager().getPlayerData(player.getUniqueId());
     }
 
     @Nonnull
     public Collection<QuestInstance> getQuests(@Nonnull final Player quester) {
         return this.questManager
-                .getQuestInstances(quester.getUniqueId().toString());
+                .getQuestInstances(QuesterId.of(quester.getUniqueId()));
     }
 
     @Nullable
     public QuestInstance beginQuest(@Nonnull final String questName,
             @Nonnull final Player quester) {
-        final Quest quest = questManager.getQuest(questName);
-        if (!quest.satisfiesPrerequisites(quester.getUniqueId().toString())
-                || questManager
-                .hasCompleted(quest, quester.getUniqueId().toString())) {
-            return null;
-        }
-
-        return quest.start(quester.getUniqueId().toString());
+        return beginQuest(questName, quester.getUniqueId());
     }
 
     @Nullable
     public QuestInstance beginQuest(@Nonnull final String questName,
             @Nonnull final UUID questerId) {
         final Quest quest = questManager.getQuest(questName);
-        if (!quest.satisfiesPrerequisites(questerId.toString())
-                || questManager.hasCompleted(quest, questerId.toString())) {
+        final QuesterId quester = QuesterId.of(questerId);
+        if (!quest.satisfiesPrerequisites(quester)
+                || questManager.hasCompleted(quest, quester)) {
             return null;
         }
 
-        return quest.start(questerId.toString());
+        // fails for questers whose progression isn't loaded
+        final QuestInstance instance = new QuestInstance(quest, quester);
+        return questManager.startQuest(instance) ? instance : null;
     }
 
     @Nullable
     public QuestInstance getProgress(@Nonnull final String questName,
             @Nonnull final Player quester) {
-        final Quest quest = questManager.getQuest(questName);
-        if (quest == null) {
-            return null;
-        }
-
-        return questManager.getQuestInstance(quest,
-                quester.getUniqueId().toString());
+        return getProgress(questName, quester.getUniqueId());
     }
 
     @Nullable
@@ -234,7 +571,7 @@ public final class QuestingHandler {
             return null;
         }
 
-        return questManager.getQuestInstance(quest, questerId.toString());
+        return questManager.getQuestInstance(quest, QuesterId.of(questerId));
     }
 
     @Nullable
@@ -45,7 +45,6 @@ import org.bukkit.event.Listener;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.PlayerInventory;
 
-import java.util.UUID;
 import java.util.regex.Pattern;
 
 /**
@@ -86,15 +85,11 @@ public final class QuestingListener implements Listener {
      */
     @Listen(monitor = true)
     public void onQuestStart(final QuestStartEvent event) {
-        if (event.isCancelled()) {
-            return;
-        }
-
         final Quest questInfo = event.getQuestInfo();
         final String message = questInfo.getBeginMessage();
         if (message != null) {
             final Player player = plugin.getServer()
-                    .getPlayer(UUID.fromString(event.getQuester()));
+                    .getPlayer(event.getQuesterId().getUniqueId());
             player.sendMessage(questInfo.getBeginMessage());
         }
     }
@@ -104,15 +99,10 @@ public final class QuestingListener implements Listener {
      */
     @Listen(monitor = true)
     public void onQuestComplete(final QuestCompleteEvent event) {
-        if (event.isCancelled()) {
-            return;
-        }
-
         final Quest questInfo = event.getQuestInfo();
         final String[] rewards = questInfo.getRewards();
-        final String quester = event.getQuester();
-        final UUID questerId = UUID.fromString(quester);
-        final Player player = this.plugin.getServer().getPlayer(questerId);
+        final Player player = this.plugin.getServer()
+                .getPlayer(event.getQuesterId().getUniqueId());
 
         if (questInfo.getFinishMessage() != null) {
             player.sendMessage(questInfo.getFinishMessage());
@@ -158,14 +148,10 @@ public final class QuestingListener implements Listener {
      */
     @Listen(monitor = true)
     public void onObjectiveStart(final ObjectiveStartEvent event) {
-        if (event.isCancelled()) {
-            return;
-        }
-
         final Objective objectiveInfo = event.getObjectiveInfo();
         final String message = objectiveInfo.getBeginMessage();
         final Player player = plugin.getServer()
-                .getPlayer(UUID.fromString(event.getQuester()));
+                .getPlayer(event.getQuesterId().getUniqueId());
         if (message != null) {
             player.sendMessage(message);
         }
@@ -181,15 +167,11 @@ public final class QuestingListener implements Listener {
      */
     @Listen(monitor = true)
     public void onObjectiveComplete(final ObjectiveCompleteEvent event) {
-        if (event.isCancelled()) {
-            return;
-        }
-
         final Outcome outcomeInfo = event.getOutcomeInfo();
         final String message = outcomeInfo.getFinishMessage();
         if (message != null) {
             final Player player = plugin.getServer()
-                    .getPlayer(UUID.fromString(event.getQuester()));
+                    .getPlayer(event.getQuesterId().getUniqueId());
             player.sendMessage(message);
         }
     }
@@ -26,10 +26,11 @@
  */
 package com.github.rolecraftdev.quests.quest.completion;
 
-import com.github.rolecraftdev.quests.RQUtil;
+import com.github.rolecraftdev.quests.quest.OutcomeDescriptor;
+import com.github.rolecraftdev.quests.quest.OutcomeKind;
 import com.github.rolecraftdev.quests.quest.QuestingHandler;
 
-import com.volumetricpixels.questy.objective.Outcome;
+import com.volumetricpixels.questy.QuesterId;
 import com.volumetricpixels.questy.objective.OutcomeProgress;
 
 import org.bukkit.entity.Player;
@@ -37,8 +38,6 @@ import org.bukkit.entity.Player;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
-import static com.github.rolecraftdev.quests.quest.ObjectiveOutcomeTypes.ACQUIRE_MONEY;
-
 /**
  * Checks whether a player has achieved an economy-related outcome.
  *
@@ -76,7 +75,7 @@ public class EconomyOutcomeCompletionChecker
     public boolean checkCompletion(
             @Nonnull final QuestingHandler questingHandler,
             @Nonnull final OutcomeProgress outcome,
-            @Nonnull final String quester, @Nullable final Object data) {
+            @Nonnull final QuesterId quester, @Nullable final Object data) {
         if (data == null || !(data instanceof Double)) {
             return false; // this checker isn't relevant
         }
@@ -86,18 +85,13 @@ public class EconomyOutcomeCompletionChecker
             return false; // TODO: implement for offline players??
         }
 
-        final Outcome outcomeInfo = outcome.getInfo();
-        final String type = outcomeInfo.getType().toLowerCase();
-
-        if (type.startsWith(ACQUIRE_MONEY)) {
-            final String[] split = type.split(RQUtil.QUOTED_UNDERSCORE);
-            if (split.length < 2) {
-                return false; // invalid outcome type
-            }
+        final OutcomeDescriptor descriptor = questingHandler
+                .getOutcomeDescriptor(outcome.getInfo());
 
-            final double money = Double.parseDouble(split[1]);
-            if ((Double) data >= money) {
-                outcome.setProgress(1);
+        if (descriptor != null
+                && descriptor.getKind() == OutcomeKind.ACQUIRE_MONEY) {
+            if ((Double) data >= descriptor.getAmount()) {
+                outcome.setCount(1);
                 return true;
             }
         }
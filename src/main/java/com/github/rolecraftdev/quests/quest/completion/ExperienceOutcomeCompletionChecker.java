@@ -26,9 +26,11 @@
  */
 package com.github.rolecraftdev.quests.quest.completion;
 
-import com.github.rolecraftdev.quests.RQUtil;
+import com.github.rolecraftdev.quests.quest.OutcomeDescriptor;
+import com.github.rolecraftdev.quests.quest.OutcomeKind;
 import com.github.rolecraftdev.quests.quest.QuestingHandler;
 
+import com.volumetricpixels.questy.QuesterId;
 import com.volumetricpixels.questy.objective.OutcomeProgress;
 
 import org.bukkit.entity.Player;
@@ -36,8 +38,6 @@ import org.bukkit.entity.Player;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
-import static com.github.rolecraftdev.quests.quest.ObjectiveOutcomeTypes.REACH_LEVEL;
-
 /**
  * Checks whether a player has reached the required level for an experience
  * related quest outcome.
@@ -83,7 +83,7 @@ public class ExperienceOutcomeCompletionChecker
      */
     @Override
     public boolean checkCompletion(@Nonnull QuestingHandler questingHandler,
-            @Nonnull OutcomeProgress outcome, @Nonnull String quester,
+            @Nonnull OutcomeProgress outcome, @Nonnull QuesterId quester,
             @Nullable Object data) {
         if (data == null || !(data instanceof Integer)) {
             return false; // this checker isn't relevant
@@ -94,16 +94,12 @@ public class ExperienceOutcomeCompletionChecker
             return false; // TODO: implement for offline players??
         }
 
-        final String type = outcome.getInfo().getType().toLowerCase();
-        if (type.startsWith(REACH_LEVEL)) {
-            final String[] split = type.split(RQUtil.QUOTED_UNDERSCORE);
-            if (split.length < 2) {
-                return false; // invalid outcome type
-            }
-
-            final int level = Integer.parseInt(split[1]);
-            if ((Integer) data >= level) {
-                outcome.setProgress(1);
+        final OutcomeDescriptor descriptor = questingHandler
+                .getOutcomeDescriptor(outcome.getInfo());
+        if (descriptor != null
+                && descriptor.getKind() == OutcomeKind.REACH_LEVEL) {
+            if ((Integer) data >= descriptor.getLevel()) {
+                outcome.setCount(1);
                 return true;
             }
         }
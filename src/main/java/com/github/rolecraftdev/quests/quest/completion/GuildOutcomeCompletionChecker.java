@@ -26,16 +26,17 @@
  */
 package com.github.rolecraftdev.quests.quest.completion;
 
+import com.github.rolecraftdev.quests.quest.OutcomeDescriptor;
+import com.github.rolecraftdev.quests.quest.OutcomeKind;
 import com.github.rolecraftdev.quests.quest.QuestingHandler;
 
+import com.volumetricpixels.questy.QuesterId;
 import com.volumetricpixels.questy.objective.OutcomeProgress;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.UUID;
 
-import static com.github.rolecraftdev.quests.quest.ObjectiveOutcomeTypes.JOIN_GUILD;
-
 /**
  * Checks whether a player has achieved a guild-related outcome.
  *
@@ -80,14 +81,16 @@ public class GuildOutcomeCompletionChecker
      */
     @Override
     public boolean checkCompletion(@Nonnull QuestingHandler questingHandler,
-            @Nonnull OutcomeProgress outcome, @Nonnull String quester,
+            @Nonnull OutcomeProgress outcome, @Nonnull QuesterId quester,
             @Nullable Object data) {
         if (data == null || !(data instanceof UUID)) {
             return false;
         }
 
-        final String type = outcome.getInfo().getType().toLowerCase();
-        if (type.equals(JOIN_GUILD)) {
+        final OutcomeDescriptor descriptor = questingHandler
+                .getOutcomeDescriptor(outcome.getInfo());
+        if (descriptor != null
+                && descriptor.getKind() == OutcomeKind.JOIN_GUILD) {
             final UUID uuid = (UUID) data;
             return questingHandler.getPlugin().getCore().getGuildManager()
                     .getGuild(uuid) != null;
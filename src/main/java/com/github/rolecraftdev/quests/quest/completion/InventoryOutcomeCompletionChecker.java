@@ -26,9 +26,11 @@
  */
 package com.github.rolecraftdev.quests.quest.completion;
 
-import com.github.rolecraftdev.quests.RQUtil;
+import com.github.rolecraftdev.quests.quest.OutcomeDescriptor;
+import com.github.rolecraftdev.quests.quest.OutcomeKind;
 import com.github.rolecraftdev.quests.quest.QuestingHandler;
 
+import com.volumetricpixels.questy.QuesterId;
 import com.volumetricpixels.questy.objective.OutcomeProgress;
 
 import org.bukkit.Material;
@@ -38,8 +40,6 @@ import org.bukkit.inventory.PlayerInventory;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
-import static com.github.rolecraftdev.quests.quest.ObjectiveOutcomeTypes.ACQUIRE_ITEMS;
-
 /**
  * Checks whether a player has achieved an inventory-related outcome.
  *
@@ -84,35 +84,23 @@ public class InventoryOutcomeCompletionChecker
      */
     @Override
     public boolean checkCompletion(@Nonnull QuestingHandler questingHandler,
-            @Nonnull OutcomeProgress outcome, @Nonnull String quester,
+            @Nonnull OutcomeProgress outcome, @Nonnull QuesterId quester,
             @Nullable Object data) {
         if (data == null || !(data instanceof PlayerInventory)) {
             return false;
         }
 
-        final String type = outcome.getInfo().getType().toLowerCase();
-        if (type.equals(ACQUIRE_ITEMS)) {
-            final String[] split = type.split(RQUtil.QUOTED_UNDERSCORE);
-            if (split.length < 2) {
-                return false; // format: 'acquireitems_ITEMNAME' or 'acquireitems_ITEMNAME_quantity'
-            }
-
-            final Material material = Material.getMaterial(
-                    split[1].replaceAll(RQUtil.QUOTED_HYPHEN,
-                            RQUtil.QUOTED_UNDERSCORE));
-            if (material == null) {
-                return false; // invalid quest
-            }
-
-            int quantity = 1;
-            if (split.length > 2) {
-                quantity = Integer.parseInt(split[2]); // NFE = invalid quest
-            }
+        final OutcomeDescriptor descriptor = questingHandler
+                .getOutcomeDescriptor(outcome.getInfo());
+        if (descriptor != null
+                && descriptor.getKind() == OutcomeKind.ACQUIRE_ITEMS) {
+            final Material material = descriptor.getMaterial();
+            final int quantity = descriptor.getQuantity();
 
             final PlayerInventory inventory = (PlayerInventory) data;
             int amountInInventory = 0;
             for (final ItemStack stack : inventory.getContents()) {
-                if (stack.getType().equals(material)) {
+                if (stack != null && stack.getType() == material) {
                     amountInInventory += stack.getAmount();
                 }
             }
@@ -28,6 +28,7 @@ package com.github.rolecraftdev.quests.quest.completion;
 
 import com.github.rolecraftdev.quests.quest.QuestingHandler;
 
+import com.volumetricpixels.questy.QuesterId;
 import com.volumetricpixels.questy.objective.OutcomeProgress;
 
 import javax.annotation.Nonnull;
@@ -64,6 +65,6 @@ public interface OutcomeCompletionChecker {
      * @since 0.1.0
      */
     boolean checkCompletion(@Nonnull QuestingHandler questingHandler,
-            @Nonnull OutcomeProgress outcome, @Nonnull String quester,
+            @Nonnull OutcomeProgress outcome, @Nonnull QuesterId quester,
             @Nullable Object data);
 }
@@ -27,35 +27,111 @@
 package com.github.rolecraftdev.quests.task;
 
 import com.github.rolecraftdev.quests.RolecraftQuests;
+import com.github.rolecraftdev.quests.quest.OutcomeKind;
 import com.github.rolecraftdev.quests.quest.QuestingHandler;
 
-import com.volumetricpixels.questy.QuestInstance;
-import com.volumetricpixels.questy.objective.ObjectiveProgress;
-
 import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitRunnable;
 
 import javax.annotation.Nonnull;
+import java.util.UUID;
 
 /**
- * Periodically checks quest objective completion status for questers.
+ * Checks quest objective completion status for questers. Each run re-checks
+ * the outcomes which have been marked dirty through
+ * {@link QuestingHandler#markDirty(Player, OutcomeKind)}, so nothing is read
+ * when nothing has changed.
+ *
+ * Vault doesn't report balance changes, so money outcomes are still polled,
+ * though only for players who have one active. Every outcome of every online
+ * player is also re-checked by a periodic sweep, in case a change was missed.
+ *
+ * Each run only does as much work as fits in its time budget. Dirty outcomes
+ * are checked oldest first, and the sweep continues through the online
+ * players from where it stopped on the previous run. While a sweep is in
+ * progress, it takes turns with dirty outcomes, so a steady stream of dirty
+ * outcomes can't hold it off. At least one player is always processed, so
+ * work is never starved entirely.
+ *
+ * Progress which was updated atomically from other threads is published at
+ * the start of each run, through
+ * {@link com.volumetricpixels.questy.QuestManager#publishPendingProgress()}.
  *
  * @since 0.1.0
  */
 public final class CompletionCheckTask extends BukkitRunnable {
+    /**
+     * The number of runs between polls of money outcomes - five seconds when
+     * run every tick.
+     */
+    private static final int MONEY_POLL_PERIOD = 100;
+    /**
+     * The weight given to the newest run when averaging the cost of runs.
+     */
+    private static final double COST_SMOOTHING = 0.05;
+
     /**
      * The associated {@link RolecraftQuests} plugin instance.
      */
     private final RolecraftQuests plugin;
+    /**
+     * The maximum time, in nanoseconds, to spend in a single run.
+     */
+    private final long tickBudget;
+    /**
+     * The number of runs between the starts of sweeps.
+     */
+    private final int sweepPeriod;
+    /**
+     * The number of times this task has run.
+     */
+    private long runs;
+
+    /**
+     * The ids of the players being swept, or {@code null} if no sweep is in
+     * progress.
+     */
+    private UUID[] sweep;
+    /**
+     * The index in {@link #sweep} of the next player to check.
+     */
+    private int sweepCursor;
+    /**
+     * The {@link System#nanoTime()} at which the current sweep started.
+     */
+    private long sweepStart;
+    /**
+     * Whether the sweep is next in line, rather than a dirty outcome. Kept
+     * between runs, so the sweep gets its turn when each run only has time
+     * for one check.
+     */
+    private boolean sweepTurn;
+
+    private long lastSweepLatency;
+    private long lastRunCost;
+    private double averageRunCost;
+    private long maxRunCost;
 
     /**
      * Constructor.
      *
      * @param plugin the associated {@link RolecraftQuests} plugin instance
+     * @param tickBudget the maximum time, in nanoseconds, to spend in a
+     *        single run
+     * @param sweepPeriod the number of runs between the starts of sweeps over
+     *        every online player
      * @since 0.1.0
      */
-    public CompletionCheckTask(@Nonnull final RolecraftQuests plugin) {
+    public CompletionCheckTask(@Nonnull final RolecraftQuests plugin,
+            final long tickBudget, final int sweepPeriod) {
+        if (tickBudget <= 0 || sweepPeriod <= 0) {
+            throw new IllegalArgumentException(
+                    "tickBudget and sweepPeriod must be positive");
+        }
+
         this.plugin = plugin;
+        this.tickBudget = tickBudget;
+        this.sweepPeriod = sweepPeriod;
     }
 
     /**
@@ -64,14 +140,128 @@ public final class CompletionCheckTask extends BukkitRunnable {
      */
     @Override
     public void run() {
+        final long start = System.nanoTime();
+        final long deadline = start + tickBudget;
         final QuestingHandler qHandler = plugin.getQuestingHandler();
 
-        for (final Player player : plugin.getServer().getOnlinePlayers()) {
-            for (final QuestInstance quest : qHandler.getQuests(player)) {
-                final ObjectiveProgress objective = quest.getCurrentObjective();
+        plugin.getQuestManager().publishPendingProgress();
+        runs++;
+        if (runs % sweepPeriod == 0 && sweep == null) {
+            startSweep();
+        }
+        if (runs % MONEY_POLL_PERIOD == 0) {
+            for (final Player player : plugin.getServer().getOnlinePlayers()) {
+                qHandler.markDirty(player, OutcomeKind.ACQUIRE_MONEY);
+            }
+        }
 
-                qHandler.checkCompletion(player, objective);
+        boolean worked = false;
+        while (System.nanoTime() - deadline < 0 || !worked) {
+            if (sweep != null && sweepTurn) {
+                sweepNext(qHandler);
+            } else if (!qHandler.checkNextDirty()) {
+                if (sweep == null) {
+                    break;
+                }
+                sweepNext(qHandler);
             }
+            worked = true;
+            sweepTurn = !sweepTurn;
+        }
+
+        recordRun(System.nanoTime() - start);
+    }
+
+    /**
+     * Gets the time, in nanoseconds, between the start and end of the most
+     * recently completed sweep over every online player. This is how long a
+     * change which was otherwise missed can take to be noticed.
+     *
+     * @return the latency of the last sweep, or {@code 0} if no sweep has
+     *         completed yet
+     * @since 0.1.0
+     */
+    public long getLastSweepLatency() {
+        return lastSweepLatency;
+    }
+
+    /**
+     * Gets the time, in nanoseconds, spent in the most recent run.
+     *
+     * @return the cost of the last run
+     * @since 0.1.0
+     */
+    public long getLastRunCost() {
+        return lastRunCost;
+    }
+
+    /**
+     * Gets the exponentially weighted average time, in nanoseconds, spent in
+     * each run.
+     *
+     * @return the average cost of a run
+     * @since 0.1.0
+     */
+    public double getAverageRunCost() {
+        return averageRunCost;
+    }
+
+    /**
+     * Gets the longest time, in nanoseconds, spent in any single run. A value
+     * well above the budget means individual checks are too slow to be split.
+     *
+     * @return the maximum cost of a run
+     * @since 0.1.0
+     */
+    public long getMaxRunCost() {
+        return maxRunCost;
+    }
+
+    /**
+     * Gets the number of players left to check in the current sweep.
+     *
+     * @return the remaining length of the sweep, or {@code 0} if no sweep is
+     *         in progress
+     * @since 0.1.0
+     */
+    public int getSweepRemaining() {
+        return sweep == null ? 0 : sweep.length - sweepCursor;
+    }
+
+    private void startSweep() {
+        final Player[] online = plugin.getServer().getOnlinePlayers();
+        if (online.length == 0) {
+            return;
+        }
+
+        sweep = new UUID[online.length];
+        for (int i = 0; i < online.length; i++) {
+            sweep[i] = online[i].getUniqueId();
+        }
+        sweepCursor = 0;
+        sweepStart = System.nanoTime();
+    }
+
+    private void sweepNext(final QuestingHandler qHandler) {
+        final Player player = plugin.getServer()
+                .getPlayer(sweep[sweepCursor++]);
+        if (player != null) {
+            qHandler.checkCompletion(player);
+        }
+
+        if (sweepCursor == sweep.length) {
+            sweep = null;
+            lastSweepLatency = System.nanoTime() - sweepStart;
+            plugin.getLogger().fine("Completion check sweep took "
+                    + lastSweepLatency / 1000000L + "ms");
+        }
+    }
+
+    private void recordRun(final long cost) {
+        lastRunCost = cost;
+        averageRunCost += (cost - averageRunCost) * COST_SMOOTHING;
+        if (cost > maxRunCost) {
+            maxRunCost = cost;
         }
     }
 }
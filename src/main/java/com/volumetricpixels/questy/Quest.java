@@ -45,11 +45,15 @@ public final class Quest {
      * All rewards for this quest.
      */
     private final String[] rewards;
+    /**
+     * The names of the quests which must be completed to start this Quest.
+     */
+    private final String[] prerequisites;
     /**
      * A {@link Predicate} specifying the test for whether a quester can embark
      * on this Quest by checking the requirements.
      */
-    private final Predicate<String> predicate;
+    private final Predicate<QuesterId> predicate;
 
     /**
      * Main Quest constructor. Should primarily be accessed by {@link
@@ -75,6 +79,8 @@ public final class Quest {
         this.finishMessage = finishMessage;
         this.objectives = objectives;
         this.rewards = rewards;
+        this.prerequisites = prerequisites == null ? new String[0] :
+                prerequisites;
 
         predicate = quester -> {
             if (questManager.hasCompleted(this, quester)) {
@@ -163,6 +169,17 @@ public final class Quest {
         return rewards.clone();
     }
 
+    /**
+     * Gets the names of the quests which must be completed to start this
+     * quest. Note that modifying the returned array will have NO effect on the
+     * prerequisites of the quest as it is only a clone.
+     *
+     * @return an array of the names of this quest's prerequisites
+     */
+    public String[] getPrerequisites() {
+        return prerequisites.clone();
+    }
+
     /**
      * Checks whether the given {@code quester} satisfies the prerequisites for
      * starting this {@link Quest}.
@@ -173,6 +190,17 @@ public final class Quest {
      * @see {@link Predicate#test(Object)}
      */
     public boolean satisfiesPrerequisites(String quester) {
+        return satisfiesPrerequisites(QuesterId.of(quester));
+    }
+
+    /**
+     * Checks whether the given {@code quester} satisfies the prerequisites for
+     * starting this {@link Quest}.
+     *
+     * @param quester the id of the person to check
+     * @return whether the given quester satisfies this Quest's prerequisites
+     */
+    public boolean satisfiesPrerequisites(QuesterId quester) {
         return predicate.test(quester);
     }
 
@@ -212,6 +240,18 @@ public final class Quest {
      * @return a new {@link QuestInstance} for this Quest and the given quester
      */
     public QuestInstance start(String quester) {
+        return start(QuesterId.of(quester));
+    }
+
+    /**
+     * Creates a new {@link QuestInstance} for this Quest, for the given {@code
+     * quester}. This automatically invokes {@link
+     * QuestManager#startQuest(QuestInstance)}.
+     *
+     * @param quester the id of the person embarking on the Quest
+     * @return a new {@link QuestInstance} for this Quest and the given quester
+     */
+    public QuestInstance start(QuesterId quester) {
         QuestInstance result = new QuestInstance(this, quester);
         questManager.startQuest(result);
         return result;
@@ -11,6 +11,10 @@ import com.volumetricpixels.questy.event.quest.objective.ObjectiveStartEvent;
 import com.volumetricpixels.questy.objective.Objective;
 import com.volumetricpixels.questy.objective.ObjectiveProgress;
 import com.volumetricpixels.questy.objective.OutcomeProgress;
+import com.volumetricpixels.questy.util.ProgressionTokenizer;
+
+import java.util.ArrayList;
+import java.util.List;
 
 import static com.volumetricpixels.questy.util.General.appendIf;
 
@@ -27,7 +31,7 @@ public final class QuestInstance {
     /**
      * The quester embarking on the quest.
      */
-    private final String quester;
+    private final QuesterId quester;
     /**
      * The progress for all of the {@link Quest}'s {@link Objective}s.
      */
@@ -37,8 +41,16 @@ public final class QuestInstance {
      * The array index of the current {@link ObjectiveProgress}.
      */
     private int current;
+    /**
+     * The number of times this instance's progression has changed.
+     */
+    private volatile long version;
 
     public QuestInstance(Quest quest, String quester) {
+        this(quest, QuesterId.of(quester));
+    }
+
+    public QuestInstance(Quest quest, QuesterId quester) {
         this.quest = quest;
         this.quester = quester;
 
@@ -49,19 +61,74 @@ public final class QuestInstance {
 
     public QuestInstance(QuestManager questManager, String quester,
             String serialized) {
+        this(questManager, QuesterId.of(quester), serialized);
+    }
+
+    public QuestInstance(QuestManager questManager, QuesterId quester,
+            String serialized) {
+        this(findQuest(questManager, serialized), quester, serialized);
+    }
+
+    /**
+     * Reads a {@link QuestInstance} of the given {@link Quest} from serialized
+     * progression, for when the quest is already known.
+     *
+     * @param quest the {@link Quest} the progression is for
+     * @param quester the quester doing the quest
+     * @param serialized the serialized progression
+     */
+    public QuestInstance(Quest quest, QuesterId quester, String serialized) {
+        this.quest = quest;
         this.quester = quester;
 
-        String[] split = serialized.split("_");
-        this.quest = questManager.getQuest(split[0]);
-        String[] progressions = split[1].split("%");
-        objectiveProgresses = new ObjectiveProgress[progressions.length];
-        for (int i = 0; i < progressions.length; i++) {
-            String serial = progressions[i];
-            objectiveProgresses[i] = new ObjectiveProgress(this, serial);
-            if (serial.endsWith("<c>")) {
+        ProgressionTokenizer tokens = new ProgressionTokenizer(serialized,
+                quest.getName().length() + 1);
+        List<ObjectiveProgress> progresses = new ArrayList<>(
+                quest.getAmtObjectives());
+        while (tokens.nextObjective()) {
+            if (tokens.isCurrent()) {
+                current = progresses.size();
+            }
+            progresses.add(new ObjectiveProgress(this, tokens));
+        }
+        objectiveProgresses = progresses.toArray(
+                new ObjectiveProgress[progresses.size()]);
+    }
+
+    /**
+     * Creates an instance of the given {@link Quest} which carries on from
+     * {@code previous}, an instance of an older version of the same quest.
+     * Progress is kept for objectives and outcomes whose names are still in
+     * the quest, and the quester stays on the same objective if it still
+     * exists, otherwise going back to the first.
+     *
+     * @param quest the new version of the quest
+     * @param previous the instance of the old version
+     */
+    public QuestInstance(Quest quest, QuestInstance previous) {
+        this.quest = quest;
+        this.quester = previous.quester;
+
+        Objective[] objectives = quest.getObjectives();
+        objectiveProgresses = new ObjectiveProgress[objectives.length];
+        String currentName = previous.getCurrentObjective().getInfo()
+                .getName();
+        for (int i = 0; i < objectives.length; i++) {
+            String name = objectives[i].getName();
+            ObjectiveProgress old = null;
+            for (ObjectiveProgress progress : previous.objectiveProgresses) {
+                if (progress.getInfo().getName().equals(name)) {
+                    old = progress;
+                    break;
+                }
+            }
+            objectiveProgresses[i] = new ObjectiveProgress(this,
+                    objectives[i], old);
+            if (name.equals(currentName)) {
                 current = i;
             }
         }
+        version = previous.version;
     }
 
     /**
@@ -94,6 +161,7 @@ public final class QuestInstance {
         ObjectiveCompleteEvent e = quest.getQuestManager().getEventManager()
                 .fire(new ObjectiveCompleteEvent(this, objective, outcome));
         current = getIndex(temp);
+        changed();
         quest.getQuestManager().getEventManager()
                 .fire(new ObjectiveStartEvent(this, temp, e));
     }
@@ -121,6 +189,7 @@ public final class QuestInstance {
             if (objectiveProgresses[i] == objective) {
                 objectiveProgresses[i] = new ObjectiveProgress(this,
                         objective.getInfo());
+                changed();
                 quest.getQuestManager().getEventManager().fire(
                         new ObjectiveFailEvent(this, objective));
                 break; // there are no duplicates
@@ -128,6 +197,32 @@ public final class QuestInstance {
         }
     }
 
+    /**
+     * Finds the loaded {@link Quest} which serialized progression is for. As
+     * quest names may contain '_', the name is taken up to each '_' in turn,
+     * preferring a quest which has the first serialized objective.
+     */
+    private static Quest findQuest(QuestManager questManager,
+            String serialized) {
+        Quest fallback = null;
+        for (int end = serialized.indexOf('_'); end >= 0;
+                end = serialized.indexOf('_', end + 1)) {
+            Quest quest = questManager.getQuest(serialized.substring(0, end));
+            if (quest == null) {
+                continue;
+            }
+            int objectiveEnd = serialized.indexOf("//", end + 1);
+            if (objectiveEnd < 0 || quest.getObjective(
+                    serialized.substring(end + 1, objectiveEnd)) != null) {
+                return quest;
+            }
+            if (fallback == null) {
+                fallback = quest;
+            }
+        }
+        return fallback;
+    }
+
     /**
      * Gets the {@link Quest} for this {@link QuestInstance}, which contains the
      * basic information about the Quest.
@@ -139,9 +234,40 @@ public final class QuestInstance {
     }
 
     public String getQuester() {
+        return quester.getName();
+    }
+
+    /**
+     * Gets the id of the quester doing the quest.
+     *
+     * @return the {@link QuesterId} of the quester
+     */
+    public QuesterId getQuesterId() {
         return quester;
     }
 
+    /**
+     * Gets the number of times this instance's progression has changed. Two
+     * calls returning the same version mean the serialized progression is
+     * the same.
+     *
+     * @return the current version of this instance's progression
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Records that this instance's progression has changed, notifying its
+     * {@link QuestManager} via {@link QuestManager#progressChanged(
+     * QuestInstance)}. This is called automatically by {@link
+     * OutcomeProgress} and when objectives are completed or failed.
+     */
+    public void changed() {
+        version++;
+        quest.getQuestManager().progressChanged(this);
+    }
+
     public ObjectiveProgress[] getObjectiveProgresses() {
         return objectiveProgresses.clone();
     }
@@ -166,14 +292,24 @@ public final class QuestInstance {
      * @return the serialized progression into the Quest for this QuestInstance
      */
     public String serializeProgression() {
-        StringBuilder result = new StringBuilder(quest.getName()).append("_");
-        for (ObjectiveProgress progress : objectiveProgresses) {
-            // append <c> if it is the current objective
-            appendIf(getIndex(progress) == current, result.append(
-                    progress.serialize()), "<c>").append("%");
+        return snapshot().serialize();
+    }
+
+    /**
+     * Captures the progression into the {@link Quest} without formatting it,
+     * so that it can be serialized later on another thread. This only copies
+     * the progress values, and should be called from the thread which updates
+     * the progression so that the copy is consistent.
+     *
+     * @return an immutable copy of the current progression
+     */
+    public Snapshot snapshot() {
+        ObjectiveProgress.Snapshot[] objectives =
+                new ObjectiveProgress.Snapshot[objectiveProgresses.length];
+        for (int i = 0; i < objectives.length; i++) {
+            objectives[i] = objectiveProgresses[i].snapshot();
         }
-        result.setLength(result.length() - 1);
-        return result.toString();
+        return new Snapshot(quest.getName(), version, current, objectives);
     }
 
     private int getIndex(ObjectiveProgress progress) {
@@ -184,4 +320,59 @@ public final class QuestInstance {
         }
         return -1;
     }
+
+    /**
+     * An immutable copy of the progression of a {@link QuestInstance} at one
+     * point in time.
+     */
+    public static final class Snapshot {
+        private final String quest;
+        private final long version;
+        private final int current;
+        private final ObjectiveProgress.Snapshot[] objectives;
+
+        private Snapshot(String quest, long version, int current,
+                ObjectiveProgress.Snapshot[] objectives) {
+            this.quest = quest;
+            this.version = version;
+            this.current = current;
+            this.objectives = objectives;
+        }
+
+        /**
+         * Gets the name of the {@link Quest} the progression is for.
+         *
+         * @return the name of the quest
+         */
+        public String getQuestName() {
+            return quest;
+        }
+
+        /**
+         * Gets the {@link QuestInstance#getVersion() version} of the
+         * progression when it was captured.
+         *
+         * @return the captured version
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Serializes the captured progression, in the same form as {@link
+         * QuestInstance#serializeProgression()}.
+         *
+         * @return the serialized progression
+         */
+        public String serialize() {
+            StringBuilder result = new StringBuilder(quest).append("_");
+            for (int i = 0; i < objectives.length; i++) {
+                // append <c> if it is the current objective
+                appendIf(i == current, result.append(
+                        objectives[i].serialize()), "<c>").append("%");
+            }
+            result.setLength(result.length() - 1);
+            return result.toString();
+        }
+    }
 }
@@ -11,11 +11,15 @@ import com.volumetricpixels.questy.loading.QuestLoader;
 import com.volumetricpixels.questy.objective.OutcomeProgress;
 import com.volumetricpixels.questy.questy.SimpleQuestManager;
 import com.volumetricpixels.questy.storage.ProgressStore;
+import com.volumetricpixels.questy.storage.ProgressionSnapshot;
 
 import java.io.File;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
 
 /**
  * Manages and tracks all active {@link Quest}s and {@link QuestLoader}s.
@@ -86,9 +90,11 @@ public interface QuestManager {
     boolean addLoader(QuestLoader loader);
 
     /**
-     * Gets this {@link QuestManager}'s {@link QuestLoadHelper} object.
+     * Gets the {@link QuestLoadHelper} for the load session the calling thread
+     * is taking part in, or this {@link QuestManager}'s own helper if it isn't
+     * taking part in one.
      *
-     * @return the {@link QuestLoadHelper} for this manager
+     * @return the {@link QuestLoadHelper} to use from the calling thread
      */
     QuestLoadHelper getQuestLoadHelper();
 
@@ -110,19 +116,49 @@ public interface QuestManager {
      * @param quester the name of the player to get the instance for
      * @return the given player's progress for the given Quest
      */
-    QuestInstance getQuestInstance(Quest quest, String quester);
+    default QuestInstance getQuestInstance(Quest quest, String quester) {
+        return getQuestInstance(quest, QuesterId.of(quester));
+    }
+
+    /**
+     * Gets the {@link QuestInstance} object of the given {@link Quest} for the
+     * quester with the given id. This may be {@code null} if the given quester
+     * isn't currently doing the given quest.
+     *
+     * @param quest the {@link Quest} to get the instance for
+     * @param quester the id of the player to get the instance for
+     * @return the given player's progress for the given Quest
+     */
+    QuestInstance getQuestInstance(Quest quest, QuesterId quester);
 
     /**
      * Gets progression data about the given {@link Quest} for the given player
      * if the given player has completed the {@link Quest}. If the player hasn't
      * completed the quest, {@code null} is returned.  Quester names are case-sensitive.
      *
+     * Implementations may rebuild the returned {@link QuestInstance} from a
+     * compact record on each call rather than keeping completed instances.
+     *
      * @param quest the {@link Quest} to get the progression for
      * @param quester the player to get the completed quest data for
      * @return the completed quest data for the given quest and the given
      *         player, or {@code null} if they haven't completed it
      */
-    QuestInstance getCompletedQuest(Quest quest, String quester);
+    default QuestInstance getCompletedQuest(Quest quest, String quester) {
+        return getCompletedQuest(quest, QuesterId.of(quester));
+    }
+
+    /**
+     * Gets progression data about the given {@link Quest} for the quester with
+     * the given id if they have completed the {@link Quest}. If they haven't
+     * completed the quest, {@code null} is returned.
+     *
+     * @param quest the {@link Quest} to get the progression for
+     * @param quester the id of the player to get the completed quest data for
+     * @return the completed quest data for the given quest and the given
+     *         player, or {@code null} if they haven't completed it
+     */
+    QuestInstance getCompletedQuest(Quest quest, QuesterId quester);
 
     /**
      * Checks whether the given {@code quester} has completed the given {@link
@@ -134,6 +170,19 @@ public interface QuestManager {
      *         {@code false}
      */
     default boolean hasCompleted(Quest quest, String quester) {
+        return hasCompleted(quest, QuesterId.of(quester));
+    }
+
+    /**
+     * Checks whether the quester with the given id has completed the given
+     * {@link Quest}.
+     *
+     * @param quest the {@link Quest} to check completion status of
+     * @param quester the id of the player to check the completion status for
+     * @return {@code true} if the given player has done the given Quest, else
+     *         {@code false}
+     */
+    default boolean hasCompleted(Quest quest, QuesterId quester) {
         return getCompletedQuest(quest, quester) != null;
     }
 
@@ -144,10 +193,22 @@ public interface QuestManager {
      * @param quester the quester to get in progress quests for
      * @return a {@link Collection} of {@link QuestInstance}s currently in progress for the given quester
      */
-    Collection<QuestInstance> getQuestInstances(String quester);
+    default Collection<QuestInstance> getQuestInstances(String quester) {
+        return getQuestInstances(QuesterId.of(quester));
+    }
+
+    /**
+     * Gets a {@link Collection} of {@link QuestInstance}s currently in progress for the quester with the given id. If the given quester has no current quests, this
+     * method should return an empty {@link Collection}, not {@code null}.
+     *
+     * @param quester the id of the quester to get in progress quests for
+     * @return a {@link Collection} of {@link QuestInstance}s currently in progress for the given quester
+     */
+    Collection<QuestInstance> getQuestInstances(QuesterId quester);
 
     /**
-     * Gets a {@link Collection} of all currently in progress instances of the given {@link Quest}.
+     * Gets a {@link Collection} of all currently in progress instances of the given {@link Quest}. Implementations may return an unmodifiable live view rather than a
+     * copy, so callers wishing to start, abandon or complete instances while iterating should copy the result first.
      *
      * @param quest the {@link Quest} to get instances of
      * @return all in progress {@link QuestInstance}s of the given quest
@@ -158,21 +219,63 @@ public interface QuestManager {
      * A utility for caching {@link QuestBuilder}s and other quest loading
      * things.
      *
-     * Methods in this class are synchronized in order to prevent overwritten
-     * builders or {@link java.util.ConcurrentModificationException}.
+     * This class is threadsafe, as quest files may be parsed on several threads
+     * at once. Builders are created atomically, so only one builder is ever
+     * created for each quest name.
+     *
+     * Each load of quests uses its own helper, from {@link #newSession()},
+     * which is {@link #clear() cleared} and dropped once the quests have been
+     * built, so that the builders and the objective and outcome builders they
+     * hold don't stay in memory once they're finished with, even if a loader
+     * kept hold of the helper, and so that loads which overlap, such as a
+     * reload in the background, don't share builders. Quests which are built
+     * during a load are handed to {@link #defer(Quest)} rather than
+     * registered, and are registered by whoever ran the load once it has
+     * finished.
+     *
+     * Sessions share their manager's table of deduplicated strings, which is
+     * kept for as long as the manager is, so {@link #dedupe(String)} shares
+     * equal strings between every quest the manager has built, including
+     * quests which are reloaded later on.
      */
     // in a separate class for synchronization purposes and organisation
     final class QuestLoadHelper {
         /**
          * A {@link Map} of quest names to {@link QuestBuilder}s.
          */
-        private final Map<String, QuestBuilder> builders = new HashMap<>();
+        private final Map<String, QuestBuilder> builders =
+                new ConcurrentHashMap<>();
+        /**
+         * Strings used by built quests, mapped to themselves. Shared by the
+         * manager's helper and all of its sessions.
+         */
+        private final Map<String, String> strings;
+        /**
+         * Quests built during the load, waiting to be registered.
+         */
+        private final Queue<Quest> deferred = new ConcurrentLinkedQueue<>();
 
         /**
-         * There should always be one (and only one) {@link QuestLoadHelper}
-         * object per {@link QuestManager} object.
+         * Each {@link QuestManager} has one {@link QuestLoadHelper} for use
+         * outside of loads, and one for each load session, created through
+         * {@link #newSession()}.
          */
         public QuestLoadHelper() {
+            this(new ConcurrentHashMap<>());
+        }
+
+        private QuestLoadHelper(Map<String, String> strings) {
+            this.strings = strings;
+        }
+
+        /**
+         * Creates a {@link QuestLoadHelper} for a new load session, which has
+         * builders of its own but shares this helper's deduplicated strings.
+         *
+         * @return a new {@link QuestLoadHelper}
+         */
+        public QuestLoadHelper newSession() {
+            return new QuestLoadHelper(strings);
         }
 
         /**
@@ -182,10 +285,24 @@ public interface QuestManager {
          * @param questName the name of the Quest to get the builder for
          * @return the {@link QuestBuilder} for the given quest
          */
-        public synchronized QuestBuilder getBuilder(String questName) {
+        public QuestBuilder getBuilder(String questName) {
             return builders.get(questName);
         }
 
+        /**
+         * Gets the {@link QuestBuilder} for the {@link Quest} with the given
+         * {@code questName}, creating and caching one with the given {@link
+         * Function} if there isn't one yet.
+         *
+         * @param questName the name of the Quest to get the builder for
+         * @param factory creates a builder from the quest name
+         * @return the {@link QuestBuilder} for the given quest
+         */
+        public QuestBuilder getBuilder(String questName,
+                Function<String, QuestBuilder> factory) {
+            return builders.computeIfAbsent(questName, factory);
+        }
+
         /**
          * Adds the given {@link QuestBuilder} to this {@link QuestLoadHelper}
          * object's cache.
@@ -195,15 +312,55 @@ public interface QuestManager {
          * @return whether the operation was successful - {@code false} if
          *         there was already a builder for the given name
          */
-        public synchronized boolean addBuilder(String questName,
-                QuestBuilder builder) {
-            QuestBuilder existent = builders.put(questName, builder);
-            if (existent != null) {
-                // no overrides
-                builders.put(questName, existent);
-                return false;
+        public boolean addBuilder(String questName, QuestBuilder builder) {
+            // no overrides
+            return builders.putIfAbsent(questName, builder) == null;
+        }
+
+        /**
+         * Gets a string equal to the given one, which is the same instance
+         * for every equal string given to this helper or any of its sessions.
+         * Descriptions, messages and outcome types are often repeated between
+         * quests, so built quests only keep one copy of each.
+         *
+         * @param string the string to deduplicate, which may be {@code null}
+         * @return an equal string shared by the built quests
+         */
+        public String dedupe(String string) {
+            if (string == null) {
+                return null;
             }
-            return true;
+            String existing = strings.putIfAbsent(string, string);
+            return existing == null ? string : existing;
+        }
+
+        /**
+         * Holds back a {@link Quest} which was built during the load, to be
+         * registered once the load has finished.
+         *
+         * @param quest the built {@link Quest}
+         */
+        public void defer(Quest quest) {
+            deferred.add(quest);
+        }
+
+        /**
+         * Takes the next {@link Quest} held back by {@link #defer(Quest)}.
+         *
+         * @return the next deferred quest, or {@code null} if there are none
+         *         left
+         */
+        public Quest pollDeferred() {
+            return deferred.poll();
+        }
+
+        /**
+         * Forgets every cached {@link QuestBuilder}. Quests which are built
+         * afterwards start from fresh builders. Deduplicated strings are kept,
+         * as loaded quests still share them.
+         */
+        public void clear() {
+            builders.clear();
         }
     }
 
@@ -227,6 +384,86 @@ public interface QuestManager {
      */
     void saveProgression();
 
+    /**
+     * Loads the progression of the given quester, if the {@link
+     * ProgressStore} {@link ProgressStore#isPerQuester() stores questers
+     * individually}. Otherwise everyone's progression is loaded by {@link
+     * #loadProgression()} and this does nothing.
+     *
+     * @param quester the quester to load progression for
+     * @return whether the quester's progression was loaded by this call
+     * @throws IllegalStateException if the quester's stored progression can't
+     *         be read, in which case they are left unloaded
+     */
+    default boolean loadProgression(QuesterId quester) {
+        return false;
+    }
+
+    /**
+     * Stops holding the progression of the given quester, which was loaded by
+     * {@link #loadProgression(QuesterId)}, once it has been saved. Does
+     * nothing unless the {@link ProgressStore} {@link
+     * ProgressStore#isPerQuester() stores questers individually}.
+     *
+     * @param quester the quester to unload progression for
+     * @return whether the quester's progression was unloaded by this call
+     */
+    default boolean unloadProgression(QuesterId quester) {
+        return false;
+    }
+
+    /**
+     * Stores the progression of only those questers whose progression has
+     * changed since it was last saved, using {@link
+     * ProgressStore#saveChangedQuestData(Map, Map)}. The default
+     * implementation captures and immediately saves a {@link
+     * ProgressionSnapshot}.
+     */
+    default void saveChangedProgression() {
+        captureChangedProgression().save();
+    }
+
+    /**
+     * Captures the progression of only those questers whose progression has
+     * changed since it was last saved or captured, and marks it as saved. This
+     * should be called from the thread which updates progression, and is
+     * cheap as nothing is serialized; the returned {@link
+     * ProgressionSnapshot} may then be saved from any thread.
+     *
+     * @return a snapshot of the changed progression
+     */
+    ProgressionSnapshot captureChangedProgression();
+
+    /**
+     * Called whenever the progression of the given {@link QuestInstance}
+     * changes, so that implementations can track what needs to be saved.
+     *
+     * @param instance the {@link QuestInstance} which changed
+     */
+    default void progressChanged(QuestInstance instance) {
+    }
+
+    /**
+     * Called from any thread when the given {@link OutcomeProgress} is
+     * updated through one of its atomic methods, the first time since it was
+     * last {@link OutcomeProgress#publish() published}. Implementations should
+     * publish it later from the thread they are used from, such as from
+     * {@link #publishPendingProgress()}.
+     *
+     * @param progress the {@link OutcomeProgress} which was updated
+     */
+    default void progressPending(OutcomeProgress progress) {
+    }
+
+    /**
+     * Publishes every {@link OutcomeProgress} which has been updated through
+     * one of its atomic methods, as reported by {@link
+     * #progressPending(OutcomeProgress)}. Should be called regularly from the
+     * thread which updates progression.
+     */
+    default void publishPendingProgress() {
+    }
+
     /**
      * Should be called whenever a {@link QuestInstance} is started. This calls
      * the {@link com.volumetricpixels.questy.event.quest.QuestStartEvent} and
@@ -236,6 +473,9 @@ public interface QuestManager {
      * needs to be called if a {@link QuestInstance} is obtained directly via
      * {@link QuestInstance#QuestInstance(Quest, String)}
      *
+     * Implementations may refuse to start quests for questers whose
+     * progression hasn't been {@link #loadProgression(QuesterId) loaded}.
+     *
      * @param quest the {@link QuestInstance} being started
      * @return whether the quest was successfully started
      */
@@ -0,0 +1,141 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.volumetricpixels.questy;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Identifies a quester. Quester ids are interned, so there is only ever one
+ * instance for each quester and ids can be compared by identity, and their
+ * hash codes are computed once.
+ *
+ * Questers are named by a {@link String}, which is the form used in storage,
+ * but in most cases the name is a {@link UUID}. Such ids also hold the parsed
+ * {@link UUID} and can be looked up by it directly, so that callers which
+ * already have a {@link UUID} never need to format or parse one.
+ *
+ * Interned ids are never discarded, which is fine for the number of distinct
+ * players a server will see.
+ */
+public final class QuesterId {
+    /**
+     * All quester ids, by name.
+     */
+    private static final ConcurrentMap<String, QuesterId> byName =
+            new ConcurrentHashMap<>();
+    /**
+     * All quester ids whose name is a {@link UUID}, by that {@link UUID}.
+     */
+    private static final ConcurrentMap<UUID, QuesterId> byUniqueId =
+            new ConcurrentHashMap<>();
+
+    /**
+     * The name of the quester.
+     */
+    private final String name;
+    /**
+     * The name of the quester as a {@link UUID}, or {@code null} if it isn't
+     * one.
+     */
+    private final UUID uniqueId;
+    /**
+     * The cached hash code of {@link #name}.
+     */
+    private final int hash;
+
+    private QuesterId(String name, UUID uniqueId) {
+        this.name = name;
+        this.uniqueId = uniqueId;
+        this.hash = name.hashCode();
+    }
+
+    /**
+     * Gets the id of the quester with the given name.
+     *
+     * @param name the name of the quester
+     * @return the id of the quester with the given name
+     */
+    public static QuesterId of(String name) {
+        QuesterId id = byName.get(name);
+        return id != null ? id : intern(name, parse(name));
+    }
+
+    /**
+     * Gets the id of the quester named by the given {@link UUID}.
+     *
+     * @param uniqueId the {@link UUID} of the quester
+     * @return the id of the quester with the given {@link UUID}
+     */
+    public static QuesterId of(UUID uniqueId) {
+        QuesterId id = byUniqueId.get(uniqueId);
+        return id != null ? id : intern(uniqueId.toString(), uniqueId);
+    }
+
+    private static synchronized QuesterId intern(String name, UUID uniqueId) {
+        QuesterId id = byName.get(name);
+        if (id == null) {
+            id = new QuesterId(name, uniqueId);
+            byName.put(name, id);
+            if (uniqueId != null) {
+                byUniqueId.put(uniqueId, id);
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Parses the given name as a {@link UUID}, if it is one in canonical form.
+     */
+    private static UUID parse(String name) {
+        if (name.length() != 36) {
+            return null;
+        }
+        try {
+            UUID uniqueId = UUID.fromString(name);
+            // only canonical names, so the name can be rebuilt from the UUID
+            return uniqueId.toString().equals(name) ? uniqueId : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the name of the quester, as used in storage.
+     *
+     * @return the name of the quester
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the {@link UUID} of the quester, if their name is one.
+     *
+     * @return the {@link UUID} of the quester, or {@code null} if their name
+     *         isn't a {@link UUID}
+     */
+    public UUID getUniqueId() {
+        return uniqueId;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        // interned, so there is never more than one instance for a name
+        return this == other;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
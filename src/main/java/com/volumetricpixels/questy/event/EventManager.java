@@ -39,4 +39,12 @@ public interface EventManager {
      * @return the given {@link Event}
      */
     <T extends Event> T fire(T event);
+
+    /**
+     * Stops any background delivery of events, waiting a short time for events
+     * which are already queued to be delivered. Implementations which deliver
+     * every event on the firing thread needn't do anything.
+     */
+    default void shutdown() {
+    }
 }
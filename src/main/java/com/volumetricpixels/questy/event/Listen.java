@@ -17,5 +17,48 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.METHOD)
 public @interface Listen {
+    /**
+     * Whether the annotated method is a monitor. Monitors are invoked after all
+     * other handlers for an event, and shouldn't modify it.
+     *
+     * @return whether the annotated method is a monitor
+     */
     boolean monitor() default false;
+
+    /**
+     * The {@link Priority} of the annotated method, which determines the order
+     * in which it is invoked relative to other handlers of the same kind.
+     *
+     * @return the priority of the annotated method
+     */
+    Priority priority() default Priority.NORMAL;
+
+    /**
+     * Whether the annotated method should be skipped for events which have
+     * already been cancelled by the time it would be invoked. This only has an
+     * effect for events which can be cancelled, such as {@link
+     * com.volumetricpixels.questy.event.quest.QuestAbandonEvent}.
+     *
+     * @return whether cancelled events are ignored by the annotated method
+     */
+    boolean ignoreCancelled() default false;
+
+    /**
+     * Whether the annotated method should receive events asynchronously, off
+     * the thread which fired them. Asynchronous handlers are always treated as
+     * monitors, and receive an event only after all synchronous handlers have
+     * finished with it. Quest events are copied into an immutable {@link
+     * com.volumetricpixels.questy.event.quest.QuestEventSnapshot} before they
+     * are handed over, so asynchronous handlers of quest events should take a
+     * {@code QuestEventSnapshot} and check its type, rather than the event
+     * class itself, and listeners with asynchronous handlers of quest event
+     * classes are rejected when they're registered. Other events are handed
+     * over as they are.
+     *
+     * Events relating to the same quester are delivered to asynchronous
+     * handlers in the order they were fired.
+     *
+     * @return whether the annotated method receives events asynchronously
+     */
+    boolean async() default false;
 }
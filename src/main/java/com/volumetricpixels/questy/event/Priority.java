@@ -0,0 +1,20 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.volumetricpixels.questy.event;
+
+/**
+ * The order in which {@link Listen}-annotated methods receive an {@link Event}.
+ * Handlers with a lower priority are invoked first, so that handlers with a
+ * higher priority have the final say on the outcome of the event. Handlers of
+ * the same priority are invoked in registration order.
+ */
+public enum Priority {
+    LOWEST,
+    LOW,
+    NORMAL,
+    HIGH,
+    HIGHEST
+}
@@ -37,6 +37,11 @@ public class ProgressUpdateEvent extends QuestEvent {
         return getOutcome().getInfo();
     }
 
+    @Override
+    public QuestEventSnapshot snapshot() {
+        return new QuestEventSnapshot(this, null, outcome);
+    }
+
     public Object getNewProgress() {
         return newProgress;
     }
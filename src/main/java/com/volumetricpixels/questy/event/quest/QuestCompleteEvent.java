@@ -27,4 +27,9 @@ public class QuestCompleteEvent extends QuestEvent {
     public Outcome getOutcomeInfo() {
         return getOutcome().getInfo();
     }
+
+    @Override
+    public QuestEventSnapshot snapshot() {
+        return new QuestEventSnapshot(this, null, outcome);
+    }
 }
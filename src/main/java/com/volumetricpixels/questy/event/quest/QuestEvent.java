@@ -7,6 +7,7 @@ package com.volumetricpixels.questy.event.quest;
 
 import com.volumetricpixels.questy.Quest;
 import com.volumetricpixels.questy.QuestInstance;
+import com.volumetricpixels.questy.QuesterId;
 import com.volumetricpixels.questy.event.Event;
 
 /**
@@ -55,4 +56,26 @@ public abstract class QuestEvent extends Event {
     public String getQuester() {
         return getQuest().getQuester();
     }
+
+    /**
+     * Gets the id of the player doing the quest. This method is equivalent to
+     * calling {@code questEvent.getQuest().getQuesterId()}.
+     *
+     * @return the id of the player doing the {@link QuestInstance} relevant to
+     *         this event
+     */
+    public QuesterId getQuesterId() {
+        return getQuest().getQuesterId();
+    }
+
+    /**
+     * Copies what this event is about into an immutable {@link
+     * QuestEventSnapshot}, for delivery to asynchronous handlers. Subclasses
+     * which are about a particular objective or outcome include it.
+     *
+     * @return a copy of this event
+     */
+    public QuestEventSnapshot snapshot() {
+        return new QuestEventSnapshot(this, null, null);
+    }
 }
@@ -0,0 +1,132 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.volumetricpixels.questy.event.quest;
+
+import com.volumetricpixels.questy.QuestInstance;
+import com.volumetricpixels.questy.QuesterId;
+import com.volumetricpixels.questy.event.Event;
+import com.volumetricpixels.questy.objective.ObjectiveProgress;
+import com.volumetricpixels.questy.objective.OutcomeProgress;
+
+/**
+ * An immutable copy of a {@link QuestEvent}, taken on the thread which fired
+ * it once all synchronous handlers have finished with it. Asynchronous
+ * handlers receive these instead of the event itself, as the {@link
+ * QuestInstance} a {@link QuestEvent} refers to keeps changing after it is
+ * fired.
+ */
+public final class QuestEventSnapshot extends Event {
+    private final Class<? extends QuestEvent> type;
+    private final QuesterId quester;
+    private final String quest;
+    private final String objective;
+    private final String outcome;
+    private final Object progress;
+    private final QuestInstance.Snapshot progression;
+
+    /**
+     * Copies the given {@link QuestEvent}.
+     *
+     * @param event the event to copy
+     * @param objective the progress of the objective the event is about, or
+     *        {@code null} for the quest's current objective
+     * @param outcome the progress of the outcome the event is about, or
+     *        {@code null} if there isn't one
+     */
+    public QuestEventSnapshot(QuestEvent event, ObjectiveProgress objective,
+            OutcomeProgress outcome) {
+        QuestInstance instance = event.getQuest();
+        if (objective == null && instance != null) {
+            objective = instance.getCurrentObjective();
+        }
+
+        this.type = event.getClass();
+        this.quester = instance == null ? null : instance.getQuesterId();
+        this.quest = instance == null ? null : instance.getInfo().getName();
+        this.objective = objective == null ? null :
+                objective.getInfo().getName();
+        this.outcome = outcome == null ? null : outcome.getInfo().getName();
+        this.progress = outcome == null ? null : outcome.getProgress();
+        this.progression = instance == null ? null : instance.snapshot();
+        setCancelled(event.isCancelled());
+    }
+
+    /**
+     * Gets the type of event this is a copy of.
+     *
+     * @return the class of the copied {@link QuestEvent}
+     */
+    public Class<? extends QuestEvent> getType() {
+        return type;
+    }
+
+    /**
+     * Gets the id of the player doing the quest.
+     *
+     * @return the id of the quester, or {@code null} if the event had no quest
+     */
+    public QuesterId getQuesterId() {
+        return quester;
+    }
+
+    /**
+     * Gets the name of the player doing the quest.
+     *
+     * @return the name of the quester, or {@code null} if the event had no
+     *         quest
+     */
+    public String getQuester() {
+        return quester == null ? null : quester.getName();
+    }
+
+    /**
+     * Gets the name of the quest the event was about.
+     *
+     * @return the quest's name, or {@code null} if the event had no quest
+     */
+    public String getQuestName() {
+        return quest;
+    }
+
+    /**
+     * Gets the name of the objective the event was about, which is the
+     * quest's current objective for events which aren't about a particular
+     * objective.
+     *
+     * @return the objective's name, or {@code null} if the event had no quest
+     */
+    public String getObjectiveName() {
+        return objective;
+    }
+
+    /**
+     * Gets the name of the outcome the event was about.
+     *
+     * @return the outcome's name, or {@code null} if there wasn't one
+     */
+    public String getOutcomeName() {
+        return outcome;
+    }
+
+    /**
+     * Gets the progress towards the outcome the event was about.
+     *
+     * @return the outcome's progress, or {@code null} if there wasn't one
+     */
+    public Object getProgress() {
+        return progress;
+    }
+
+    /**
+     * Gets the progression into the whole quest.
+     *
+     * @return the quest's progression, or {@code null} if the event had no
+     *         quest
+     */
+    public QuestInstance.Snapshot getProgression() {
+        return progression;
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.volumetricpixels.questy.event.quest;
+
+import com.volumetricpixels.questy.QuestInstance;
+
+/**
+ * Called when a {@link QuestInstance} is replaced by an instance of a new
+ * version of its quest, after the quest has been reloaded. The old instance
+ * is no longer held by the quest manager.
+ */
+public class QuestMigrateEvent extends QuestEvent {
+    private final QuestInstance previous;
+
+    public QuestMigrateEvent(QuestInstance quest, QuestInstance previous) {
+        super(quest);
+        this.previous = previous;
+    }
+
+    /**
+     * Gets the instance of the old version of the quest which was replaced.
+     *
+     * @return the replaced {@link QuestInstance}
+     */
+    public QuestInstance getPrevious() {
+        return previous;
+    }
+}
@@ -6,6 +6,7 @@
 package com.volumetricpixels.questy.event.quest.objective;
 
 import com.volumetricpixels.questy.QuestInstance;
+import com.volumetricpixels.questy.event.quest.QuestEventSnapshot;
 import com.volumetricpixels.questy.objective.ObjectiveProgress;
 import com.volumetricpixels.questy.objective.Outcome;
 import com.volumetricpixels.questy.objective.OutcomeProgress;
@@ -43,4 +44,9 @@ public class ObjectiveCompleteEvent extends QuestObjectiveEvent {
     public Outcome getOutcomeInfo() {
         return getOutcome().getInfo();
     }
+
+    @Override
+    public QuestEventSnapshot snapshot() {
+        return new QuestEventSnapshot(this, getObjective(), outcome);
+    }
 }
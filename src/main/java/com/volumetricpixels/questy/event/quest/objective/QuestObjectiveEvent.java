@@ -7,6 +7,7 @@ package com.volumetricpixels.questy.event.quest.objective;
 
 import com.volumetricpixels.questy.QuestInstance;
 import com.volumetricpixels.questy.event.quest.QuestEvent;
+import com.volumetricpixels.questy.event.quest.QuestEventSnapshot;
 import com.volumetricpixels.questy.objective.Objective;
 import com.volumetricpixels.questy.objective.ObjectiveProgress;
 
@@ -46,4 +47,9 @@ public abstract class QuestObjectiveEvent extends QuestEvent {
     public Objective getObjectiveInfo() {
         return getObjective().getInfo();
     }
+
+    @Override
+    public QuestEventSnapshot snapshot() {
+        return new QuestEventSnapshot(this, objective, null);
+    }
 }
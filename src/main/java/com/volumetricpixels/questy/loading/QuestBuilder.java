@@ -12,6 +12,7 @@ import com.volumetricpixels.questy.objective.Objective;
 import com.volumetricpixels.questy.objective.Outcome;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -40,13 +41,25 @@ public final class QuestBuilder {
      */
     public static QuestBuilder begin(QuestManager manager, String name) {
         QuestLoadHelper helper = manager.getQuestLoadHelper();
-        QuestBuilder result = helper.getBuilder(name);
-        if (result == null) {
-            // create a new builder as there isn't one already
-            result = new QuestBuilder(manager).name(name);
-            // add the new builder to the cache for later
-            helper.addBuilder(name, result);
-        }
+        // create a new builder and cache it if there isn't one already
+        return helper.getBuilder(name,
+                key -> new QuestBuilder(manager).name(key));
+    }
+
+    /**
+     * Gets a {@link QuestBuilder} which simply gives back the given {@link
+     * Quest}, which has already been built, from {@link #build()}. Used where a
+     * {@link Quest} has to be passed on as a builder, such as from {@link
+     * QuestLoader#parseQuest(java.io.File)} when the quest is built by a
+     * script.
+     *
+     * @param quest the already built {@link Quest}
+     * @return a {@link QuestBuilder} which builds the given quest
+     */
+    public static QuestBuilder of(Quest quest) {
+        QuestBuilder result = new QuestBuilder(quest.getQuestManager())
+                .name(quest.getName());
+        result.built = quest;
         return result;
     }
 
@@ -218,15 +231,26 @@ public final class QuestBuilder {
             // we already built the Quest
             return built;
         }
+        QuestLoadHelper helper = questManager.getQuestLoadHelper();
         // build all of the associated ObjectiveBuilders
         Objective[] objs = new Objective[objectives.size()];
         for (int i = 0; i < objs.length; i++) {
-            objs[i] = objectives.get(i).build();
+            objs[i] = objectives.get(i).build(helper);
         }
-        return built = new Quest(questManager, name, description, beginMessage,
-                finishMessage, objs,
-                prerequisites.toArray(new String[prerequisites.size()]),
-                rewards.toArray(new String[rewards.size()]));
+        return built = new Quest(questManager, helper.dedupe(name),
+                helper.dedupe(description), helper.dedupe(beginMessage),
+                helper.dedupe(finishMessage), objs,
+                dedupe(helper, prerequisites), dedupe(helper, rewards));
+    }
+
+    private static String[] dedupe(QuestLoadHelper helper,
+            Collection<String> strings) {
+        String[] result = new String[strings.size()];
+        int i = 0;
+        for (String string : strings) {
+            result[i++] = helper.dedupe(string);
+        }
+        return result;
     }
 
     /**
@@ -347,10 +371,11 @@ public final class QuestBuilder {
          * {@link ObjectiveBuilder}. If this method has already been invoked,
          * the same object will be returned.
          *
+         * @param helper used to share strings between the quests being built
          * @return an {@link Objective} built from the details submitted to this
          *         builder
          */
-        private Objective build() {
+        private Objective build(QuestLoadHelper helper) {
             if (built != null) {
                 // we already built the Objective
                 return built;
@@ -358,9 +383,10 @@ public final class QuestBuilder {
             Outcome[] array = new Outcome[outcomes.size()];
             // build all of the associated OutcomeBuilders
             for (int i = 0; i < array.length; i++) {
-                array[i] = outcomes.get(i).build();
+                array[i] = outcomes.get(i).build(helper);
             }
-            return built = new Objective(name, description, beginMessage,
+            return built = new Objective(helper.dedupe(name),
+                    helper.dedupe(description), helper.dedupe(beginMessage),
                     array);
         }
 
@@ -490,16 +516,20 @@ public final class QuestBuilder {
              * this {@link OutcomeBuilder}. If this method has already been
              * invoked, the same object will be returned.
              *
+             * @param helper used to share strings between the quests being
+             *        built
              * @return an {@link Outcome} built from the details submitted to
              *         this builder
              */
-            private Outcome build() {
+            private Outcome build(QuestLoadHelper helper) {
                 if (built != null) {
                     // we already built the Outcome
                     return built;
                 }
-                return built = new Outcome(name, description, finishMessage,
-                        type, next == null ? null : next.build());
+                return built = new Outcome(helper.dedupe(name),
+                        helper.dedupe(description),
+                        helper.dedupe(finishMessage), helper.dedupe(type),
+                        next == null ? null : next.build(helper));
             }
         }
     }
@@ -9,6 +9,7 @@ import com.volumetricpixels.questy.Quest;
 import com.volumetricpixels.questy.util.Serialization;
 
 import java.io.File;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -30,6 +31,37 @@ public interface QuestLoader {
      */
     Map<String, Quest> loadQuests(File directory);
 
+    /**
+     * Lists the files in the given directory which this {@link QuestLoader}
+     * can load, so that a {@link com.volumetricpixels.questy.QuestManager}
+     * can read and parse them in parallel through {@link #parseQuest(File)}.
+     * Loaders which return {@code null}, as the default implementation does,
+     * are only loaded through {@link #loadQuests(File)}.
+     *
+     * @param directory the directory to load {@link Quest}s from
+     * @return the files to parse, or {@code null} if this loader can't parse
+     *         files individually
+     */
+    default List<File> getQuestFiles(File directory) {
+        return null;
+    }
+
+    /**
+     * Reads and parses a single file returned by {@link
+     * #getQuestFiles(File)}, without building the {@link Quest}. Quests are
+     * built and registered afterwards, on a single thread, once every file has
+     * been parsed. This may be called from several threads at once for
+     * different files, so implementations mustn't share state between calls
+     * without synchronizing it.
+     *
+     * @param file the file to parse
+     * @return a builder for the quest in the file, or {@code null} if it
+     *         couldn't be parsed
+     */
+    default QuestBuilder parseQuest(File file) {
+        return null;
+    }
+
     // utility methods for implementations
 
     /**
@@ -6,9 +6,12 @@
 package com.volumetricpixels.questy.objective;
 
 import com.volumetricpixels.questy.QuestInstance;
+import com.volumetricpixels.questy.util.ProgressionTokenizer;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -39,17 +42,57 @@ public final class ObjectiveProgress {
     }
 
     public ObjectiveProgress(QuestInstance quest, String serialized) {
+        this(quest, tokenize(serialized));
+    }
+
+    /**
+     * Reads progress from the objective the given {@link
+     * ProgressionTokenizer} is on, moving it through the objective's outcomes.
+     *
+     * @param quest the {@link QuestInstance} the progress belongs to
+     * @param tokens the tokenizer, on the objective to read
+     */
+    public ObjectiveProgress(QuestInstance quest, ProgressionTokenizer tokens) {
         this.quest = quest;
 
-        String[] split = serialized.split("//");
-        Objective obj = quest.getInfo().getObjective(split[0]);
+        Objective obj = quest.getInfo().getObjective(tokens.getObjective());
         this.objective = obj;
 
-        String[] progresses = split[1].split("&&");
-        outcomeProgresses = new OutcomeProgress[progresses.length];
-        for (int idx = 0; idx < progresses.length; idx++) {
-            outcomeProgresses[idx] = new OutcomeProgress(quest, obj,
-                    progresses[idx]);
+        List<OutcomeProgress> progresses = new ArrayList<>(
+                obj.getAmtOutcomes());
+        while (tokens.nextOutcome()) {
+            progresses.add(new OutcomeProgress(quest, obj, tokens));
+        }
+        outcomeProgresses = progresses.toArray(
+                new OutcomeProgress[progresses.size()]);
+    }
+
+    /**
+     * Creates progress for the given {@link Objective} which keeps the
+     * progress of {@code previous} towards outcomes with the same names, for
+     * when a quest is replaced by a new version of it.
+     *
+     * @param quest the {@link QuestInstance} the progress belongs to
+     * @param objective the {@link Objective} to store progress for
+     * @param previous the progress to copy, or {@code null} to start afresh
+     */
+    public ObjectiveProgress(QuestInstance quest, Objective objective,
+            ObjectiveProgress previous) {
+        this(quest, objective);
+        if (previous == null) {
+            return;
+        }
+
+        Outcome[] outcomes = objective.getOutcomes();
+        for (OutcomeProgress old : previous.outcomeProgresses) {
+            for (int i = 0; i < outcomes.length; i++) {
+                if (old.getInfo() != null && outcomes[i].getName().equals(
+                        old.getInfo().getName())) {
+                    outcomeProgresses[i] = new OutcomeProgress(quest,
+                            outcomes[i], old);
+                    break;
+                }
+            }
         }
     }
 
@@ -81,12 +124,57 @@ public final class ObjectiveProgress {
      * @return a serialized form of this {@link ObjectiveProgress}
      */
     public String serialize() {
-        StringBuilder res = new StringBuilder(objective.getName() + "//");
-        for (OutcomeProgress progress : outcomeProgresses) {
-            res.append(progress.serialize()).append("&&");
+        return snapshot().serialize();
+    }
+
+    /**
+     * Captures the current progress for each {@link Outcome} without
+     * formatting it, so that it can be serialized later on another thread.
+     *
+     * @return an immutable copy of the current progress
+     */
+    public Snapshot snapshot() {
+        OutcomeProgress.Snapshot[] outcomes =
+                new OutcomeProgress.Snapshot[outcomeProgresses.length];
+        for (int i = 0; i < outcomes.length; i++) {
+            outcomes[i] = outcomeProgresses[i].snapshot();
+        }
+        return new Snapshot(objective.getName(), outcomes);
+    }
+
+    /**
+     * An immutable copy of an {@link ObjectiveProgress} at one point in time.
+     */
+    public static final class Snapshot {
+        private final String objective;
+        private final OutcomeProgress.Snapshot[] outcomes;
+
+        private Snapshot(String objective,
+                OutcomeProgress.Snapshot[] outcomes) {
+            this.objective = objective;
+            this.outcomes = outcomes;
         }
-        // remove last &&
-        res.setLength(res.length() - 2);
-        return res.toString();
+
+        /**
+         * Serializes the captured progress, in the same form as {@link
+         * ObjectiveProgress#serialize()}.
+         *
+         * @return the serialized progress
+         */
+        public String serialize() {
+            StringBuilder res = new StringBuilder(objective).append("//");
+            for (OutcomeProgress.Snapshot progress : outcomes) {
+                res.append(progress.serialize()).append("&&");
+            }
+            // remove last &&
+            res.setLength(res.length() - 2);
+            return res.toString();
+        }
+    }
+
+    private static ProgressionTokenizer tokenize(String serialized) {
+        ProgressionTokenizer tokens = new ProgressionTokenizer(serialized, 0);
+        tokens.nextObjective();
+        return tokens;
     }
 }
@@ -6,10 +6,43 @@
 package com.volumetricpixels.questy.objective;
 
 import com.volumetricpixels.questy.QuestInstance;
+import com.volumetricpixels.questy.QuestManager;
 import com.volumetricpixels.questy.event.quest.ProgressUpdateEvent;
+import com.volumetricpixels.questy.util.Numbers;
+import com.volumetricpixels.questy.util.ProgressionTokenizer;
 import com.volumetricpixels.questy.util.Serialization;
 
+/**
+ * Stores progress towards a single {@link Outcome} of an {@link Objective}.
+ *
+ * Progress is normally a primitive counter - either a whole-number count, such
+ * as kills, or a fractional value, such as money - which is read and updated
+ * without boxing through {@link #getCount()}, {@link #increment()}, {@link
+ * #getValue()} and {@link #add(double)}. Those methods are intended to be
+ * called from a single thread; {@link #incrementAtomic(long)} and {@link
+ * #addAtomic(double)} may be used to update progress from other threads.
+ * Atomic updates only change the counter - the quest is marked as changed and
+ * {@link ProgressUpdateEvent} fired when they are {@link #publish()
+ * published} on the thread the {@link QuestManager} is used from, which is
+ * asked to do so through {@link QuestManager#progressPending(
+ * OutcomeProgress)}. Any other kind of progress may still be stored as an
+ * {@link Object} through {@link #setProgress(Object)}.
+ */
 public final class OutcomeProgress {
+    /**
+     * The legacy serialized value for progress which was never set.
+     */
+    private static final String LEGACY_UNSET = "NULL";
+    /**
+     * The marker which legacy progressions left on the value of the last
+     * outcome of the current objective.
+     */
+    private static final String LEGACY_CURRENT_MARKER = "<c>";
+
+    private static final int COUNT = 0;
+    private static final int VALUE = 1;
+    private static final int OBJECT = 2;
+
     /**
      * The {@link QuestInstance} this outcome is a part of.
      */
@@ -19,14 +52,28 @@ public final class OutcomeProgress {
      */
     private final Outcome outcome;
 
+    /**
+     * Which kind of progress is stored - {@link #COUNT}, {@link #VALUE} or
+     * {@link #OBJECT}.
+     */
+    private volatile int mode = COUNT;
+    /**
+     * The count, or the raw bits of the value, depending on {@link #mode}.
+     */
+    private volatile long bits;
     /**
      * An {@link Object} representing the actual progress towards the Outcome
-     * for it's {@link ObjectiveProgress}. Only immutable types should be used
-     * for this object, as the {@link ProgressUpdateEvent} system depends on
-     * {@link #setProgress(Object)} being called whenever the progress is
-     * updated.
+     * for it's {@link ObjectiveProgress}, when it isn't a number. Only
+     * immutable types should be used for this object, as the {@link
+     * ProgressUpdateEvent} system depends on {@link #setProgress(Object)}
+     * being called whenever the progress is updated.
      */
-    private Object progress = "NULL";
+    private volatile Object progress;
+    /**
+     * Whether there are atomic updates which haven't been published yet.
+     * Guarded by {@code this}.
+     */
+    private boolean pending;
 
     public OutcomeProgress(QuestInstance quest, Outcome outcome) {
         this.quest = quest;
@@ -36,32 +83,347 @@ public final class OutcomeProgress {
     public OutcomeProgress(QuestInstance quest, Objective objective,
             String serialized) {
         this.quest = quest;
-        String[] split = serialized.split("==");
-        this.outcome = objective.getOutcome(split[0]);
+        int nameEnd = serialized.indexOf("==");
+        if (nameEnd < 0) {
+            this.outcome = objective.getOutcome(serialized);
+        } else {
+            this.outcome = objective.getOutcome(
+                    serialized.substring(0, nameEnd));
+            readValue(serialized, nameEnd + 2, serialized.length());
+        }
+    }
 
-        setProgressSilent(Serialization.handleCommonTypes(split[1]));
+    /**
+     * Reads progress from the outcome the given {@link ProgressionTokenizer}
+     * is on.
+     *
+     * @param quest the {@link QuestInstance} the progress belongs to
+     * @param objective the {@link Objective} the outcome belongs to
+     * @param tokens the tokenizer, on the outcome to read
+     */
+    public OutcomeProgress(QuestInstance quest, Objective objective,
+            ProgressionTokenizer tokens) {
+        this.quest = quest;
+        this.outcome = objective.getOutcome(tokens.getOutcome());
+        if (tokens.hasValue()) {
+            readValue(tokens.getText(), tokens.getValueStart(),
+                    tokens.getValueEnd());
+        }
+    }
+
+    /**
+     * Creates progress towards the given {@link Outcome} which starts from the
+     * progress of {@code previous}, for when a quest is replaced by a new
+     * version of it. No update event is fired.
+     *
+     * @param quest the {@link QuestInstance} the progress belongs to
+     * @param outcome the {@link Outcome} to store progress for
+     * @param previous the progress to copy
+     */
+    public OutcomeProgress(QuestInstance quest, Outcome outcome,
+            OutcomeProgress previous) {
+        this.quest = quest;
+        this.outcome = outcome;
+        this.mode = previous.mode;
+        this.bits = previous.bits;
+        this.progress = previous.progress;
     }
 
     public Outcome getInfo() {
         return outcome;
     }
 
+    /**
+     * Gets the progress towards the {@link Outcome} as an {@link Object}. Whole
+     * number progress is returned as a {@link Long} and fractional progress as
+     * a {@link Double}; prefer {@link #getCount()} or {@link #getValue()} to
+     * avoid boxing.
+     *
+     * @return the progress towards the outcome
+     */
     public Object getProgress() {
-        return progress;
+        switch (mode) {
+            case COUNT:
+                return bits;
+            case VALUE:
+                return Double.longBitsToDouble(bits);
+            default:
+                return progress;
+        }
     }
 
+    /**
+     * Sets the progress towards the {@link Outcome}. Integral and floating
+     * point {@link Number}s are stored as a count or a value respectively.
+     *
+     * @param progress the new progress
+     */
     public void setProgress(Object progress) {
         setProgressSilent(progress);
+        fireUpdate();
+    }
+
+    /**
+     * Gets the whole-number progress towards the {@link Outcome}, or {@code 0}
+     * if the progress isn't a count.
+     *
+     * @return the current count
+     */
+    public long getCount() {
+        return mode == COUNT ? bits : 0;
+    }
+
+    /**
+     * Sets the whole-number progress towards the {@link Outcome}.
+     *
+     * @param count the new count
+     */
+    public void setCount(long count) {
+        store(COUNT, count);
+        fireUpdate();
+    }
+
+    /**
+     * Increments the count by one. Not safe for concurrent use - see {@link
+     * #incrementAtomic(long)}.
+     *
+     * @return the new count
+     */
+    public long increment() {
+        return increment(1);
+    }
+
+    /**
+     * Adds the given amount to the count. Not safe for concurrent use - see
+     * {@link #incrementAtomic(long)}.
+     *
+     * @param delta the amount to add
+     * @return the new count
+     */
+    public long increment(long delta) {
+        long count = getCount() + delta;
+        store(COUNT, count);
+        fireUpdate();
+        return count;
+    }
+
+    /**
+     * Atomically adds the given amount to the count, so that no increments
+     * are lost when several threads update the same progress. May be called
+     * from any thread, but shouldn't be mixed with the other setters while
+     * other threads are updating the progress. The update is published later
+     * - see {@link #publish()}.
+     *
+     * @param delta the amount to add
+     * @return the new count
+     */
+    public long incrementAtomic(long delta) {
+        long count;
+        boolean first;
+        synchronized (this) {
+            count = getCount() + delta;
+            store(COUNT, count);
+            first = !pending;
+            pending = true;
+        }
+        if (first) {
+            quest.getInfo().getQuestManager().progressPending(this);
+        }
+        return count;
+    }
+
+    /**
+     * Gets the fractional progress towards the {@link Outcome}. A count is
+     * returned as its value, and any other progress as {@code 0}.
+     *
+     * @return the current value
+     */
+    public double getValue() {
+        switch (mode) {
+            case COUNT:
+                return bits;
+            case VALUE:
+                return Double.longBitsToDouble(bits);
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Sets the fractional progress towards the {@link Outcome}.
+     *
+     * @param value the new value
+     */
+    public void setValue(double value) {
+        store(VALUE, Double.doubleToRawLongBits(value));
+        fireUpdate();
+    }
+
+    /**
+     * Adds the given amount to the value. Not safe for concurrent use - see
+     * {@link #addAtomic(double)}.
+     *
+     * @param delta the amount to add
+     * @return the new value
+     */
+    public double add(double delta) {
+        double value = getValue() + delta;
+        store(VALUE, Double.doubleToRawLongBits(value));
+        fireUpdate();
+        return value;
+    }
+
+    /**
+     * Atomically adds the given amount to the value, so that no additions are
+     * lost when several threads update the same progress. May be called from
+     * any thread, but shouldn't be mixed with the other setters while other
+     * threads are updating the progress. The update is published later - see
+     * {@link #publish()}.
+     *
+     * @param delta the amount to add
+     * @return the new value
+     */
+    public double addAtomic(double delta) {
+        double value;
+        boolean first;
+        synchronized (this) {
+            value = getValue() + delta;
+            store(VALUE, Double.doubleToRawLongBits(value));
+            first = !pending;
+            pending = true;
+        }
+        if (first) {
+            quest.getInfo().getQuestManager().progressPending(this);
+        }
+        return value;
+    }
+
+    /**
+     * Publishes any updates made through {@link #incrementAtomic(long)} or
+     * {@link #addAtomic(double)} since the last call, marking the quest as
+     * changed and firing a single {@link ProgressUpdateEvent} for them. Must
+     * be called from the thread the {@link QuestManager} is used from.
+     *
+     * @return whether there were updates to publish
+     */
+    public boolean publish() {
+        synchronized (this) {
+            if (!pending) {
+                return false;
+            }
+            pending = false;
+        }
+        fireUpdate();
+        return true;
+    }
+
+    /**
+     * Reads a serialized progress value from the given range of text,
+     * preferring a count, then a value, before falling back to {@link
+     * Serialization#handleCommonTypes(String)}. Numbers are recognised by
+     * {@link Numbers} rather than by trying to parse them, and counts are read
+     * without copying them out of the text.
+     */
+    private void readValue(String text, int from, int to) {
+        if (to - from >= LEGACY_CURRENT_MARKER.length() && text.startsWith(
+                LEGACY_CURRENT_MARKER, to - LEGACY_CURRENT_MARKER.length())) {
+            to -= LEGACY_CURRENT_MARKER.length();
+        }
+        if (from == to || (to - from == LEGACY_UNSET.length()
+                && text.startsWith(LEGACY_UNSET, from))) {
+            return;
+        }
+
+        switch (Numbers.classify(text, from, to)) {
+            case Numbers.INTEGER:
+                store(COUNT, Numbers.parseLong(text, from, to));
+                break;
+            case Numbers.DECIMAL:
+                store(VALUE, Double.doubleToRawLongBits(
+                        Double.parseDouble(text.substring(from, to))));
+                break;
+            default:
+                setProgressSilent(Serialization.handleCommonTypes(
+                        text.substring(from, to)));
+        }
+    }
+
+    private void setProgressSilent(Object progress) {
+        if (progress instanceof Long || progress instanceof Integer
+                || progress instanceof Short || progress instanceof Byte) {
+            store(COUNT, ((Number) progress).longValue());
+        } else if (progress instanceof Double || progress instanceof Float) {
+            store(VALUE, Double.doubleToRawLongBits(
+                    ((Number) progress).doubleValue()));
+        } else {
+            this.progress = progress;
+            this.mode = OBJECT;
+        }
+    }
 
+    private void store(int mode, long bits) {
+        this.bits = bits;
+        this.mode = mode;
+        this.progress = null;
+    }
+
+    private void fireUpdate() {
+        quest.changed();
         quest.getInfo().getQuestManager().getEventManager().fire(
                 new ProgressUpdateEvent(quest, this));
     }
 
-    private void setProgressSilent(Object progress) {
-        this.progress = progress;
+    /**
+     * Captures the current progress without formatting it, so that it can be
+     * serialized later on another thread. Should be called from the thread
+     * which updates this progress.
+     *
+     * @return an immutable copy of the current progress
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(outcome.getName(), mode, bits, progress);
     }
 
     public String serialize() {
-        return outcome.getName() + "==" + progress.toString();
+        return snapshot().serialize();
+    }
+
+    /**
+     * An immutable copy of an {@link OutcomeProgress} at one point in time.
+     */
+    public static final class Snapshot {
+        private final String outcome;
+        private final int mode;
+        private final long bits;
+        private final Object progress;
+
+        private Snapshot(String outcome, int mode, long bits,
+                Object progress) {
+            this.outcome = outcome;
+            this.mode = mode;
+            this.bits = bits;
+            this.progress = progress;
+        }
+
+        /**
+         * Serializes the captured progress, in the same form as {@link
+         * OutcomeProgress#serialize()}.
+         *
+         * @return the serialized progress
+         */
+        public String serialize() {
+            String value;
+            switch (mode) {
+                case COUNT:
+                    value = Long.toString(bits);
+                    break;
+                case VALUE:
+                    value = Double.toString(Double.longBitsToDouble(bits));
+                    break;
+                default:
+                    value = String.valueOf(progress);
+            }
+            return outcome + "==" + value;
+        }
     }
 }
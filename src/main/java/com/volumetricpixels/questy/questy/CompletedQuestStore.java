@@ -0,0 +1,243 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.volumetricpixels.questy.questy;
+
+import com.volumetricpixels.questy.Quest;
+import com.volumetricpixels.questy.QuestInstance;
+import com.volumetricpixels.questy.QuesterId;
+import com.volumetricpixels.questy.objective.OutcomeProgress;
+import com.volumetricpixels.questy.util.ProgressionTokenizer;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact store of completed {@link Quest}s. Each quest name is assigned a
+ * dense integer id and each quester has a {@link BitSet} of the ids of the
+ * quests they have completed, so completion checks are a single bit test.
+ *
+ * Rather than holding completed {@link QuestInstance}s, only a summary of
+ * each completion is kept: the progress of the final objective towards the
+ * outcome which completed it, as {@code objective//outcome==value}. Progress
+ * towards earlier objectives isn't needed once a quest is complete, so it is
+ * dropped. Summaries are shared between questers which completed a quest the
+ * same way, and an instance can be rebuilt from one on demand. This class is
+ * not threadsafe.
+ */
+public final class CompletedQuestStore {
+    /**
+     * A {@link Map} of quest names to their dense ids.
+     */
+    private final Map<String, Integer> ids = new HashMap<>();
+    /**
+     * Quest names, indexed by their dense ids.
+     */
+    private final List<String> names = new ArrayList<>();
+    /**
+     * A {@link Map} of questers to the ids of the quests they have completed.
+     */
+    private final Map<QuesterId, BitSet> completions = new HashMap<>();
+    /**
+     * A {@link Map} of questers to quest ids to the summary of their
+     * completion of the quest.
+     */
+    private final Map<QuesterId, Map<Integer, String>> summaries =
+            new HashMap<>();
+    /**
+     * Canonical instances of the summaries in {@link #summaries}.
+     */
+    private final Map<String, String> shared = new HashMap<>();
+
+    /**
+     * Gets the dense id of the quest with the given name, assigning the next
+     * free id if the quest has not been seen before. Ids are never reused, so
+     * a quest which is removed and reloaded keeps its id.
+     *
+     * @param questName the name of the quest to get the id of
+     * @return the id of the quest with the given name
+     */
+    public int id(String questName) {
+        Integer id = ids.get(questName);
+        if (id == null) {
+            id = ids.size();
+            ids.put(questName, id);
+            names.add(questName);
+        }
+        return id;
+    }
+
+    /**
+     * Checks whether the given {@code quester} has completed the quest with
+     * the given name.
+     *
+     * @param quester the quester to check
+     * @param questName the name of the quest to check
+     * @return whether the quester has completed the quest
+     */
+    public boolean hasCompleted(QuesterId quester, String questName) {
+        Integer id = ids.get(questName);
+        if (id == null) {
+            return false;
+        }
+        BitSet bits = completions.get(quester);
+        return bits != null && bits.get(id);
+    }
+
+    /**
+     * Records the completion of the given {@link QuestInstance} through the
+     * given outcome of its current objective.
+     *
+     * @param instance the completed instance
+     * @param outcome the progress towards the outcome which completed it
+     * @return {@code false} if the quester had already completed the quest
+     */
+    public boolean add(QuestInstance instance, OutcomeProgress outcome) {
+        return put(instance.getQuesterId(), instance.getInfo().getName(),
+                instance.getCurrentObjective().getInfo().getName() + "//"
+                        + outcome.serialize());
+    }
+
+    /**
+     * Records the completion of the quest with the given name by the given
+     * {@code quester}, from serialized progression as given by {@link
+     * #getSummary(QuesterId, String)}. Progression which was stored in full
+     * is cut down to its current objective.
+     *
+     * @param quester the quester who completed the quest
+     * @param questName the name of the completed quest
+     * @param progression the serialized progression of the completed quest
+     * @return {@code false} if the quester had already completed the quest
+     */
+    public boolean add(QuesterId quester, String questName,
+            String progression) {
+        return put(quester, questName, summarize(questName, progression));
+    }
+
+    private boolean put(QuesterId quester, String questName, String summary) {
+        int id = id(questName);
+        BitSet bits = completions.get(quester);
+        if (bits == null) {
+            bits = new BitSet(ids.size());
+            completions.put(quester, bits);
+        } else if (bits.get(id)) {
+            return false;
+        }
+        bits.set(id);
+
+        Map<Integer, String> quests = summaries.get(quester);
+        if (quests == null) {
+            quests = new HashMap<>();
+            summaries.put(quester, quests);
+        }
+        String canonical = shared.putIfAbsent(summary, summary);
+        quests.put(id, canonical == null ? summary : canonical);
+        return true;
+    }
+
+    /**
+     * Gets the summary of the given quester's completion of the quest with
+     * the given name, as serialized progression which only has the final
+     * objective.
+     *
+     * @param quester the quester to get the summary for
+     * @param questName the name of the completed quest
+     * @return the serialized progression, or {@code null} if the quester
+     *         hasn't completed the quest
+     */
+    public String getSummary(QuesterId quester, String questName) {
+        Integer id = ids.get(questName);
+        Map<Integer, String> quests = summaries.get(quester);
+        if (id == null || quests == null) {
+            return null;
+        }
+        String summary = quests.get(id);
+        return summary == null ? null : serialize(questName, summary);
+    }
+
+    /**
+     * Removes every completion of the given quester from this store.
+     *
+     * @param quester the quester to remove
+     */
+    public void remove(QuesterId quester) {
+        completions.remove(quester);
+        summaries.remove(quester);
+    }
+
+    /**
+     * Loads the given serialized data, as produced by {@link #serialize()}.
+     *
+     * @param data a {@link Map} of questers to quest names to serialized
+     *        progression
+     */
+    public void deserialize(Map<String, Map<String, String>> data) {
+        for (Map.Entry<String, Map<String, String>> quester : data
+                .entrySet()) {
+            for (Map.Entry<String, String> quest : quester.getValue()
+                    .entrySet()) {
+                add(QuesterId.of(quester.getKey()), quest.getKey(),
+                        quest.getValue());
+            }
+        }
+    }
+
+    /**
+     * Serializes the completions of the given quester into a {@link Map} of
+     * quest names to serialized progression.
+     *
+     * @param quester the quester to serialize completions of
+     * @return the quester's completions, which may be empty
+     */
+    public Map<String, String> serialize(QuesterId quester) {
+        Map<String, String> result = new HashMap<>();
+        Map<Integer, String> quests = summaries.get(quester);
+        if (quests != null) {
+            for (Map.Entry<Integer, String> quest : quests.entrySet()) {
+                String name = names.get(quest.getKey());
+                result.put(name, serialize(name, quest.getValue()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Serializes all stored completions into a {@link Map} of questers to quest
+     * names to serialized progression.
+     *
+     * @return all stored completions
+     */
+    public Map<String, Map<String, String>> serialize() {
+        Map<String, Map<String, String>> result = new HashMap<>();
+        for (QuesterId quester : summaries.keySet()) {
+            result.put(quester.getName(), serialize(quester));
+        }
+        return result;
+    }
+
+    private static String serialize(String questName, String summary) {
+        return questName + "_" + summary
+                + ProgressionTokenizer.CURRENT_MARKER;
+    }
+
+    /**
+     * Cuts serialized progression down to its current objective.
+     */
+    private static String summarize(String questName, String progression) {
+        int start = progression.startsWith(questName + "_")
+                ? questName.length() + 1 : 0;
+        int end = progression.indexOf(ProgressionTokenizer.CURRENT_MARKER,
+                start);
+        if (end < 0) {
+            // no current objective, so keep what there is
+            return progression.substring(start);
+        }
+        return progression.substring(
+                Math.max(start, progression.lastIndexOf('%', end) + 1), end);
+    }
+}
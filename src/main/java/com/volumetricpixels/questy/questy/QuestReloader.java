@@ -0,0 +1,175 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.volumetricpixels.questy.questy;
+
+import com.volumetricpixels.questy.Quest;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Watches a quest directory and reloads quest files which are created or
+ * modified, so that quests can be changed without restarting.
+ *
+ * Files are parsed on a background thread through {@link
+ * SimpleQuestManager#parseQuests(java.util.Collection)}, then the quests are
+ * swapped in through {@link SimpleQuestManager#reloadQuests(
+ * SimpleQuestManager.ParsedQuests, Predicate)} by the given {@link Executor},
+ * which should run tasks on the thread the manager is used from. Bursts of
+ * changes, such as an editor saving a file in several steps, are collected
+ * until there have been none for the given delay. Deleted files are ignored,
+ * as quests which are in progress can't be unloaded. A batch of changes which
+ * fails to reload is reported and skipped, and later changes still reload.
+ */
+public class QuestReloader implements Closeable {
+    /**
+     * The default time, in milliseconds, to wait for changes to stop before
+     * reloading.
+     */
+    public static final long DEFAULT_DELAY = 500;
+
+    private final SimpleQuestManager questManager;
+    private final File directory;
+    private final Executor executor;
+    private final long delay;
+    private final Predicate<Quest> filter;
+    private final WatchService watcher;
+    private final Thread thread;
+
+    /**
+     * Creates a {@link QuestReloader} for the given directory. Nothing is
+     * reloaded until {@link #start()} is called.
+     *
+     * @param questManager the manager to reload quests into
+     * @param directory the directory quests are loaded from
+     * @param executor runs tasks on the thread the manager is used from
+     * @param delay the time, in milliseconds, to wait for changes to stop
+     * @param filter tests each reloaded quest before it is swapped in
+     * @throws IOException if the directory can't be watched
+     */
+    public QuestReloader(SimpleQuestManager questManager, File directory,
+            Executor executor, long delay, Predicate<Quest> filter)
+            throws IOException {
+        this.questManager = questManager;
+        this.directory = directory.getAbsoluteFile();
+        this.executor = executor;
+        this.delay = delay;
+        this.filter = filter;
+
+        watcher = FileSystems.getDefault().newWatchService();
+        this.directory.toPath().register(watcher,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        thread = new Thread(this::run, "Questy-Reloader");
+        thread.setDaemon(true);
+        // scripts look classes up through the context class loader
+        thread.setContextClassLoader(
+                Thread.currentThread().getContextClassLoader());
+    }
+
+    /**
+     * Starts watching for changes.
+     */
+    public void start() {
+        thread.start();
+    }
+
+    /**
+     * Stops watching for changes. Changes which are being reloaded may still
+     * be swapped in if the executor runs them.
+     */
+    @Override
+    public void close() {
+        thread.interrupt();
+        try {
+            watcher.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Set<File> changed = new LinkedHashSet<>();
+                collect(watcher.take(), changed);
+                // wait for the burst of changes to end
+                WatchKey key;
+                while ((key = watcher.poll(delay, TimeUnit.MILLISECONDS))
+                        != null) {
+                    collect(key, changed);
+                }
+                try {
+                    reload(changed);
+                } catch (RuntimeException e) {
+                    // keep watching, so fixing the file reloads it
+                    e.printStackTrace();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed
+        }
+    }
+
+    private void collect(WatchKey key, Set<File> changed) {
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // changes were missed, so reload everything
+                File[] files = directory.listFiles();
+                if (files != null) {
+                    changed.addAll(Arrays.asList(files));
+                }
+            } else {
+                changed.add(new File(directory,
+                        ((Path) event.context()).toString()));
+            }
+        }
+        key.reset();
+    }
+
+    /**
+     * Parses the given files on this thread, then swaps the quests in on the
+     * executor, waiting for it so that reloads don't overlap.
+     */
+    private void reload(Set<File> changed) throws InterruptedException {
+        // files may have been deleted again since they changed
+        changed.removeIf(file -> !file.isFile());
+        if (changed.isEmpty()) {
+            return;
+        }
+
+        SimpleQuestManager.ParsedQuests parsed = questManager.parseQuests(
+                changed);
+        if (parsed.isEmpty()) {
+            return;
+        }
+        FutureTask<List<Quest>> task = new FutureTask<>(
+                () -> questManager.reloadQuests(parsed, filter));
+        executor.execute(task);
+        try {
+            task.get();
+        } catch (ExecutionException e) {
+            e.getCause().printStackTrace();
+        }
+    }
+}
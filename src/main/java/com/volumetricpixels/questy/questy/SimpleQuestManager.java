@@ -8,9 +8,11 @@ package com.volumetricpixels.questy.questy;
 import com.volumetricpixels.questy.Quest;
 import com.volumetricpixels.questy.QuestInstance;
 import com.volumetricpixels.questy.QuestManager;
+import com.volumetricpixels.questy.QuesterId;
 import com.volumetricpixels.questy.event.EventManager;
 import com.volumetricpixels.questy.event.quest.QuestAbandonEvent;
 import com.volumetricpixels.questy.event.quest.QuestCompleteEvent;
+import com.volumetricpixels.questy.event.quest.QuestMigrateEvent;
 import com.volumetricpixels.questy.event.quest.QuestStartEvent;
 import com.volumetricpixels.questy.event.quest.objective.ObjectiveStartEvent;
 import com.volumetricpixels.questy.loading.QuestBuilder;
@@ -18,14 +20,30 @@ import com.volumetricpixels.questy.loading.QuestLoader;
 import com.volumetricpixels.questy.objective.OutcomeProgress;
 import com.volumetricpixels.questy.questy.event.SimpleEventManager;
 import com.volumetricpixels.questy.storage.ProgressStore;
+import com.volumetricpixels.questy.storage.ProgressionSnapshot;
 
 import java.io.File;
+import java.util.AbstractSet;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
 
 /**
  * A simple {@link QuestManager} implementation which is not threadsafe.
@@ -40,7 +58,8 @@ public class SimpleQuestManager implements QuestManager {
      */
     private final EventManager eventManager;
     /**
-     * All current {@link QuestLoader}s in use.
+     * All current {@link QuestLoader}s in use. Copy-on-write, as quest files
+     * may be parsed on another thread by {@link #parseQuests(Collection)}.
      */
     private final Set<QuestLoader> loaders;
     /**
@@ -48,17 +67,58 @@ public class SimpleQuestManager implements QuestManager {
      */
     private final Map<String, Quest> loaded;
     /**
-     * All current {@link QuestInstance}s.
+     * All current {@link QuestInstance}s, indexed by quester and then by quest
+     * name.
      */
-    private final Set<QuestInstance> current;
+    private final Map<QuesterId, Map<String, QuestInstance>> current;
     /**
-     * All completed {@link QuestInstance}s.
+     * Compact records of all completed {@link Quest}s.
      */
-    private final Set<QuestInstance> completed;
+    private final CompletedQuestStore completed;
     /**
-     * The {@link QuestLoadHelper} helper used for {@link QuestBuilder} caching.
+     * All current {@link QuestInstance}s, indexed by quest name. A quest's set
+     * is removed once it is empty, so {@link #getInstances(Quest)} hands out
+     * views which look the set up again on each access.
+     */
+    private final Map<String, Set<QuestInstance>> byQuest;
+    /**
+     * Questers whose in progress quests have changed since the last save.
+     */
+    private final Set<QuesterId> changedCurrent;
+    /**
+     * Questers who have completed quests since the last save.
+     */
+    private final Set<QuesterId> changedCompleted;
+    /**
+     * Questers whose progression has been loaded individually, when the
+     * {@link ProgressStore} {@link ProgressStore#isPerQuester() is per
+     * quester}.
+     */
+    private final Set<QuesterId> loadedQuesters;
+    /**
+     * The latest captured progression of questers which hasn't been saved yet,
+     * when the {@link ProgressStore} is per quester. Entries are removed from
+     * the saving thread once they have been saved, and are used instead of the
+     * store if the quester is loaded before then.
+     */
+    private final Map<QuesterId, Unsaved> unsaved;
+    /**
+     * Progress updated atomically from other threads, which is waiting to be
+     * published by {@link #publishPendingProgress()}.
+     */
+    private final Queue<OutcomeProgress> pending =
+            new ConcurrentLinkedQueue<>();
+    /**
+     * The {@link QuestLoadHelper} helper used for {@link QuestBuilder} caching
+     * outside of load sessions.
      */
     private final QuestLoadHelper questLoadHelper = new QuestLoadHelper();
+    /**
+     * The {@link QuestLoadHelper} of the load session each thread is taking
+     * part in, if any. Quests given to {@link #addQuest(Quest)} during a
+     * session are deferred to it rather than registered.
+     */
+    private final ThreadLocal<QuestLoadHelper> session = new ThreadLocal<>();
 
     /**
      * Constructs a blank {@link SimpleQuestManager} with no registered {@link
@@ -91,10 +151,15 @@ public class SimpleQuestManager implements QuestManager {
     public SimpleQuestManager(ProgressStore store, EventManager eventManager) {
         this.store = store;
         this.eventManager = eventManager;
-        this.loaders = new HashSet<>();
+        this.loaders = new CopyOnWriteArraySet<>();
         this.loaded = new HashMap<>();
-        this.current = new HashSet<>();
-        this.completed = new HashSet<>();
+        this.current = new HashMap<>();
+        this.completed = new CompletedQuestStore();
+        this.byQuest = new HashMap<>();
+        this.changedCurrent = new HashSet<>();
+        this.changedCompleted = new HashSet<>();
+        this.loadedQuesters = new HashSet<>();
+        this.unsaved = new ConcurrentHashMap<>();
     }
 
     @Override
@@ -114,7 +179,8 @@ public class SimpleQuestManager implements QuestManager {
 
     @Override
     public QuestLoadHelper getQuestLoadHelper() {
-        return questLoadHelper;
+        QuestLoadHelper helper = session.get();
+        return helper == null ? questLoadHelper : helper;
     }
 
     @Override
@@ -123,46 +189,43 @@ public class SimpleQuestManager implements QuestManager {
     }
 
     @Override
-    public QuestInstance getQuestInstance(Quest quest, String quester) {
-        for (QuestInstance inst : current) {
-            if (inst.getInfo().equals(quest) && inst.getQuester()
-                    .equals(quester)) {
-                return inst;
-            }
-        }
-        return null;
+    public QuestInstance getQuestInstance(Quest quest, QuesterId quester) {
+        return lookup(current, quest, quester);
     }
 
     @Override
-    public QuestInstance getCompletedQuest(Quest quest, String quester) {
-        for (QuestInstance inst : completed) {
-            if (inst.getInfo().equals(quest) && inst.getQuester().equals(
-                    quester)) {
-                return inst;
-            }
+    public QuestInstance getCompletedQuest(Quest quest, QuesterId quester) {
+        if (quest == null) {
+            return null;
         }
-        return null;
+        // completed instances aren't kept around, so rebuild from the summary
+        String summary = completed.getSummary(quester, quest.getName());
+        return summary == null ? null : new QuestInstance(quest, quester,
+                summary);
     }
 
     @Override
-    public boolean hasCompleted(Quest quest, String quester) {
-        return getCompletedQuest(quest, quester) != null;
+    public boolean hasCompleted(Quest quest, QuesterId quester) {
+        return quest != null && completed.hasCompleted(quester,
+                quest.getName());
     }
 
     @Override
-    public Collection<QuestInstance> getQuestInstances(String quester) {
-        Set<QuestInstance> result = new HashSet<>();
-        for (QuestInstance instance : this.current) {
-            if (instance.getQuester().equals(quester)) {
-                result.add(instance);
-            }
+    public Collection<QuestInstance> getQuestInstances(QuesterId quester) {
+        Map<String, QuestInstance> instances = current.get(quester);
+        if (instances == null) {
+            return new HashSet<>();
         }
-        return result;
+        // copied as callers commonly complete / abandon while iterating
+        return new HashSet<>(instances.values());
     }
 
     @Override
     public Collection<QuestInstance> getInstances(Quest quest) {
-        return null;
+        if (quest == null) {
+            return Collections.emptySet();
+        }
+        return new InstanceView(quest.getName());
     }
 
     @Override
@@ -171,7 +234,195 @@ public class SimpleQuestManager implements QuestManager {
             return;
         }
 
-        loaders.forEach((ql) -> loaded.putAll(ql.loadQuests(directory)));
+        // builders are dropped along with the session once it's finished
+        QuestLoadHelper helper = questLoadHelper.newSession();
+        session.set(helper);
+        try {
+            List<Callable<QuestBuilder>> tasks = new ArrayList<>();
+            for (QuestLoader loader : loaders) {
+                List<File> files = loader.getQuestFiles(directory);
+                if (files == null) {
+                    // can't be parsed in parallel, so load it all now
+                    Map<String, Quest> quests = loader.loadQuests(directory);
+                    if (quests != null) {
+                        quests.values().forEach(this::register);
+                    }
+                    continue;
+                }
+                for (File file : files) {
+                    tasks.add(() -> loader.parseQuest(file));
+                }
+            }
+
+            List<QuestBuilder> builders = tasks.isEmpty() ?
+                    new ArrayList<>() : parse(tasks, helper);
+            for (QuestBuilder builder : builders) {
+                register(builder.build());
+            }
+        } finally {
+            session.remove();
+            helper.clear();
+        }
+        // quests which loaders built but didn't hand back
+        Quest quest;
+        while ((quest = helper.pollDeferred()) != null) {
+            if (!loaded.containsKey(quest.getName())) {
+                register(quest);
+            }
+        }
+    }
+
+    /**
+     * Reads and parses quest files on a {@link ForkJoinPool}, waiting for all
+     * of them to finish. The workers take part in the given load session, so
+     * quests which loaders build while parsing are deferred to it rather than
+     * registered.
+     *
+     * @return the parsed builders, in the same order as the given tasks
+     */
+    private List<QuestBuilder> parse(List<Callable<QuestBuilder>> tasks,
+            QuestLoadHelper helper) {
+        // scripts look classes up through the context class loader, so give
+        // the workers the same one as this thread
+        ClassLoader context = Thread.currentThread().getContextClassLoader();
+        ForkJoinPool pool = new ForkJoinPool(Math.min(tasks.size(),
+                Runtime.getRuntime().availableProcessors()), forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool
+                    .defaultForkJoinWorkerThreadFactory.newThread(
+                            forkJoinPool);
+            thread.setName("Questy-Loader-" + thread.getPoolIndex());
+            thread.setContextClassLoader(context);
+            return thread;
+        }, null, false);
+
+        List<Callable<QuestBuilder>> inSession = new ArrayList<>(
+                tasks.size());
+        for (Callable<QuestBuilder> task : tasks) {
+            inSession.add(() -> {
+                session.set(helper);
+                try {
+                    return task.call();
+                } finally {
+                    session.remove();
+                }
+            });
+        }
+
+        List<QuestBuilder> result = new ArrayList<>(tasks.size());
+        try {
+            for (Future<QuestBuilder> future : pool.invokeAll(inSession)) {
+                try {
+                    QuestBuilder builder = future.get();
+                    if (builder != null) {
+                        result.add(builder);
+                    }
+                } catch (ExecutionException e) {
+                    e.getCause().printStackTrace();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pool.shutdown();
+        }
+        return result;
+    }
+
+    /**
+     * Reads and parses the given quest files so that they can be reloaded
+     * with {@link #reloadQuests(ParsedQuests, Predicate)}. Each file is parsed
+     * by the loader which lists it in {@link QuestLoader#getQuestFiles(File)},
+     * and files which no loader lists are skipped. Unlike the rest of this
+     * class, this may be called from any thread, so files can be parsed in the
+     * background while quests are being played. Each call parses in a load
+     * session of its own, so it doesn't interfere with other loads.
+     *
+     * @param files the quest files to parse
+     * @return the parsed quests
+     */
+    public ParsedQuests parseQuests(Collection<File> files) {
+        QuestLoadHelper helper = questLoadHelper.newSession();
+        List<Callable<QuestBuilder>> tasks = new ArrayList<>();
+        for (QuestLoader loader : loaders) {
+            Map<File, List<File>> listed = new HashMap<>();
+            for (File file : files) {
+                File absolute = file.getAbsoluteFile();
+                List<File> loadable = listed.computeIfAbsent(
+                        absolute.getParentFile(), loader::getQuestFiles);
+                if (loadable != null && loadable.contains(absolute)) {
+                    tasks.add(() -> loader.parseQuest(absolute));
+                }
+            }
+        }
+        return new ParsedQuests(helper, tasks.isEmpty() ? new ArrayList<>() :
+                parse(tasks, helper));
+    }
+
+    /**
+     * Builds quests parsed by {@link #parseQuests(Collection)} and swaps each
+     * of them in for the loaded quest with the same name, if there is one.
+     * Current instances of a replaced quest are migrated to the new version by
+     * objective and outcome name, and a {@link QuestMigrateEvent} is fired for
+     * each of them.
+     *
+     * @param parsed the parsed quests
+     * @param filter tests each built quest before it is swapped in, so that
+     *        invalid quests can be rejected and the old version kept
+     * @return the quests which were swapped in
+     */
+    public List<Quest> reloadQuests(ParsedQuests parsed,
+            Predicate<Quest> filter) {
+        // build without registering, so that each quest can be checked first
+        Set<Quest> built = new LinkedHashSet<>();
+        session.set(parsed.helper);
+        try {
+            for (QuestBuilder builder : parsed.builders) {
+                built.add(builder.build());
+            }
+        } finally {
+            session.remove();
+            parsed.helper.clear();
+        }
+        // including quests which loaders built but didn't hand back
+        Quest quest;
+        while ((quest = parsed.helper.pollDeferred()) != null) {
+            built.add(quest);
+        }
+
+        List<Quest> result = new ArrayList<>();
+        for (Quest reloaded : built) {
+            if (filter.test(reloaded)) {
+                replaceQuest(reloaded);
+                result.add(reloaded);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Registers the given {@link Quest}, migrating current instances of the
+     * quest it replaces.
+     */
+    private void replaceQuest(Quest quest) {
+        String name = quest.getName();
+        Quest previous = loaded.get(name);
+        register(quest);
+        if (previous == null || previous == quest) {
+            return;
+        }
+
+        Set<QuestInstance> instances = byQuest.get(name);
+        if (instances == null) {
+            return;
+        }
+        for (QuestInstance instance : new ArrayList<>(instances)) {
+            QuestInstance migrated = new QuestInstance(quest, instance);
+            current.get(instance.getQuesterId()).put(name, migrated);
+            instances.remove(instance);
+            instances.add(migrated);
+            migrated.changed();
+            eventManager.fire(new QuestMigrateEvent(migrated, instance));
+        }
     }
 
     @Override
@@ -179,9 +430,17 @@ public class SimpleQuestManager implements QuestManager {
         if (store == null) {
             throw new NullPointerException("store mustn't be null");
         }
+        if (store.isPerQuester()) {
+            // questers are loaded as they're needed
+            return;
+        }
 
         deserialize(store.loadCurrentQuestData(), current);
-        deserialize(store.loadCompletedQuestData(), completed);
+        current.values().forEach(
+                instances -> instances.values().forEach(this::addInstance));
+        completed.deserialize(store.loadCompletedQuestData());
+        changedCurrent.clear();
+        changedCompleted.clear();
     }
 
     @Override
@@ -189,15 +448,181 @@ public class SimpleQuestManager implements QuestManager {
         if (store == null) {
             throw new NullPointerException("store mustn't be null");
         }
+        if (store.isPerQuester()) {
+            // only some questers are held, so save each of them rather than
+            // replacing everything stored with them
+            changedCurrent.addAll(loadedQuesters);
+            changedCurrent.addAll(unsaved.keySet());
+            changedCompleted.addAll(changedCurrent);
+            captureChangedProgression().save();
+            return;
+        }
 
         store.saveCurrentQuestData(serialize(current));
-        store.saveCompletedQuestData(serialize(completed));
+        store.saveCompletedQuestData(completed.serialize());
+        changedCurrent.clear();
+        changedCompleted.clear();
     }
 
+    @Override
+    public ProgressionSnapshot captureChangedProgression() {
+        if (store == null) {
+            throw new NullPointerException("store mustn't be null");
+        }
+        publishPendingProgress();
+
+        boolean perQuester = store.isPerQuester();
+        if (perQuester) {
+            // each quester is stored as a whole
+            changedCurrent.addAll(changedCompleted);
+            changedCompleted.addAll(changedCurrent);
+        }
+
+        Map<String, List<QuestInstance.Snapshot>> changedCurrentData =
+                new HashMap<>();
+        Map<String, Map<String, String>> changedCompletedData = new HashMap<>();
+        Map<QuesterId, Unsaved> saving = new HashMap<>();
+        for (QuesterId quester : changedCurrent) {
+            if (isHeld(quester)) {
+                changedCurrentData.put(quester.getName(),
+                        snapshot(current.get(quester)));
+            } else if (unsaved.containsKey(quester)) {
+                // unloaded since it was changed
+                changedCurrentData.put(quester.getName(),
+                        unsaved.get(quester).current);
+            }
+        }
+        for (QuesterId quester : changedCompleted) {
+            if (isHeld(quester)) {
+                changedCompletedData.put(quester.getName(),
+                        completed.serialize(quester));
+            } else if (unsaved.containsKey(quester)) {
+                changedCompletedData.put(quester.getName(),
+                        unsaved.get(quester).completed);
+            }
+        }
+        if (perQuester) {
+            // remember what is being saved until it has been, in case the
+            // quester is loaded again before then
+            for (QuesterId quester : changedCurrent) {
+                String name = quester.getName();
+                if (changedCurrentData.containsKey(name)) {
+                    Unsaved data = new Unsaved(changedCurrentData.get(name),
+                            changedCompletedData.get(name));
+                    unsaved.put(quester, data);
+                    saving.put(quester, data);
+                }
+            }
+        }
+        changedCurrent.clear();
+        changedCompleted.clear();
+
+        return new ProgressionSnapshot(store, changedCurrentData,
+                changedCompletedData, saving.isEmpty() ? null : () -> saving
+                .forEach(unsaved::remove));
+    }
+
+    @Override
+    public boolean loadProgression(QuesterId quester) {
+        if (store == null || !store.isPerQuester()
+                || !loadedQuesters.add(quester)) {
+            return false;
+        }
+
+        Unsaved data = unsaved.get(quester);
+        Map<String, String> serialized;
+        Map<String, String> completions;
+        if (data != null) {
+            // not saved yet, so the store may be out of date
+            serialized = new HashMap<>();
+            data.current.forEach(instance -> serialized.put(
+                    instance.getQuestName(), instance.serialize()));
+            completions = data.completed;
+        } else {
+            try {
+                serialized = store.loadCurrentQuestData(quester.getName());
+                completions = store.loadCompletedQuestData(
+                        quester.getName());
+            } catch (RuntimeException e) {
+                // left unloaded, so nothing is saved over what's stored
+                loadedQuesters.remove(quester);
+                throw e;
+            }
+        }
+
+        for (Map.Entry<String, String> serial : serialized.entrySet()) {
+            QuestInstance instance = read(quester, serial.getKey(),
+                    serial.getValue());
+            if (index(current, instance)) {
+                addInstance(instance);
+            }
+        }
+        for (Map.Entry<String, String> completion : completions.entrySet()) {
+            completed.add(quester, completion.getKey(), completion.getValue());
+        }
+        return true;
+    }
+
+    @Override
+    public boolean unloadProgression(QuesterId quester) {
+        if (store == null || !loadedQuesters.remove(quester)) {
+            return false;
+        }
+
+        Map<String, QuestInstance> instances = current.remove(quester);
+        if (changedCurrent.contains(quester)
+                || changedCompleted.contains(quester)) {
+            // keep what needs saving until it has been
+            unsaved.put(quester, new Unsaved(snapshot(instances),
+                    completed.serialize(quester)));
+            changedCurrent.add(quester);
+            changedCompleted.add(quester);
+        }
+        if (instances != null) {
+            for (QuestInstance instance : instances.values()) {
+                removeInstance(instance);
+            }
+        }
+        completed.remove(quester);
+        return true;
+    }
+
+    @Override
+    public void progressChanged(QuestInstance instance) {
+        changedCurrent.add(instance.getQuesterId());
+    }
+
+    @Override
+    public void progressPending(OutcomeProgress progress) {
+        pending.add(progress);
+    }
+
+    @Override
+    public void publishPendingProgress() {
+        OutcomeProgress progress;
+        while ((progress = pending.poll()) != null) {
+            progress.publish();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * When the {@link ProgressStore} is per quester, this fails for questers
+     * whose progression hasn't been loaded through {@link
+     * #loadProgression(QuesterId)}, as their existing progression would be
+     * overwritten when saved. Callers starting quests for questers who may be
+     * offline should load them first, and unload them again afterwards.
+     */
     @Override
     public boolean startQuest(QuestInstance instance) {
-        boolean val = current.add(instance);
+        if (store != null && !isHeld(instance.getQuesterId())) {
+            return false;
+        }
+        boolean val = index(current, instance);
         if (val) {
+            addInstance(instance);
+            changedCurrent.add(instance.getQuesterId());
             QuestStartEvent event = eventManager.fire(
                     new QuestStartEvent(instance));
             eventManager.fire(new ObjectiveStartEvent(instance,
@@ -208,15 +633,27 @@ public class SimpleQuestManager implements QuestManager {
 
     @Override
     public boolean abandonQuest(QuestInstance instance) {
-        return !eventManager.fire(new QuestAbandonEvent(instance)).isCancelled()
-                && current.remove(instance);
+        if (!eventManager.fire(new QuestAbandonEvent(instance)).isCancelled()
+                && unindex(current, instance)) {
+            removeInstance(instance);
+            changedCurrent.add(instance.getQuesterId());
+            return true;
+        }
+        return false;
     }
 
     @Override
     public boolean completeQuest(QuestInstance instance,
             OutcomeProgress outcome) {
-        boolean val = current.remove(instance) && completed.add(instance);
+        if (!unindex(current, instance)) {
+            return false;
+        }
+        removeInstance(instance);
+        changedCurrent.add(instance.getQuesterId());
+
+        boolean val = completed.add(instance, outcome);
         if (val) {
+            changedCompleted.add(instance.getQuesterId());
             eventManager.fire(new QuestCompleteEvent(instance, outcome));
         }
         return val;
@@ -224,7 +661,13 @@ public class SimpleQuestManager implements QuestManager {
 
     @Override
     public boolean addQuest(Quest quest) {
-        loaded.put(quest.getName(), quest);
+        QuestLoadHelper helper = session.get();
+        if (helper != null) {
+            // built during a load, so register it once the load has finished
+            helper.defer(quest);
+            return true;
+        }
+        register(quest);
         return true; // this implementation simply overwrites quests which are already present so always true
     }
 
@@ -246,29 +689,207 @@ public class SimpleQuestManager implements QuestManager {
     // internal
     // these methods should probably be cleaned up at some point
 
+    private void register(Quest quest) {
+        loaded.put(quest.getName(), quest);
+        completed.id(quest.getName());
+    }
+
+    private void addInstance(QuestInstance instance) {
+        byQuest.computeIfAbsent(instance.getInfo().getName(),
+                name -> new HashSet<>()).add(instance);
+    }
+
+    private void removeInstance(QuestInstance instance) {
+        String name = instance.getInfo().getName();
+        Set<QuestInstance> instances = byQuest.get(name);
+        if (instances != null && instances.remove(instance)
+                && instances.isEmpty()) {
+            byQuest.remove(name);
+        }
+    }
+
+    private QuestInstance lookup(Map<QuesterId, Map<String, QuestInstance>> index,
+            Quest quest, QuesterId quester) {
+        if (quest == null) {
+            return null;
+        }
+        Map<String, QuestInstance> instances = index.get(quester);
+        return instances == null ? null : instances.get(quest.getName());
+    }
+
+    /**
+     * Adds the given {@link QuestInstance} to the given index, failing if the
+     * quester already has an instance of the same {@link Quest} in it.
+     */
+    private boolean index(Map<QuesterId, Map<String, QuestInstance>> index,
+            QuestInstance instance) {
+        Map<String, QuestInstance> instances = index.get(
+                instance.getQuesterId());
+        if (instances == null) {
+            instances = new HashMap<>();
+            index.put(instance.getQuesterId(), instances);
+        }
+        return instances.putIfAbsent(instance.getInfo().getName(), instance)
+                == null;
+    }
+
+    /**
+     * Removes the given {@link QuestInstance} from the given index, dropping
+     * the quester's entry entirely once they have no instances left in it.
+     */
+    private boolean unindex(Map<QuesterId, Map<String, QuestInstance>> index,
+            QuestInstance instance) {
+        Map<String, QuestInstance> instances = index.get(
+                instance.getQuesterId());
+        if (instances == null || !instances.remove(instance.getInfo().getName(),
+                instance)) {
+            return false;
+        }
+        if (instances.isEmpty()) {
+            index.remove(instance.getQuesterId());
+        }
+        return true;
+    }
+
     private void deserialize(Map<String, Map<String, String>> map,
-            Set<QuestInstance> set) {
-        for (String key : map.keySet()) { // loop through map values
-            Collection<String> serialized = map.get(key).values();
-            set.addAll(serialized.stream().map(serial -> new QuestInstance(
-                    this, key, serial)).collect(Collectors.toList()));
+            Map<QuesterId, Map<String, QuestInstance>> index) {
+        for (String name : map.keySet()) { // loop through map values
+            QuesterId key = QuesterId.of(name);
+            for (Map.Entry<String, String> serial : map.get(name)
+                    .entrySet()) {
+                index(index, read(key, serial.getKey(), serial.getValue()));
+            }
+        }
+    }
+
+    /**
+     * Reads serialized progression stored under the given quest name, which
+     * saves searching for the quest the progression is for.
+     */
+    private QuestInstance read(QuesterId quester, String questName,
+            String serialized) {
+        Quest quest = getQuest(questName);
+        if (quest != null && serialized.length() > questName.length()
+                && serialized.startsWith(questName)
+                && serialized.charAt(questName.length()) == '_') {
+            return new QuestInstance(quest, quester, serialized);
         }
+        return new QuestInstance(this, quester, serialized);
     }
 
-    private Map<String, Map<String, String>> serialize(Set<QuestInstance> set) {
+    private Map<String, Map<String, String>> serialize(
+            Map<QuesterId, Map<String, QuestInstance>> index) {
         Map<String, Map<String, String>> result = new HashMap<>();
-        for (QuestInstance questInstance : set) { // loop through current quests
-            String quester = questInstance.getQuester();
-            Map<String, String> map = result.get(quester);
-            if (map == null) {
-                map = new HashMap<>();
-                result.put(quester, map);
+        for (Map.Entry<QuesterId, Map<String, QuestInstance>> entry : index
+                .entrySet()) { // loop through questers
+            result.put(entry.getKey().getName(),
+                    serializeQuester(entry.getValue()));
+        }
+
+        return result;
+    }
+
+    /**
+     * Checks whether the given quester's progression is held in memory, which
+     * is always the case unless the store is per quester.
+     */
+    private boolean isHeld(QuesterId quester) {
+        return !store.isPerQuester() || loadedQuesters.contains(quester);
+    }
+
+    private static List<QuestInstance.Snapshot> snapshot(
+            Map<String, QuestInstance> instances) {
+        List<QuestInstance.Snapshot> snapshots = new ArrayList<>(
+                instances == null ? 0 : instances.size());
+        if (instances != null) {
+            for (QuestInstance instance : instances.values()) {
+                snapshots.add(instance.snapshot());
+            }
+        }
+        return snapshots;
+    }
+
+    private Map<String, String> serializeQuester(
+            Map<String, QuestInstance> instances) {
+        Map<String, String> map = new HashMap<>();
+        if (instances != null) {
+            for (QuestInstance questInstance : instances.values()) {
+                map.put(questInstance.getInfo().getName(),
+                        questInstance.serializeProgression());
             }
+        }
+        return map;
+    }
 
-            map.put(questInstance.getInfo().getName(),
-                    questInstance.serializeProgression());
+    /**
+     * Quests parsed by {@link #parseQuests(Collection)}, waiting to be built
+     * and swapped in by {@link #reloadQuests(ParsedQuests, Predicate)}.
+     */
+    public static final class ParsedQuests {
+        /**
+         * The helper of the load session the quests were parsed in.
+         */
+        private final QuestLoadHelper helper;
+        private final List<QuestBuilder> builders;
+
+        private ParsedQuests(QuestLoadHelper helper,
+                List<QuestBuilder> builders) {
+            this.helper = helper;
+            this.builders = builders;
         }
 
-        return result;
+        /**
+         * Checks whether no quests were parsed.
+         *
+         * @return whether there is nothing to reload
+         */
+        public boolean isEmpty() {
+            return builders.isEmpty();
+        }
+    }
+
+    /**
+     * An unmodifiable view of the instances of one quest, which stays live
+     * when the quest's set is removed from and re-added to {@link #byQuest}.
+     */
+    private final class InstanceView extends AbstractSet<QuestInstance> {
+        private final String questName;
+
+        private InstanceView(String questName) {
+            this.questName = questName;
+        }
+
+        @Override
+        public Iterator<QuestInstance> iterator() {
+            Set<QuestInstance> instances = byQuest.get(questName);
+            return instances == null ? Collections.emptyIterator()
+                    : Collections.unmodifiableSet(instances).iterator();
+        }
+
+        @Override
+        public int size() {
+            Set<QuestInstance> instances = byQuest.get(questName);
+            return instances == null ? 0 : instances.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            Set<QuestInstance> instances = byQuest.get(questName);
+            return instances != null && instances.contains(o);
+        }
+    }
+
+    /**
+     * The captured progression of a quester which hasn't been saved yet.
+     */
+    private static final class Unsaved {
+        private final List<QuestInstance.Snapshot> current;
+        private final Map<String, String> completed;
+
+        private Unsaved(List<QuestInstance.Snapshot> current,
+                Map<String, String> completed) {
+            this.current = current;
+            this.completed = completed;
+        }
     }
 }
@@ -0,0 +1,119 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.volumetricpixels.questy.questy.event;
+
+import com.volumetricpixels.questy.event.Event;
+import com.volumetricpixels.questy.event.quest.QuestEventSnapshot;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers {@link Event}s to asynchronous monitor handlers off the firing
+ * thread.
+ *
+ * Events are spread over a fixed number of single-threaded stripes, each with
+ * a bounded queue. All events for the same quester go to the same stripe, so
+ * they are delivered in the order they were fired. When a stripe's queue is
+ * full, the firing thread waits for room, so that handlers which fall behind
+ * slow down whoever is firing events rather than losing any. A stripe's own
+ * thread delivers an event it fires to a full stripe itself, as it would
+ * otherwise wait on itself forever.
+ */
+final class AsyncEventLane {
+    /**
+     * The single-threaded executors events are distributed over.
+     */
+    private final ExecutorService[] stripes;
+    /**
+     * The thread of each stripe, once it has been started.
+     */
+    private final Thread[] workers;
+
+    AsyncEventLane(int threads, int capacity) {
+        stripes = new ExecutorService[threads];
+        workers = new Thread[threads];
+        AtomicInteger count = new AtomicInteger();
+        for (int i = 0; i < threads; i++) {
+            final int index = i;
+            stripes[i] = new ThreadPoolExecutor(1, 1, 0L,
+                    TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(capacity),
+                    task -> {
+                        Thread thread = new Thread(task, "Questy-Async-"
+                                + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        workers[index] = thread;
+                        return thread;
+                    }, (task, executor) -> {
+                if (executor.isShutdown()) {
+                    throw new RejectedExecutionException("lane shut down");
+                }
+                if (Thread.currentThread() == workers[index]) {
+                    task.run();
+                    return;
+                }
+                try {
+                    // the stripe is running, as its queue is full, so it
+                    // will pick this up
+                    executor.getQueue().put(task);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    task.run();
+                }
+            });
+        }
+    }
+
+    /**
+     * Queues delivery of the given {@link Event} to the given handlers.
+     *
+     * @param event the {@link Event} to deliver
+     * @param handlers the asynchronous handlers to deliver it to
+     */
+    void submit(Event event, SimpleListenerHandle.Handler[] handlers) {
+        stripeFor(event).execute(() -> {
+            for (SimpleListenerHandle.Handler handler : handlers) {
+                SimpleEventManager.invoke(handler, event);
+            }
+        });
+    }
+
+    /**
+     * Stops accepting events and waits up to the given time for queued events
+     * to be delivered.
+     *
+     * @param timeout the maximum time to wait
+     * @param unit the unit of {@code timeout}
+     */
+    void shutdown(long timeout, TimeUnit unit) {
+        for (ExecutorService stripe : stripes) {
+            stripe.shutdown();
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        try {
+            for (ExecutorService stripe : stripes) {
+                stripe.awaitTermination(deadline - System.nanoTime(),
+                        TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private ExecutorService stripeFor(Event event) {
+        if (!(event instanceof QuestEventSnapshot) || stripes.length == 1
+                || ((QuestEventSnapshot) event).getQuester() == null) {
+            return stripes[0];
+        }
+        String quester = ((QuestEventSnapshot) event).getQuester();
+        return stripes[(quester.hashCode() & Integer.MAX_VALUE)
+                % stripes.length];
+    }
+}
@@ -0,0 +1,25 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.volumetricpixels.questy.questy.event;
+
+import com.volumetricpixels.questy.event.Event;
+import com.volumetricpixels.questy.event.Listen;
+
+/**
+ * Delivers an {@link Event} to a single {@link Listen}-annotated method, bound
+ * to the listener it belongs to. Instances are generated by {@link
+ * SimpleListenerHandle} at registration time.
+ */
+@FunctionalInterface
+interface EventInvoker {
+    /**
+     * Invokes the listener method with the given {@link Event}.
+     *
+     * @param event the {@link Event} to deliver
+     * @throws Throwable anything thrown by the listener method
+     */
+    void invoke(Event event) throws Throwable;
+}
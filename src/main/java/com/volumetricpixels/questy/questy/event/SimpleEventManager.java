@@ -7,49 +7,128 @@ package com.volumetricpixels.questy.questy.event;
 
 import com.volumetricpixels.questy.event.Event;
 import com.volumetricpixels.questy.event.EventManager;
+import com.volumetricpixels.questy.event.quest.QuestEvent;
+import com.volumetricpixels.questy.event.quest.QuestEventSnapshot;
+import com.volumetricpixels.questy.questy.event.SimpleListenerHandle.Handler;
 
-import java.lang.invoke.MethodHandle;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.Optional;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A simple {@link EventManager}, which stores {@link SimpleListenerHandle} objects
  * and sends {@link Event}s their way when a relevant {@link Event} is fired via
  * {@link #fire(Event)}.
+ *
+ * Handlers are looked up in a dispatch table mapping each concrete event class
+ * to the handlers which should receive it, including those listening for any
+ * of its supertypes. The table is rebuilt copy-on-write whenever a listener is
+ * registered or unregistered, so firing an event only reads it. Within the
+ * normal and monitor handlers, handlers are ordered by their {@link
+ * com.volumetricpixels.questy.event.Priority}, and handlers which ignore
+ * cancelled events are skipped without being invoked once the event has been
+ * cancelled.
+ *
+ * Asynchronous monitor handlers are delivered to through an {@link
+ * AsyncEventLane}, which is only started once such a handler is registered.
+ * {@link QuestEvent}s refer to quest state which keeps changing on the firing
+ * thread, so asynchronous handlers are given a {@link QuestEventSnapshot} of
+ * them instead, and are looked up by that type.
  */
 public class SimpleEventManager implements EventManager {
+    /**
+     * Orders {@link Handler}s by priority. {@link List#sort(Comparator)} is
+     * stable, so handlers of equal priority keep registration order.
+     */
+    private static final Comparator<Handler> BY_PRIORITY = Comparator
+            .comparing(handler -> handler.priority);
+    /**
+     * The default number of threads used for asynchronous delivery.
+     */
+    private static final int DEFAULT_ASYNC_THREADS = 2;
+    /**
+     * The default number of events which may be queued per asynchronous
+     * delivery thread before firing waits for room.
+     */
+    private static final int DEFAULT_ASYNC_CAPACITY = 4096;
+
     /**
      * All registered {@link Object}s, each contained within a {@link
-     * SimpleListenerHandle} object.
+     * SimpleListenerHandle} object, in registration order.
+     */
+    private final List<SimpleListenerHandle> listeners;
+    /**
+     * The dispatch table, mapping concrete {@link Event} classes to the
+     * handlers for them. Never modified after being published.
+     */
+    private volatile Map<Class<? extends Event>, Dispatch> dispatchTable;
+    /**
+     * The number of threads to use for asynchronous delivery.
+     */
+    private final int asyncThreads;
+    /**
+     * The queue capacity of each asynchronous delivery thread.
+     */
+    private final int asyncCapacity;
+    /**
+     * Delivers events to asynchronous handlers. {@code null} until the first
+     * asynchronous handler is registered.
      */
-    private final Set<SimpleListenerHandle> listeners;
+    private volatile AsyncEventLane asyncLane;
 
     /**
      * Constructs a new EventManager with no registered {@link Object}s.
      */
     public SimpleEventManager() {
-        listeners = new HashSet<>();
+        this(DEFAULT_ASYNC_THREADS, DEFAULT_ASYNC_CAPACITY);
+    }
+
+    /**
+     * Constructs a new EventManager with no registered {@link Object}s, using
+     * the given settings for asynchronous delivery.
+     *
+     * @param asyncThreads the number of threads used to deliver events to
+     *        asynchronous handlers
+     * @param asyncCapacity the number of events which may be queued for each
+     *        of those threads before firing waits for room
+     */
+    public SimpleEventManager(int asyncThreads, int asyncCapacity) {
+        if (asyncThreads < 1 || asyncCapacity < 1) {
+            throw new IllegalArgumentException(
+                    "asyncThreads and asyncCapacity must be positive");
+        }
+        this.listeners = new ArrayList<>();
+        this.dispatchTable = new HashMap<>();
+        this.asyncThreads = asyncThreads;
+        this.asyncCapacity = asyncCapacity;
     }
 
     /**
      * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException if the listener has an asynchronous
+     *         handler of a {@link QuestEvent} class, rather than of {@link
+     *         QuestEventSnapshot}
      */
-    public boolean register(Object listener) {
-        return listeners.add(new SimpleListenerHandle(listener));
+    public synchronized boolean register(Object listener) {
+        SimpleListenerHandle handle = new SimpleListenerHandle(listener);
+        if (listeners.contains(handle)) {
+            return false;
+        }
+        listeners.add(handle);
+        rebuild();
+        return true;
     }
 
     /**
      * {@inheritDoc}
      */
-    public void unregister(Object listener) {
-        Iterator<SimpleListenerHandle> it = listeners.iterator();
-        while (it.hasNext()) {
-            SimpleListenerHandle handle = it.next();
-            if (handle.getListener() == listener) {
-                it.remove();
-            }
+    public synchronized void unregister(Object listener) {
+        if (listeners.removeIf(handle -> handle.getListener() == listener)) {
+            rebuild();
         }
     }
 
@@ -57,22 +136,127 @@ public class SimpleEventManager implements EventManager {
      * {@inheritDoc}
      */
     public <T extends Event> T fire(T event) {
-        final Set<MethodHandle> monitor = new HashSet<>();
-        listeners.forEach((listener) -> {
-            final Optional<Set<MethodHandle>> monitors = listener.handle(event);
-            if (monitors.isPresent() && monitors.get().size() > 0) {
-                monitor.addAll(monitors.get());
-            }
-        });
+        Dispatch dispatch = dispatchTable.get(event.getClass());
+        if (dispatch == null) {
+            dispatch = install(event.getClass());
+        }
 
-        monitor.forEach((listener) -> {
-            try {
-                listener.invoke(event);
-            } catch (Throwable throwable) {
-                throwable.printStackTrace();
+        for (Handler handler : dispatch.handlers) {
+            invoke(handler, event);
+        }
+        for (Handler monitor : dispatch.monitors) {
+            invoke(monitor, event);
+        }
+        if (dispatch.async.length > 0) {
+            AsyncEventLane lane = asyncLane;
+            // copied now, as the quest carries on changing on this thread
+            Event copy = event instanceof QuestEvent ?
+                    ((QuestEvent) event).snapshot() : event;
+            if (lane != null) {
+                lane.submit(copy, dispatch.async);
+            } else {
+                // shut down, so deliver on this thread rather than dropping
+                for (Handler handler : dispatch.async) {
+                    invoke(handler, copy);
+                }
             }
-        });
+        }
 
         return event;
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    public synchronized void shutdown() {
+        if (asyncLane != null) {
+            asyncLane.shutdown(10, TimeUnit.SECONDS);
+            asyncLane = null;
+        }
+    }
+
+    static void invoke(Handler handler, Event event) {
+        if (handler.ignoreCancelled && event.isCancelled()) {
+            return;
+        }
+        try {
+            handler.invoker.invoke(event);
+        } catch (Throwable throwable) {
+            throwable.printStackTrace(); // TODO: determine better way
+        }
+    }
+
+    /**
+     * Computes the {@link Dispatch} for an event class which hasn't been fired
+     * before and publishes a copy of the table containing it.
+     */
+    private synchronized Dispatch install(Class<? extends Event> eventClass) {
+        Dispatch dispatch = dispatchTable.get(eventClass);
+        if (dispatch == null) {
+            dispatch = compute(eventClass);
+            Map<Class<? extends Event>, Dispatch> table = new HashMap<>(
+                    dispatchTable);
+            table.put(eventClass, dispatch);
+            dispatchTable = table;
+        }
+        return dispatch;
+    }
+
+    /**
+     * Recomputes the {@link Dispatch} for every event class already in the
+     * table and publishes the result.
+     */
+    private void rebuild() {
+        Map<Class<? extends Event>, Dispatch> table = new HashMap<>();
+        for (Class<? extends Event> eventClass : dispatchTable.keySet()) {
+            table.put(eventClass, compute(eventClass));
+        }
+        dispatchTable = table;
+    }
+
+    private Dispatch compute(Class<? extends Event> eventClass) {
+        List<Handler> handlers = new ArrayList<>();
+        List<Handler> monitors = new ArrayList<>();
+        for (SimpleListenerHandle listener : listeners) {
+            listener.collectHandlers(eventClass, false, handlers);
+            listener.collectHandlers(eventClass, true, monitors);
+        }
+        monitors.removeIf(handler -> handler.async);
+        // asynchronous handlers are given a copy of quest events
+        Class<? extends Event> copyClass = QuestEvent.class.isAssignableFrom(
+                eventClass) ? QuestEventSnapshot.class : eventClass;
+        List<Handler> async = new ArrayList<>();
+        for (SimpleListenerHandle listener : listeners) {
+            listener.collectHandlers(copyClass, true, async);
+        }
+        async.removeIf(handler -> !handler.async);
+        if (!async.isEmpty() && asyncLane == null) {
+            asyncLane = new AsyncEventLane(asyncThreads, asyncCapacity);
+        }
+
+        handlers.sort(BY_PRIORITY);
+        monitors.sort(BY_PRIORITY);
+        async.sort(BY_PRIORITY);
+        return new Dispatch(handlers.toArray(new Handler[handlers.size()]),
+                monitors.toArray(new Handler[monitors.size()]),
+                async.toArray(new Handler[async.size()]));
+    }
+
+    /**
+     * The handlers for a single concrete {@link Event} class. Monitor handlers
+     * are invoked after all normal handlers, and asynchronous handlers are
+     * queued after that.
+     */
+    private static final class Dispatch {
+        private final Handler[] handlers;
+        private final Handler[] monitors;
+        private final Handler[] async;
+
+        private Dispatch(Handler[] handlers, Handler[] monitors,
+                Handler[] async) {
+            this.handlers = handlers;
+            this.monitors = monitors;
+            this.async = async;
+        }
+    }
 }
@@ -7,35 +7,61 @@ package com.volumetricpixels.questy.questy.event;
 
 import com.volumetricpixels.questy.event.Event;
 import com.volumetricpixels.questy.event.Listen;
+import com.volumetricpixels.questy.event.Priority;
+import com.volumetricpixels.questy.event.quest.QuestEvent;
+import com.volumetricpixels.questy.event.quest.QuestEventSnapshot;
 
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.Set;
+import java.util.logging.Logger;
 
 /**
- * Wraps a listener Object to direct {@link Event}s its way.
+ * Wraps a listener Object, holding the {@link Listen}-annotated methods it
+ * contains so that {@link SimpleEventManager} can build its dispatch table.
  */
 public final class SimpleListenerHandle {
+    private static final Logger LOGGER = Logger.getLogger(
+            SimpleListenerHandle.class.getName());
+    /**
+     * The erased signature of {@link EventInvoker#invoke(Event)}.
+     */
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(
+            void.class, Event.class);
+
     /**
      * The actual listener {@link Object}.
      */
     private final Object listener;
     /**
-     * A {@link Map} of {@link Event} subclasses to {@link Set}s of methods
+     * A {@link Map} of {@link Event} subclasses to {@link List}s of methods
      * which listen for the event type they are mapped from.
      */
-    private final Map<Class<? extends Event>, Set<MethodHandle>> eventHandlers;
+    private final Map<Class<? extends Event>, List<Handler>> eventHandlers;
     /**
-     * A {@link Map} of {@link Event} subclasses to {@link Set}s of monitor
+     * A {@link Map} of {@link Event} subclasses to {@link List}s of monitor
      * methods listening for the type of event they're mapped from.
      */
-    private final Map<Class<? extends Event>, Set<MethodHandle>> monitorEventHandlers;
+    private final Map<Class<? extends Event>, List<Handler>> monitorEventHandlers;
 
+    /**
+     * Creates a {@link SimpleListenerHandle} for the given listener.
+     *
+     * @param listener the listener {@link Object}
+     * @throws IllegalArgumentException if an asynchronous handler takes a
+     *         {@link QuestEvent}, which it would never be given
+     */
     public SimpleListenerHandle(Object listener) {
         this.listener = listener;
         this.eventHandlers = new HashMap<>();
@@ -57,34 +83,30 @@ public final class SimpleListenerHandle {
             }
 
             Class<? extends Event> evtClass = parameter.asSubclass(Event.class);
+            if (eh.async() && QuestEvent.class.isAssignableFrom(evtClass)) {
+                // only snapshots of quest events are delivered asynchronously
+                throw new IllegalArgumentException("Asynchronous handler "
+                        + meth + " must take a "
+                        + QuestEventSnapshot.class.getSimpleName()
+                        + " rather than a " + evtClass.getSimpleName());
+            }
             try {
-                // use MethodHandle over Method for actual calls as it is faster
-                MethodHandle handle = MethodHandles.lookup().unreflect(meth);
-
-                if (eh.monitor()) {
-                    Set<MethodHandle> handlers = monitorEventHandlers
-                            .get(evtClass);
-                    if (handlers == null) {
-                        // this is the first handler for that event type - in
-                        // practice this will be most of the time
-                        handlers = new HashSet<>();
-                        monitorEventHandlers.put(evtClass, handlers);
-                    }
-
-                    // add the MethodHandle to the Set of them
-                    handlers.add(handle);
-                } else {
-                    Set<MethodHandle> handlers = eventHandlers.get(evtClass);
-                    if (handlers == null) {
-                        // this is the first handler for that event type - in
-                        // practice this will be most of the time
-                        handlers = new HashSet<>();
-                        eventHandlers.put(evtClass, handlers);
-                    }
-
-                    // add the MethodHandle to the Set of them
-                    handlers.add(handle);
+                Handler handler = new Handler(createInvoker(meth, evtClass),
+                        eh.priority(), eh.ignoreCancelled(), eh.async());
+
+                // async handlers are always monitors
+                Map<Class<? extends Event>, List<Handler>> target =
+                        eh.monitor() || eh.async() ? monitorEventHandlers :
+                                eventHandlers;
+                List<Handler> handlers = target.get(evtClass);
+                if (handlers == null) {
+                    // this is the first handler for that event type - in
+                    // practice this will be most of the time
+                    handlers = new ArrayList<>(1);
+                    target.put(evtClass, handlers);
                 }
+
+                handlers.add(handler);
             } catch (IllegalAccessException e) {
                 // in theory shouldn't happen unless someone is dumb enough to
                 // implement Listener really badly
@@ -94,30 +116,90 @@ public final class SimpleListenerHandle {
     }
 
     /**
-     * Handles the given {@link Event}, directing it to each registered {@link
-     * Object} which has an {@link Listen}-annotated method which handles the
-     * given {@link Event}'s type.
-     *
-     * @param event the {@link Event} to call
-     * @return all monitor status methods
+     * Creates an {@link EventInvoker} for the given listener method. Where
+     * possible, {@link LambdaMetafactory} is used to spin a class which calls
+     * the method directly, so that delivery is a plain interface call the JIT
+     * can inline. Methods which generated code can't link against fall back
+     * to invoking a bound {@link MethodHandle}.
      */
-    public Optional<Set<MethodHandle>> handle(Event event) {
-        final Set<MethodHandle> handles = eventHandlers.get(event.getClass());
-        final Set<MethodHandle> monitorHandles = monitorEventHandlers
-                .get(event.getClass());
+    private EventInvoker createInvoker(Method meth,
+            Class<? extends Event> evtClass) throws IllegalAccessException {
+        Lookup lookup = MethodHandles.lookup();
+        MethodHandle handle = lookup.unreflect(meth);
+        boolean isStatic = Modifier.isStatic(meth.getModifiers());
 
-        for (MethodHandle handle : handles) {
+        if (canSpin(meth)) {
             try {
-                handle.invoke(listener, event);
+                MethodType factoryType = isStatic ?
+                        MethodType.methodType(EventInvoker.class) :
+                        MethodType.methodType(EventInvoker.class,
+                                meth.getDeclaringClass());
+                CallSite site = LambdaMetafactory.metafactory(lookup,
+                        "invoke", factoryType, INVOKER_TYPE, handle,
+                        MethodType.methodType(void.class, evtClass));
+                return isStatic ? (EventInvoker) site.getTarget().invoke() :
+                        (EventInvoker) site.getTarget().invoke(listener);
+            } catch (LambdaConversionException e) {
+                // fall through to the MethodHandle invoker
+                LOGGER.warning("Could not spin an invoker for " + meth
+                        + ", so it will be called through a MethodHandle: "
+                        + e.getMessage());
+            } catch (RuntimeException | Error e) {
+                throw e;
             } catch (Throwable throwable) {
-                throwable.printStackTrace(); // TODO: determine better way
+                // the factory only allocates the invoker, so can't throw
+                // anything checked
+                throw new IllegalStateException(throwable);
             }
         }
 
-        if (monitorHandles == null || monitorHandles.isEmpty()) {
-            return Optional.empty();
-        } else {
-            return Optional.of(monitorHandles);
+        // use MethodHandle over Method for actual calls as it is faster
+        final MethodHandle bound = (isStatic ? handle : handle.bindTo(listener))
+                .asType(INVOKER_TYPE);
+        // a block body, so that invokeExact is linked as returning void
+        return event -> {
+            bound.invokeExact(event);
+        };
+    }
+
+    /**
+     * Checks whether a class generated alongside this one would be able to
+     * call the given method directly - i.e. the method is public, in a public
+     * class which is visible from Questy's {@link ClassLoader}.
+     */
+    private static boolean canSpin(Method meth) {
+        Class<?> owner = meth.getDeclaringClass();
+        if (!Modifier.isPublic(meth.getModifiers())
+                || !Modifier.isPublic(owner.getModifiers())) {
+            return false;
+        }
+        try {
+            return Class.forName(owner.getName(), false,
+                    SimpleListenerHandle.class.getClassLoader()) == owner;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Adds every handler of this listener which should receive events of the
+     * given type, including handlers declared for any of its supertypes, to
+     * the given {@link Collection}.
+     *
+     * @param eventClass the concrete type of {@link Event} being dispatched
+     * @param monitor whether to collect monitor handlers rather than normal
+     *        ones
+     * @param into the {@link Collection} to add the handlers to
+     */
+    void collectHandlers(Class<? extends Event> eventClass, boolean monitor,
+            Collection<Handler> into) {
+        Map<Class<? extends Event>, List<Handler>> source =
+                monitor ? monitorEventHandlers : eventHandlers;
+        for (Map.Entry<Class<? extends Event>, List<Handler>> entry : source
+                .entrySet()) {
+            if (entry.getKey().isAssignableFrom(eventClass)) {
+                into.addAll(entry.getValue());
+            }
         }
     }
 
@@ -130,4 +212,28 @@ public final class SimpleListenerHandle {
         return other instanceof SimpleListenerHandle
                 && listener == ((SimpleListenerHandle) other).listener;
     }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(listener);
+    }
+
+    /**
+     * A single {@link Listen}-annotated method of a listener, along with the
+     * options it was annotated with.
+     */
+    static final class Handler {
+        final EventInvoker invoker;
+        final Priority priority;
+        final boolean ignoreCancelled;
+        final boolean async;
+
+        Handler(EventInvoker invoker, Priority priority,
+                boolean ignoreCancelled, boolean async) {
+            this.invoker = invoker;
+            this.priority = priority;
+            this.ignoreCancelled = ignoreCancelled;
+            this.async = async;
+        }
+    }
 }
@@ -7,22 +7,35 @@ package com.volumetricpixels.questy.questy.loader;
 
 import com.volumetricpixels.questy.Quest;
 import com.volumetricpixels.questy.QuestManager;
+import com.volumetricpixels.questy.loading.QuestBuilder;
 import com.volumetricpixels.questy.loading.QuestLoader;
 
-import javax.script.Invocable;
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.Reader;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Loads JavaScript quests.
+ *
+ * A single Nashorn engine is shared by every script, and scripts are compiled
+ * once and cached by file path and modification time, so loading quests again
+ * only recompiles scripts which have changed. Each script is run in bindings
+ * of its own, so scripts can't see or overwrite each other's variables. The
+ * engine is used by one thread at a time.
  */
 public class JSQuestLoader implements QuestLoader {
     private static final String SCRIPT_PREFIX =
@@ -33,11 +46,24 @@ public class JSQuestLoader implements QuestLoader {
                     "Packages.com.volumetricpixels.questy.loading," +
                     "Packages.com.volumetricpixels.questy.objective)) {" +
                     "    var quest = function genQuest() {";
+    // starts on a new line so a comment on the script's last line can't hide it
     private static final String SCRIPT_SUFFIX =
-            "    }" +
+            "\n    }" +
                     "}";
 
     private final QuestManager questManager;
+    /**
+     * Compiled scripts, mapped by the absolute paths of their files.
+     */
+    private final Map<String, CachedScript> scripts = new HashMap<>();
+    /**
+     * The shared Nashorn engine, created when the first script is loaded.
+     */
+    private ScriptEngine engine;
+    /**
+     * Calls the function defined by a script, in the script's bindings.
+     */
+    private CompiledScript genQuest;
 
     public JSQuestLoader(QuestManager questManager) {
         this.questManager = questManager;
@@ -45,27 +71,97 @@ public class JSQuestLoader implements QuestLoader {
 
     @Override
     public Map<String, Quest> loadQuests(File directory) {
-        if (directory == null || !directory.isDirectory()) {
+        List<File> files = getQuestFiles(directory);
+        if (files == null) {
             return null;
         }
 
         Map<String, Quest> result = new HashMap<>();
         // iterate through all files in the directory which end with .js
-        for (File file : directory.listFiles(fl -> checkExtension(fl, "js"))) {
-            try {
-                Quest loaded = loadQuest(new FileReader(file));
-                if (loaded != null) {
-                    result.put(loaded.getName(), loaded);
-                }
-            } catch (FileNotFoundException e) {
-                e.printStackTrace();
+        for (File file : files) {
+            Quest loaded = loadQuest(file);
+            if (loaded != null) {
+                result.put(loaded.getName(), loaded);
             }
         }
 
         return result;
     }
 
+    @Override
+    public List<File> getQuestFiles(File directory) {
+        if (directory == null || !directory.isDirectory()) {
+            return null;
+        }
+        List<File> files = Arrays.asList(directory.listFiles(
+                fl -> checkExtension(fl, "js")));
+
+        // forget scripts which have been deleted
+        Set<String> paths = new HashSet<>();
+        files.forEach(file -> paths.add(file.getAbsolutePath()));
+        synchronized (this) {
+            scripts.keySet().removeIf(path -> path.startsWith(
+                    directory.getAbsolutePath()) && !paths.contains(path));
+        }
+        return files;
+    }
+
+    @Override
+    public QuestBuilder parseQuest(File file) {
+        // scripts build their quests themselves, so pass on the built quest
+        Quest loaded = loadQuest(file);
+        return loaded == null ? null : QuestBuilder.of(loaded);
+    }
+
+    /**
+     * Loads the quest defined by the script in the given file, only compiling
+     * it if it has changed since it was last loaded.
+     *
+     * @param file the script file
+     * @return the loaded quest, or {@code null} if the script failed
+     */
+    public Quest loadQuest(File file) {
+        String path = file.getAbsolutePath();
+        long modified = file.lastModified();
+        CachedScript cached;
+        synchronized (this) {
+            cached = scripts.get(path);
+        }
+
+        try {
+            if (cached == null || cached.modified != modified) {
+                // read outside of the lock, so other threads can use the engine
+                String source;
+                try (Reader reader = new FileReader(file)) {
+                    source = read(reader);
+                }
+                synchronized (this) {
+                    cached = new CachedScript(compile(source), modified);
+                    scripts.put(path, cached);
+                }
+            }
+            synchronized (this) {
+                return run(cached.script);
+            }
+        } catch (IOException | ScriptException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
     public Quest loadQuest(Reader reader) {
+        try {
+            String source = read(reader);
+            synchronized (this) {
+                return run(compile(source));
+            }
+        } catch (IOException | ScriptException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private static String read(Reader reader) throws IOException {
         BufferedReader bufReader;
         if (reader instanceof BufferedReader) {
             bufReader = (BufferedReader) reader;
@@ -73,26 +169,57 @@ public class JSQuestLoader implements QuestLoader {
             bufReader = new BufferedReader(reader);
         }
 
-        ScriptEngine nashorn = new ScriptEngineManager()
-                .getEngineByName("nashorn");
-        nashorn.put("questManager", questManager);
-
         StringBuilder script = new StringBuilder();
-        try {
-            String curLine;
-            while ((curLine = bufReader.readLine()) != null) {
-                script.append(curLine);
+        String curLine;
+        while ((curLine = bufReader.readLine()) != null) {
+            // keep line breaks, or a // comment would run to the end
+            script.append(curLine).append('\n');
+        }
+        return script.toString();
+    }
+
+    /**
+     * Compiles the given script with the shared engine. Must be called while
+     * holding this loader's lock.
+     */
+    private CompiledScript compile(String source) throws ScriptException {
+        if (engine == null) {
+            engine = new ScriptEngineManager().getEngineByName("nashorn");
+            if (engine == null) {
+                throw new ScriptException("Nashorn is not available");
             }
-        } catch (IOException e) {
-            e.printStackTrace();
+            genQuest = ((Compilable) engine).compile("quest()");
         }
+        return ((Compilable) engine).compile(SCRIPT_PREFIX + source
+                + SCRIPT_SUFFIX);
+    }
 
-        try {
-            nashorn.eval(SCRIPT_PREFIX + script.toString() + SCRIPT_SUFFIX);
-            return (Quest) ((Invocable) nashorn).invokeFunction("quest");
-        } catch (Exception e) {
-            e.printStackTrace();
-            return null;
+    /**
+     * Runs the given compiled script in fresh bindings and gets the quest it
+     * defines. Must be called while holding this loader's lock.
+     */
+    private Quest run(CompiledScript script) throws ScriptException {
+        Bindings bindings = engine.createBindings();
+        bindings.put("questManager", questManager);
+        script.eval(bindings);
+        Object result = genQuest.eval(bindings);
+        if (!(result instanceof Quest)) {
+            throw new ScriptException("Script did not return a Quest");
+        }
+        return (Quest) result;
+    }
+
+    /**
+     * A compiled script and the modification time of its file when it was
+     * compiled.
+     */
+    private static final class CachedScript {
+        private final CompiledScript script;
+        private final long modified;
+
+        private CachedScript(CompiledScript script, long modified) {
+            this.script = script;
+            this.modified = modified;
         }
     }
 }
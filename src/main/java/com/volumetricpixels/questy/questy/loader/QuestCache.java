@@ -0,0 +1,434 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.volumetricpixels.questy.questy.loader;
+
+import com.volumetricpixels.questy.Quest;
+import com.volumetricpixels.questy.QuestManager;
+import com.volumetricpixels.questy.loading.QuestBuilder;
+import com.volumetricpixels.questy.loading.QuestBuilder.ObjectiveBuilder;
+import com.volumetricpixels.questy.loading.QuestBuilder.ObjectiveBuilder.OutcomeBuilder;
+import com.volumetricpixels.questy.loading.QuestLoader;
+import com.volumetricpixels.questy.objective.Objective;
+import com.volumetricpixels.questy.objective.Outcome;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Caches built {@link Quest}s in a binary file, keyed by the path and a hash
+ * of the contents of the file each quest was loaded from, so that quests
+ * whose files haven't changed can be rebuilt without being parsed again.
+ *
+ * {@link QuestLoader}s are wrapped with {@link #wrap(QuestLoader)} before
+ * being added to the {@link QuestManager}. Call {@link #load()} before {@link
+ * QuestManager#loadQuests(File)} and {@link #save()} after it. Only the quest
+ * itself is cached, so loaders which may have other side effects, such as
+ * {@link JSQuestLoader} whose scripts may register listeners, shouldn't be
+ * wrapped.
+ */
+public class QuestCache {
+    /**
+     * Identifies a quest cache file. The file holds this, {@link #VERSION},
+     * the number of entries, the entries and a CRC32 of everything before it.
+     */
+    private static final int MAGIC = 0x51514331;
+    /**
+     * The version of the cache format. Caches of any other version are
+     * ignored and rewritten.
+     */
+    private static final int VERSION = 1;
+    /**
+     * Used in place of an objective's index for outcomes which lead nowhere.
+     */
+    private static final int NO_NEXT = -1;
+
+    private final QuestManager questManager;
+    private final File file;
+    /**
+     * Entries read by {@link #load()}, mapped by the absolute paths of the
+     * files they were loaded from.
+     */
+    private final Map<String, Entry> cached = new ConcurrentHashMap<>();
+    /**
+     * Entries for the files loaded since {@link #load()}, which are written by
+     * {@link #save()}.
+     */
+    private final Map<String, Entry> used = new ConcurrentHashMap<>();
+
+    public QuestCache(QuestManager questManager, File file) {
+        this.questManager = questManager;
+        this.file = file;
+    }
+
+    /**
+     * Wraps the given {@link QuestLoader} so that the quests it parses are
+     * cached, and so that files which are in the cache aren't given to it.
+     *
+     * @param loader the {@link QuestLoader} to wrap
+     * @return a caching {@link QuestLoader}
+     */
+    public QuestLoader wrap(QuestLoader loader) {
+        return new CachingLoader(loader);
+    }
+
+    /**
+     * Reads the cache file, if there is one. A cache which can't be read is
+     * ignored, so every quest is parsed as normal.
+     */
+    public void load() {
+        cached.clear();
+        used.clear();
+        if (!file.exists()) {
+            return;
+        }
+
+        try (DataInputStream buffered = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            CheckedInputStream checked = new CheckedInputStream(buffered,
+                    new CRC32());
+            DataInputStream in = new DataInputStream(checked);
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                // written by another version, so rebuild it
+                return;
+            }
+            Map<String, Entry> entries = new HashMap<>();
+            int amount = in.readInt();
+            for (int i = 0; i < amount; i++) {
+                String path = in.readUTF();
+                String loader = in.readUTF();
+                byte[] hash = new byte[in.readUnsignedByte()];
+                in.readFully(hash);
+                byte[] data = new byte[in.readInt()];
+                in.readFully(data);
+                entries.put(path, new Entry(loader, hash, data, null));
+            }
+            if ((int) checked.getChecksum().getValue() != buffered.readInt()) {
+                throw new IOException("corrupt quest cache: " + file);
+            }
+            cached.putAll(entries);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Writes every quest loaded through a wrapped loader since {@link #load()}
+     * to the cache file, replacing what was there. Quests must have been
+     * built, as they are by {@link QuestManager#loadQuests(File)}, before
+     * this is called.
+     */
+    public void save() {
+        // quests defined across several files can't be split back up, so
+        // they're parsed every time
+        Map<QuestBuilder, Integer> files = new IdentityHashMap<>();
+        for (Entry entry : used.values()) {
+            if (entry.builder != null) {
+                files.merge(entry.builder, 1, Integer::sum);
+            }
+        }
+        // only the encoded quests are kept once saved, so builders aren't
+        // held on to after loading
+        Map<String, Entry> encoded = new HashMap<>();
+
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream fileOut = new FileOutputStream(temp)) {
+            DataOutputStream buffered = new DataOutputStream(
+                    new BufferedOutputStream(fileOut));
+            CheckedOutputStream checked = new CheckedOutputStream(buffered,
+                    new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+
+            ByteArrayOutputStream entries = new ByteArrayOutputStream();
+            DataOutputStream entriesOut = new DataOutputStream(entries);
+            int amount = 0;
+            for (Map.Entry<String, Entry> loaded : used.entrySet()) {
+                Entry entry = loaded.getValue();
+                if (entry.builder != null && files.get(entry.builder) > 1) {
+                    continue;
+                }
+                byte[] data = entry.data;
+                if (data == null) {
+                    data = encode(entry.builder.build());
+                    if (data == null) {
+                        continue;
+                    }
+                }
+                entriesOut.writeUTF(loaded.getKey());
+                entriesOut.writeUTF(entry.loader);
+                entriesOut.writeByte(entry.hash.length);
+                entriesOut.write(entry.hash);
+                entriesOut.writeInt(data.length);
+                entriesOut.write(data);
+                encoded.put(loaded.getKey(), new Entry(entry.loader,
+                        entry.hash, data, null));
+                amount++;
+            }
+            out.writeInt(amount);
+            entries.writeTo(out);
+            buffered.writeInt((int) checked.getChecksum().getValue());
+            buffered.flush();
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        cached.clear();
+        used.putAll(encoded);
+        // quests which couldn't be cached are parsed again next time anyway
+        used.values().removeIf(entry -> entry.builder != null);
+
+        try {
+            Files.move(temp.toPath(), file.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Encodes the given quest, or returns {@code null} if it can't be cached.
+     */
+    private static byte[] encode(Quest quest) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            writeString(out, quest.getName());
+            writeString(out, quest.getDescription());
+            writeString(out, quest.getBeginMessage());
+            writeString(out, quest.getFinishMessage());
+
+            Objective[] objectives = quest.getObjectives();
+            List<Objective> indices = Arrays.asList(objectives);
+            out.writeInt(objectives.length);
+            // names first, so outcomes can lead to objectives defined later
+            for (Objective objective : objectives) {
+                writeString(out, objective.getName());
+            }
+            for (Objective objective : objectives) {
+                writeString(out, objective.getDescription());
+                writeString(out, objective.getBeginMessage());
+                Outcome[] outcomes = objective.getOutcomes();
+                out.writeInt(outcomes.length);
+                for (Outcome outcome : outcomes) {
+                    writeString(out, outcome.getName());
+                    writeString(out, outcome.getDescription());
+                    writeString(out, outcome.getFinishMessage());
+                    writeString(out, outcome.getType());
+                    if (outcome.getNext() == null) {
+                        out.writeInt(NO_NEXT);
+                    } else {
+                        int next = indices.indexOf(outcome.getNext());
+                        if (next < 0) {
+                            // leads out of the quest, which a builder can't do
+                            return null;
+                        }
+                        out.writeInt(next);
+                    }
+                }
+            }
+
+            writeStrings(out, quest.getPrerequisites());
+            writeStrings(out, quest.getRewards());
+        } catch (IOException e) {
+            // only thrown for strings too long for the format
+            return null;
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Rebuilds the quest encoded in the given data as a {@link QuestBuilder}.
+     */
+    private QuestBuilder decode(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+                data));
+        QuestBuilder builder = QuestBuilder.begin(questManager,
+                readString(in));
+        // files defining the same quest may be parsed at the same time
+        synchronized (builder) {
+            builder.description(readString(in))
+                    .beginMessage(readString(in))
+                    .finishMessage(readString(in));
+
+            ObjectiveBuilder[] objectives = new ObjectiveBuilder[in.readInt()];
+            for (int i = 0; i < objectives.length; i++) {
+                objectives[i] = builder.objective(readString(in));
+            }
+            for (ObjectiveBuilder objective : objectives) {
+                objective.description(readString(in))
+                        .beginMessage(readString(in));
+                int outcomes = in.readInt();
+                for (int i = 0; i < outcomes; i++) {
+                    OutcomeBuilder outcome = objective.outcome(readString(in))
+                            .description(readString(in))
+                            .finishMessage(readString(in))
+                            .type(readString(in));
+                    int next = in.readInt();
+                    if (next != NO_NEXT) {
+                        outcome.next(objectives[next]);
+                    }
+                }
+            }
+
+            for (String prerequisite : readStrings(in)) {
+                builder.requireCompletion(prerequisite);
+            }
+            for (String reward : readStrings(in)) {
+                builder.reward(reward);
+            }
+        }
+        return builder;
+    }
+
+    private static void writeString(DataOutputStream out, String string)
+            throws IOException {
+        out.writeBoolean(string != null);
+        if (string != null) {
+            out.writeUTF(string);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeStrings(DataOutputStream out, String[] strings)
+            throws IOException {
+        out.writeInt(strings.length);
+        for (String string : strings) {
+            writeString(out, string);
+        }
+    }
+
+    private static String[] readStrings(DataInputStream in)
+            throws IOException {
+        String[] result = new String[in.readInt()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = readString(in);
+        }
+        return result;
+    }
+
+    private static byte[] hash(byte[] contents) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(contents);
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A cached quest, or a quest parsed since the cache was loaded, for a
+     * single file.
+     */
+    private static final class Entry {
+        /**
+         * The class name of the {@link QuestLoader} which parsed the file.
+         */
+        private final String loader;
+        /**
+         * The hash of the file's contents.
+         */
+        private final byte[] hash;
+        /**
+         * The encoded quest, or {@code null} if it hasn't been encoded yet.
+         */
+        private final byte[] data;
+        /**
+         * The builder the file was parsed or decoded into, or {@code null} if
+         * the entry was read from the cache file and hasn't been used yet.
+         */
+        private final QuestBuilder builder;
+
+        private Entry(String loader, byte[] hash, byte[] data,
+                QuestBuilder builder) {
+            this.loader = loader;
+            this.hash = hash;
+            this.data = data;
+            this.builder = builder;
+        }
+    }
+
+    /**
+     * Rebuilds quests from the cache where it can, and passes everything else
+     * on to the wrapped {@link QuestLoader}.
+     */
+    private final class CachingLoader implements QuestLoader {
+        private final QuestLoader loader;
+        private final String name;
+
+        private CachingLoader(QuestLoader loader) {
+            this.loader = loader;
+            this.name = loader.getClass().getName();
+        }
+
+        @Override
+        public Map<String, Quest> loadQuests(File directory) {
+            return loader.loadQuests(directory);
+        }
+
+        @Override
+        public List<File> getQuestFiles(File directory) {
+            return loader.getQuestFiles(directory);
+        }
+
+        @Override
+        public QuestBuilder parseQuest(File file) {
+            String path = file.getAbsolutePath();
+            byte[] hash;
+            try {
+                hash = hash(Files.readAllBytes(file.toPath()));
+            } catch (IOException e) {
+                e.printStackTrace();
+                return null;
+            }
+
+            Entry entry = cached.get(path);
+            if (entry != null && entry.loader.equals(name) && Arrays.equals(
+                    entry.hash, hash)) {
+                try {
+                    QuestBuilder builder = decode(entry.data);
+                    used.put(path, new Entry(name, hash, entry.data,
+                            builder));
+                    return builder;
+                } catch (IOException | RuntimeException e) {
+                    // fall back to parsing the file
+                    e.printStackTrace();
+                }
+            }
+
+            QuestBuilder builder = loader.parseQuest(file);
+            if (builder != null) {
+                used.put(path, new Entry(name, hash, null, builder));
+            }
+            return builder;
+        }
+    }
+}
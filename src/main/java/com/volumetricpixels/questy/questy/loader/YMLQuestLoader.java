@@ -17,7 +17,9 @@ import com.volumetricpixels.questy.loading.QuestLoader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -56,11 +58,43 @@ public class YMLQuestLoader implements QuestLoader {
         return result;
     }
 
+    @Override
+    public List<File> getQuestFiles(File directory) {
+        if (directory == null || !directory.isDirectory()) {
+            return null;
+        }
+        return Arrays.asList(directory.listFiles(
+                fl -> checkExtension(fl, "yml")));
+    }
+
+    @Override
+    public QuestBuilder parseQuest(File file) {
+        // Yaml objects aren't threadsafe, so each file gets its own
+        try (InputStream stream = new FileInputStream(file)) {
+            return parseQuest(new Yaml(), stream);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
     public Quest loadQuest(Yaml yaml, InputStream stream) {
+        return parseQuest(yaml, stream).build();
+    }
+
+    private QuestBuilder parseQuest(Yaml yaml, InputStream stream) {
         Map<?, ?> map = (Map<?, ?>) yaml.load(stream);
 
         QuestBuilder builder = QuestBuilder.begin(questManager, map.get("name")
                 .toString());
+        // files defining the same quest may be parsed at the same time
+        synchronized (builder) {
+            readQuest(map, builder);
+        }
+        return builder;
+    }
+
+    private void readQuest(Map<?, ?> map, QuestBuilder builder) {
         builder.description(map.get("description").toString());
 
         Map<?, ?> objectives = (Map) map.get("objectives");
@@ -98,7 +132,5 @@ public class YMLQuestLoader implements QuestLoader {
                 builder.reward(obj.toString());
             }
         }
-
-        return builder.build();
     }
 }
@@ -0,0 +1,49 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.volumetricpixels.questy.storage;
+
+import java.util.Map;
+
+/**
+ * Copies stored progression from one {@link ProgressStore} to another, for
+ * example from files written by {@link
+ * com.volumetricpixels.questy.storage.store.SimpleProgressStore} into a
+ * database, when switching stores.
+ */
+public final class ProgressMigrator {
+    /**
+     * Copies all progression stored in {@code from} into {@code to}, replacing
+     * anything {@code to} already stores. {@code from} is left as it is.
+     *
+     * @param from the store to copy progression from
+     * @param to the store to copy progression into
+     * @return the number of players whose progression was copied
+     */
+    public static int migrate(ProgressStore from, ProgressStore to) {
+        Map<String, Map<String, String>> current = from.loadCurrentQuestData();
+        Map<String, Map<String, String>> completed = from
+                .loadCompletedQuestData();
+        if (current != null) {
+            to.saveCurrentQuestData(current);
+        }
+        if (completed != null) {
+            to.saveCompletedQuestData(completed);
+        }
+
+        int players = current == null ? 0 : current.size();
+        if (completed != null) {
+            for (String player : completed.keySet()) {
+                if (current == null || !current.containsKey(player)) {
+                    players++;
+                }
+            }
+        }
+        return players;
+    }
+
+    private ProgressMigrator() {
+    }
+}
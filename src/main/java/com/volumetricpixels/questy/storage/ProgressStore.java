@@ -5,8 +5,11 @@
  */
 package com.volumetricpixels.questy.storage;
 
+import java.util.HashMap;
 import java.util.Map;
 
+import static com.volumetricpixels.questy.util.General.mergeQuesterData;
+
 /**
  * Stores data about the progression of players into quests and quest chains.
  */
@@ -42,4 +45,89 @@ public interface ProgressStore {
      * @return a {@link Map} of player names to stored quest progression data
      */
     Map<String, Map<String, String>> loadCompletedQuestData();
+
+    /**
+     * Whether this store keeps each player's progression separately, so that
+     * it can be loaded one player at a time through {@link
+     * #loadCurrentQuestData(String)} and {@link
+     * #loadCompletedQuestData(String)}, and saved through {@link
+     * #saveChangedQuestData(Map, Map)}. {@link
+     * com.volumetricpixels.questy.QuestManager}s only hold the progression of
+     * the players they have loaded from such a store, rather than everyone's.
+     *
+     * @return whether players can be loaded individually
+     */
+    default boolean isPerQuester() {
+        return false;
+    }
+
+    /**
+     * Loads the stored quest progression data for the given player. The
+     * default implementation loads everything and picks out the player's.
+     *
+     * @param player the name of the player to load data for
+     * @return a {@link Map} of quest names to serialized progression, which is
+     *         empty if nothing is stored
+     * @throws IllegalStateException if the player's data is stored but can't
+     *         be read
+     */
+    default Map<String, String> loadCurrentQuestData(String player) {
+        Map<String, String> data = loadCurrentQuestData().get(player);
+        return data == null ? new HashMap<>() : data;
+    }
+
+    /**
+     * Loads the stored completed quest data for the given player. The default
+     * implementation loads everything and picks out the player's.
+     *
+     * @param player the name of the player to load data for
+     * @return a {@link Map} of quest names to serialized progression, which is
+     *         empty if nothing is stored
+     * @throws IllegalStateException if the player's data is stored but can't
+     *         be read
+     */
+    default Map<String, String> loadCompletedQuestData(String player) {
+        Map<String, String> data = loadCompletedQuestData().get(player);
+        return data == null ? new HashMap<>() : data;
+    }
+
+    /**
+     * Stores progression data for only the players contained in the given
+     * {@link Map}s, leaving stored data for all other players as it is. Each
+     * {@link Map} is of player names to quest names to serialized progression
+     * data, and replaces everything stored for those players - a player mapped
+     * to an empty {@link Map} has no data. This allows the cost of a save to
+     * depend on how many players' progression has changed rather than on how
+     * many players have progression.
+     *
+     * The default implementation loads all stored data, merges the changes
+     * into it and saves it all again, and should be overridden by
+     * implementations which can do better.
+     *
+     * @param current changed in progress quest data
+     * @param completed changed completed quest data
+     */
+    default void saveChangedQuestData(Map<String, Map<String, String>> current,
+            Map<String, Map<String, String>> completed) {
+        if (!current.isEmpty()) {
+            Map<String, Map<String, String>> all = new HashMap<>(
+                    loadCurrentQuestData());
+            mergeQuesterData(all, current);
+            saveCurrentQuestData(all);
+        }
+        if (!completed.isEmpty()) {
+            Map<String, Map<String, String>> all = new HashMap<>(
+                    loadCompletedQuestData());
+            mergeQuesterData(all, completed);
+            saveCompletedQuestData(all);
+        }
+    }
+
+    /**
+     * Releases any resources held by this store, making sure everything which
+     * has been saved is written. Nothing should be saved after this is called.
+     * The default implementation does nothing.
+     */
+    default void close() {
+    }
 }
@@ -0,0 +1,127 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.volumetricpixels.questy.storage;
+
+import com.volumetricpixels.questy.QuestInstance;
+import com.volumetricpixels.questy.QuestManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A consistent copy of the progression of some questers, captured by {@link
+ * QuestManager#captureChangedProgression()}. Capturing only copies progress
+ * values, so it is cheap enough to do on the thread which updates progression;
+ * the snapshot can then be serialized and saved to its {@link ProgressStore}
+ * on another thread via {@link #save()}. Snapshots are immutable.
+ */
+public final class ProgressionSnapshot {
+    /**
+     * The {@link ProgressStore} the snapshot should be saved to.
+     */
+    private final ProgressStore store;
+    /**
+     * A {@link Map} of quester names to snapshots of their in progress quests.
+     */
+    private final Map<String, List<QuestInstance.Snapshot>> current;
+    /**
+     * A {@link Map} of quester names to quest names to serialized progression
+     * for their completed quests.
+     */
+    private final Map<String, Map<String, String>> completed;
+    /**
+     * Run once the snapshot has been saved, or {@code null}.
+     */
+    private final Runnable onSaved;
+
+    /**
+     * Constructs a new snapshot. The given {@link Map}s must not be modified
+     * after being passed in.
+     *
+     * @param store the {@link ProgressStore} to save the snapshot to
+     * @param current the in progress quests of the captured questers
+     * @param completed the completed quests of the captured questers
+     */
+    public ProgressionSnapshot(ProgressStore store,
+            Map<String, List<QuestInstance.Snapshot>> current,
+            Map<String, Map<String, String>> completed) {
+        this(store, current, completed, null);
+    }
+
+    /**
+     * Constructs a new snapshot. The given {@link Map}s must not be modified
+     * after being passed in.
+     *
+     * @param store the {@link ProgressStore} to save the snapshot to
+     * @param current the in progress quests of the captured questers
+     * @param completed the completed quests of the captured questers
+     * @param onSaved run on the saving thread once the snapshot has been
+     *        saved, may be {@code null}
+     */
+    public ProgressionSnapshot(ProgressStore store,
+            Map<String, List<QuestInstance.Snapshot>> current,
+            Map<String, Map<String, String>> completed, Runnable onSaved) {
+        this.store = store;
+        this.current = current;
+        this.completed = completed;
+        this.onSaved = onSaved;
+    }
+
+    /**
+     * Checks whether this snapshot contains no questers, in which case saving
+     * it does nothing.
+     *
+     * @return whether there is nothing to save
+     */
+    public boolean isEmpty() {
+        return current.isEmpty() && completed.isEmpty();
+    }
+
+    /**
+     * Serializes the captured in progress quests, in the form used by {@link
+     * ProgressStore#saveChangedQuestData(Map, Map)}.
+     *
+     * @return a {@link Map} of quester names to quest names to serialized
+     *         progression
+     */
+    public Map<String, Map<String, String>> getCurrentQuestData() {
+        Map<String, Map<String, String>> result = new HashMap<>();
+        for (Map.Entry<String, List<QuestInstance.Snapshot>> entry : current
+                .entrySet()) {
+            Map<String, String> quests = new HashMap<>();
+            for (QuestInstance.Snapshot instance : entry.getValue()) {
+                quests.put(instance.getQuestName(), instance.serialize());
+            }
+            result.put(entry.getKey(), quests);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the captured completed quests, in the form used by {@link
+     * ProgressStore#saveChangedQuestData(Map, Map)}.
+     *
+     * @return a {@link Map} of quester names to quest names to serialized
+     *         progression
+     */
+    public Map<String, Map<String, String>> getCompletedQuestData() {
+        return completed;
+    }
+
+    /**
+     * Serializes this snapshot and saves it to its {@link ProgressStore}. May
+     * be called from any thread.
+     */
+    public void save() {
+        if (!isEmpty()) {
+            store.saveChangedQuestData(getCurrentQuestData(), completed);
+        }
+        if (onSaved != null) {
+            onSaved.run();
+        }
+    }
+}
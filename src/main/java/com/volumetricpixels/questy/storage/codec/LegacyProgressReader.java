@@ -0,0 +1,84 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.volumetricpixels.questy.storage.codec;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads progression data stored before {@link ProgressEncoder} existed, when
+ * it was written with Java serialization, so that it can be migrated.
+ */
+public final class LegacyProgressReader {
+    /**
+     * Reads progression data from the given file, whichever format it is in.
+     *
+     * @param file the file to read
+     * @return a {@link Map} of player names to quest names to serialized
+     *         progression
+     * @throws IOException if the file can't be read
+     */
+    public static Map<String, Map<String, String>> read(File file)
+            throws IOException {
+        try (InputStream in = new BufferedInputStream(
+                new FileInputStream(file))) {
+            if (ProgressDecoder.isEncoded(in)) {
+                return new ProgressDecoder(in).readAll();
+            }
+            return readSerialized(in);
+        }
+    }
+
+    /**
+     * Reads a Java serialized {@link Map} of player names to quest names to
+     * serialized progression from the given stream.
+     *
+     * @param in the stream to read from
+     * @return the data which was read
+     * @throws IOException if the stream doesn't contain such a {@link Map}
+     */
+    public static Map<String, Map<String, String>> readSerialized(
+            InputStream in) throws IOException {
+        Object read;
+        try {
+            read = new ObjectInputStream(in).readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        }
+        if (!(read instanceof Map)) {
+            throw new IOException("not progression data");
+        }
+
+        // copied so a bad entry fails here rather than later
+        Map<String, Map<String, String>> result = new HashMap<>();
+        try {
+            for (Map.Entry<?, ?> player : ((Map<?, ?>) read).entrySet()) {
+                Map<String, String> quests = new HashMap<>();
+                for (Map.Entry<?, ?> quest : ((Map<?, ?>) player.getValue())
+                        .entrySet()) {
+                    quests.put((String) quest.getKey(),
+                            (String) quest.getValue());
+                }
+                result.put((String) player.getKey(), quests);
+            }
+        } catch (ClassCastException e) {
+            throw new IOException("not progression data", e);
+        }
+        return result;
+    }
+
+    /**
+     * This class never needs to be instantiated.
+     */
+    private LegacyProgressReader() {
+    }
+}
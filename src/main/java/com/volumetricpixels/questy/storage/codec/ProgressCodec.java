@@ -0,0 +1,143 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.volumetricpixels.questy.storage.codec;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Constants and primitive reading and writing shared by {@link
+ * ProgressEncoder} and {@link ProgressDecoder}.
+ *
+ * The format starts with {@link #MAGIC} and a varint version, followed by a
+ * {@link #PLAYER} tag for each player and finally an {@link #END} tag. Each
+ * player has their name, a varint count of quests, then each quest's name
+ * and progression. Quest, objective and outcome names are written through a
+ * dictionary which is built as the stream is written: a name's first use is
+ * written as {@code 0} followed by the name, and later uses as its index plus
+ * one. Progression is written as a {@link #STRUCTURED} quest name, current
+ * objective and list of objectives, each with a name and typed outcome
+ * values; progression which doesn't follow the usual form is written as
+ * {@link #RAW} text so that nothing is ever lost.
+ */
+final class ProgressCodec {
+    /**
+     * The first four bytes of every encoded stream.
+     */
+    static final int MAGIC = 0x51505247;
+    /**
+     * The current version of the format.
+     */
+    static final int VERSION = 1;
+
+    static final int END = 0;
+    static final int PLAYER = 1;
+
+    static final int RAW = 0;
+    static final int STRUCTURED = 1;
+
+    static final int COUNT = 0;
+    static final int VALUE = 1;
+    static final int TEXT = 2;
+
+    /**
+     * The largest string which will be read - anything bigger means
+     * corruption.
+     */
+    private static final int MAX_STRING_LENGTH = 16 * 1024 * 1024;
+
+    static void writeVarInt(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static void writeString(OutputStream out, String value)
+            throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    static int readByte(InputStream in) throws IOException {
+        int read = in.read();
+        if (read < 0) {
+            throw new EOFException();
+        }
+        return read;
+    }
+
+    static int readVarInt(InputStream in) throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int read = readByte(in);
+            result |= (read & 0x7F) << shift;
+            if ((read & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("malformed varint");
+    }
+
+    static long readVarLong(InputStream in) throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            int read = readByte(in);
+            result |= (long) (read & 0x7F) << shift;
+            if ((read & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("malformed varint");
+    }
+
+    static String readString(InputStream in) throws IOException {
+        int length = readVarInt(in);
+        if (length < 0 || length > MAX_STRING_LENGTH) {
+            throw new IOException("malformed string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        int read = 0;
+        while (read < length) {
+            int count = in.read(bytes, read, length - read);
+            if (count < 0) {
+                throw new EOFException();
+            }
+            read += count;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Zig-zag encodes a signed long so small negative numbers stay small.
+     */
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * This class never needs to be instantiated.
+     */
+    private ProgressCodec() {
+    }
+}
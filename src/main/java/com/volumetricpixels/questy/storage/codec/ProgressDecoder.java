@@ -0,0 +1,219 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.volumetricpixels.questy.storage.codec;
+
+import com.volumetricpixels.questy.storage.ProgressStore;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.volumetricpixels.questy.storage.codec.ProgressCodec.*;
+
+/**
+ * Reads progression data written by {@link ProgressEncoder}, in the form used
+ * by {@link ProgressStore}. Players are read one at a time through {@link
+ * #nextPlayer()} and {@link #readQuests()}, or all at once through {@link
+ * #readAll()}. The stream should be buffered, and is never read past the end
+ * of the encoded data.
+ */
+public final class ProgressDecoder implements Closeable {
+    private final InputStream in;
+    /**
+     * Names read so far, in dictionary order.
+     */
+    private final List<String> names = new ArrayList<>();
+    /**
+     * Whether {@link #readQuests()} should be called next.
+     */
+    private boolean inPlayer;
+    private boolean finished;
+
+    /**
+     * Constructs a new decoder, immediately reading the header from the given
+     * {@link InputStream}.
+     *
+     * @param in the stream to read from
+     * @throws IOException if the stream isn't in a supported format
+     */
+    public ProgressDecoder(InputStream in) throws IOException {
+        this.in = in;
+        int magic = 0;
+        for (int i = 0; i < 4; i++) {
+            magic = (magic << 8) | readByte(in);
+        }
+        if (magic != MAGIC) {
+            throw new IOException("not encoded progression");
+        }
+        int version = readVarInt(in);
+        if (version > VERSION) {
+            throw new IOException("unsupported progression version "
+                    + version);
+        }
+    }
+
+    /**
+     * Checks whether the given stream begins with encoded progression, without
+     * consuming any of it.
+     *
+     * @param in a stream which supports {@link InputStream#mark(int)}
+     * @return whether the stream can be read by a {@link ProgressDecoder}
+     * @throws IOException if reading fails
+     */
+    public static boolean isEncoded(InputStream in) throws IOException {
+        in.mark(4);
+        try {
+            int magic = 0;
+            for (int i = 0; i < 4; i++) {
+                int read = in.read();
+                if (read < 0) {
+                    return false;
+                }
+                magic = (magic << 8) | read;
+            }
+            return magic == MAGIC;
+        } finally {
+            in.reset();
+        }
+    }
+
+    /**
+     * Reads all remaining players' data.
+     *
+     * @return a {@link Map} of player names to quest names to serialized
+     *         progression
+     * @throws IOException if reading fails
+     */
+    public Map<String, Map<String, String>> readAll() throws IOException {
+        Map<String, Map<String, String>> result = new HashMap<>();
+        String player;
+        while ((player = nextPlayer()) != null) {
+            result.put(player, readQuests());
+        }
+        return result;
+    }
+
+    /**
+     * Reads the name of the next player, whose data must then be read with
+     * {@link #readQuests()}.
+     *
+     * @return the name of the next player, or {@code null} at the end
+     * @throws IOException if reading fails
+     */
+    public String nextPlayer() throws IOException {
+        if (inPlayer) {
+            throw new IllegalStateException("readQuests() wasn't called");
+        }
+        if (finished) {
+            return null;
+        }
+        int tag = readByte(in);
+        if (tag == END) {
+            finished = true;
+            return null;
+        }
+        if (tag != PLAYER) {
+            throw new IOException("unknown tag " + tag);
+        }
+        inPlayer = true;
+        return readString(in);
+    }
+
+    /**
+     * Reads the data for the player returned by {@link #nextPlayer()}.
+     *
+     * @return a {@link Map} of quest names to serialized progression
+     * @throws IOException if reading fails
+     */
+    public Map<String, String> readQuests() throws IOException {
+        if (!inPlayer) {
+            throw new IllegalStateException("nextPlayer() wasn't called");
+        }
+        int count = readVarInt(in);
+        Map<String, String> quests = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            String quest = readName();
+            quests.put(quest, readProgression());
+        }
+        inPlayer = false;
+        return quests;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private String readName() throws IOException {
+        int index = readVarInt(in);
+        if (index == 0) {
+            String name = readString(in);
+            names.add(name);
+            return name;
+        }
+        if (index > names.size()) {
+            throw new IOException("unknown name " + index);
+        }
+        return names.get(index - 1);
+    }
+
+    private String readProgression() throws IOException {
+        int form = readVarInt(in);
+        if (form == RAW) {
+            return readString(in);
+        }
+        if (form != STRUCTURED) {
+            throw new IOException("unknown progression form " + form);
+        }
+
+        StringBuilder result = new StringBuilder(readName()).append('_');
+        int current = readVarInt(in) - 1;
+        int objectives = readVarInt(in);
+        for (int i = 0; i < objectives; i++) {
+            if (i > 0) {
+                result.append('%');
+            }
+            result.append(readName()).append("//");
+            int outcomes = readVarInt(in);
+            for (int j = 0; j < outcomes; j++) {
+                if (j > 0) {
+                    result.append("&&");
+                }
+                result.append(readName()).append("==");
+                readValue(result);
+            }
+            if (i == current) {
+                result.append("<c>");
+            }
+        }
+        return result.toString();
+    }
+
+    private void readValue(StringBuilder into) throws IOException {
+        int type = readByte(in);
+        switch (type) {
+            case COUNT:
+                into.append(unZigZag(readVarLong(in)));
+                break;
+            case VALUE:
+                long bits = 0;
+                for (int i = 0; i < 8; i++) {
+                    bits = (bits << 8) | readByte(in);
+                }
+                into.append(Double.longBitsToDouble(bits));
+                break;
+            case TEXT:
+                into.append(readString(in));
+                break;
+            default:
+                throw new IOException("unknown value type " + type);
+        }
+    }
+}
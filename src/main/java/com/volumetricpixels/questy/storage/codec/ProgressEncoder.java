@@ -0,0 +1,406 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.volumetricpixels.questy.storage.codec;
+
+import com.volumetricpixels.questy.storage.ProgressStore;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.volumetricpixels.questy.storage.codec.ProgressCodec.*;
+
+/**
+ * Writes progression data, in the form used by {@link ProgressStore}, to an
+ * {@link OutputStream} in Questy's compact binary format. Players are written
+ * one at a time, so the whole data set never needs to be held in one place.
+ * The stream should be buffered. Decode the output with {@link
+ * ProgressDecoder}.
+ */
+public final class ProgressEncoder implements Closeable {
+    private final OutputStream out;
+    /**
+     * Names already written to the stream, mapped to their dictionary index.
+     */
+    private final Map<String, Integer> names = new HashMap<>();
+    /**
+     * Bytes which haven't been written to {@link #out} yet, so that writing a
+     * byte doesn't always mean a call to the stream.
+     */
+    private byte[] buffer = new byte[8192];
+    private int position;
+    /**
+     * The number of quests still to be written for the current player.
+     */
+    private int remaining;
+    private boolean finished;
+
+    /**
+     * Constructs a new encoder, immediately writing the header to the given
+     * {@link OutputStream}.
+     *
+     * @param out the stream to write to
+     * @throws IOException if the header can't be written
+     */
+    public ProgressEncoder(OutputStream out) throws IOException {
+        this.out = out;
+        writeByte(MAGIC >>> 24);
+        writeByte(MAGIC >>> 16);
+        writeByte(MAGIC >>> 8);
+        writeByte(MAGIC);
+        writeVarInt(VERSION);
+    }
+
+    /**
+     * Writes all of the given data.
+     *
+     * @param data a {@link Map} of player names to quest names to serialized
+     *        progression
+     * @throws IOException if writing fails
+     */
+    public void writeAll(Map<String, Map<String, String>> data)
+            throws IOException {
+        for (Map.Entry<String, Map<String, String>> player : data.entrySet()) {
+            writePlayer(player.getKey(), player.getValue());
+        }
+    }
+
+    /**
+     * Writes the given player's data.
+     *
+     * @param player the name of the player
+     * @param quests a {@link Map} of quest names to serialized progression
+     * @throws IOException if writing fails
+     */
+    public void writePlayer(String player, Map<String, String> quests)
+            throws IOException {
+        beginPlayer(player, quests.size());
+        for (Map.Entry<String, String> quest : quests.entrySet()) {
+            writeQuest(quest.getKey(), quest.getValue());
+        }
+    }
+
+    /**
+     * Begins writing a player's data. Exactly {@code quests} calls to {@link
+     * #writeQuest(String, String)} must follow.
+     *
+     * @param player the name of the player
+     * @param quests the number of quests which will be written
+     * @throws IOException if writing fails
+     */
+    public void beginPlayer(String player, int quests) throws IOException {
+        if (finished || remaining != 0) {
+            throw new IllegalStateException("not ready for a player");
+        }
+        writeByte(PLAYER);
+        writeString(player, 0, player.length());
+        writeVarInt(quests);
+        remaining = quests;
+    }
+
+    /**
+     * Writes one quest for the player begun by {@link #beginPlayer(String,
+     * int)}.
+     *
+     * @param quest the name of the quest
+     * @param progression the serialized progression for the quest
+     * @throws IOException if writing fails
+     */
+    public void writeQuest(String quest, String progression)
+            throws IOException {
+        if (remaining == 0) {
+            throw new IllegalStateException("no quests expected");
+        }
+        remaining--;
+        writeName(quest);
+        writeProgression(progression);
+    }
+
+    /**
+     * Writes the end of the stream and flushes it, without closing it.
+     *
+     * @throws IOException if writing fails
+     */
+    public void finish() throws IOException {
+        if (!finished) {
+            if (remaining != 0) {
+                throw new IllegalStateException(remaining
+                        + " quests weren't written");
+            }
+            writeByte(END);
+            drain();
+            out.flush();
+            finished = true;
+        }
+    }
+
+    /**
+     * Finishes the stream and closes it.
+     *
+     * @throws IOException if writing fails
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Writes progression in the form {@code
+     * quest_objective//outcome==value&&outcome==value<c>%objective//...},
+     * where {@code <c>} marks the current objective, as typed values. Anything
+     * which doesn't split up exactly like that is written as it is.
+     *
+     * Parts are found by searching for each separator from the end of the
+     * previous part, so joining the parts back together with the same
+     * separators always gives back the original.
+     */
+    private void writeProgression(String progression) throws IOException {
+        int questEnd = progression.indexOf('_');
+        int current = questEnd < 0 ? -2 : findCurrent(progression,
+                questEnd + 1);
+        if (current == -2) {
+            writeVarInt(RAW);
+            writeString(progression, 0, progression.length());
+            return;
+        }
+
+        writeVarInt(STRUCTURED);
+        writeName(progression.substring(0, questEnd));
+        writeVarInt(current + 1);
+        writeVarInt(count(progression, questEnd + 1, progression.length(),
+                "%"));
+        int from = questEnd + 1;
+        for (int i = 0; ; i++) {
+            int end = indexOf(progression, "%", from, progression.length());
+            int objectiveEnd = i == current ? end - 3 : end;
+            int nameEnd = indexOf(progression, "//", from, objectiveEnd);
+            writeName(progression.substring(from, nameEnd));
+
+            int outcome = nameEnd + 2;
+            writeVarInt(count(progression, outcome, objectiveEnd, "&&"));
+            while (true) {
+                int outcomeEnd = indexOf(progression, "&&", outcome,
+                        objectiveEnd);
+                int valueStart = indexOf(progression, "==", outcome,
+                        outcomeEnd);
+                writeName(progression.substring(outcome, valueStart));
+                writeValue(progression, valueStart + 2, outcomeEnd);
+                if (outcomeEnd == objectiveEnd) {
+                    break;
+                }
+                outcome = outcomeEnd + 2;
+            }
+
+            if (end == progression.length()) {
+                break;
+            }
+            from = end + 1;
+        }
+    }
+
+    /**
+     * Checks that the objectives in the given progression split up as {@link
+     * #writeProgression(String)} expects.
+     *
+     * @return the index of the current objective, {@code -1} if there isn't
+     *         one, or {@code -2} if the progression can't be split up
+     */
+    private static int findCurrent(String progression, int from) {
+        int current = -1;
+        for (int i = 0; ; i++) {
+            int end = indexOf(progression, "%", from, progression.length());
+            int objectiveEnd = end;
+            if (progression.startsWith("<c>", end - 3) && end - 3 >= from) {
+                if (current >= 0) {
+                    return -2;
+                }
+                current = i;
+                objectiveEnd -= 3;
+            }
+
+            int nameEnd = indexOf(progression, "//", from, objectiveEnd);
+            if (nameEnd == objectiveEnd) {
+                return -2;
+            }
+            int outcome = nameEnd + 2;
+            while (true) {
+                int outcomeEnd = indexOf(progression, "&&", outcome,
+                        objectiveEnd);
+                if (indexOf(progression, "==", outcome, outcomeEnd)
+                        == outcomeEnd) {
+                    return -2;
+                }
+                if (outcomeEnd == objectiveEnd) {
+                    break;
+                }
+                outcome = outcomeEnd + 2;
+            }
+
+            if (end == progression.length()) {
+                return current;
+            }
+            from = end + 1;
+        }
+    }
+
+    /**
+     * Writes a value as a count or a fractional value if it is exactly how
+     * {@link Long#toString(long)} or {@link Double#toString(double)} would
+     * write one, or as text otherwise.
+     */
+    private void writeValue(String string, int from, int to)
+            throws IOException {
+        int start = from < to && string.charAt(from) == '-' ? from + 1 : from;
+        int digitsEnd = start;
+        while (digitsEnd < to && isDigit(string.charAt(digitsEnd))) {
+            digitsEnd++;
+        }
+        int digits = digitsEnd - start;
+
+        if (digits > 0 && digitsEnd == to && digits < 19
+                && (digits == 1 || string.charAt(start) != '0')
+                && !(start > from && digits == 1
+                        && string.charAt(start) == '0')) {
+            // canonical whole number - no leading zeros or "-0", and small
+            // enough that it can't overflow
+            long count = 0;
+            for (int i = start; i < to; i++) {
+                count = count * 10 + (string.charAt(i) - '0');
+            }
+            writeByte(COUNT);
+            writeVarLong(zigZag(start > from ? -count : count));
+            return;
+        }
+
+        if (digits > 0 && digitsEnd < to && string.charAt(digitsEnd) == '.') {
+            String value = string.substring(from, to);
+            try {
+                double fraction = Double.parseDouble(value);
+                if (Double.toString(fraction).equals(value)) {
+                    writeByte(VALUE);
+                    long bits = Double.doubleToRawLongBits(fraction);
+                    for (int shift = 56; shift >= 0; shift -= 8) {
+                        writeByte((int) (bits >>> shift));
+                    }
+                    return;
+                }
+            } catch (NumberFormatException ignore) {
+            }
+        }
+        writeByte(TEXT);
+        writeString(string, from, to);
+    }
+
+    private void writeName(String name) throws IOException {
+        Integer index = names.get(name);
+        if (index == null) {
+            writeByte(0);
+            writeString(name, 0, name.length());
+            names.put(name, names.size());
+        } else {
+            writeVarInt(index + 1);
+        }
+    }
+
+    private void writeByte(int value) throws IOException {
+        ensure(1);
+        buffer[position++] = (byte) value;
+    }
+
+    private void writeVarInt(int value) throws IOException {
+        ensure(5);
+        while ((value & ~0x7F) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    /**
+     * Writes part of a {@link String} as a varint byte length followed by its
+     * UTF-8 bytes, copying ASCII directly into the buffer.
+     */
+    private void writeString(String string, int from, int to)
+            throws IOException {
+        int length = to - from;
+        ensure(5 + length);
+        int start = position;
+        writeVarInt(length);
+        for (int i = from; i < to; i++) {
+            char c = string.charAt(i);
+            if (c >= 0x80) {
+                // not ASCII, so the byte length differs
+                position = start;
+                byte[] bytes = string.substring(from, to).getBytes(
+                        StandardCharsets.UTF_8);
+                writeVarInt(bytes.length);
+                ensure(bytes.length);
+                System.arraycopy(bytes, 0, buffer, position, bytes.length);
+                position += bytes.length;
+                return;
+            }
+            buffer[position++] = (byte) c;
+        }
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (position + bytes > buffer.length) {
+            drain();
+            if (bytes > buffer.length) {
+                buffer = new byte[bytes];
+            }
+        }
+    }
+
+    private void drain() throws IOException {
+        out.write(buffer, 0, position);
+        position = 0;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Finds the separator between the given indices, returning {@code to} if
+     * it doesn't occur there.
+     */
+    private static int indexOf(String string, String separator, int from,
+            int to) {
+        int index = string.indexOf(separator, from);
+        return index < 0 || index + separator.length() > to ? to : index;
+    }
+
+    /**
+     * Counts the parts the given range splits into around the separator.
+     */
+    private static int count(String string, int from, int to,
+            String separator) {
+        int count = 1;
+        int index;
+        while ((index = indexOf(string, separator, from, to)) < to) {
+            count++;
+            from = index + separator.length();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,658 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.volumetricpixels.questy.storage.store;
+
+import com.volumetricpixels.questy.storage.ProgressStore;
+import com.volumetricpixels.questy.storage.codec.ProgressDecoder;
+import com.volumetricpixels.questy.storage.codec.ProgressEncoder;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * A {@link ProgressStore} which records each change to progression as a small
+ * record appended to a write-ahead journal, rather than rewriting everything.
+ *
+ * Saves compare the given data with what is already stored and queue one
+ * record per change - a quest being started, its progress being updated
+ * (including moving to another objective), or it being completed or
+ * abandoned. Queued records are written by a background thread with a single
+ * write and sync every commit interval (group commit), so saving never waits
+ * for the disk and at most one commit interval of saved progression can be
+ * lost in a crash.
+ *
+ * On startup the snapshot file is read and the journal replayed over it. Once
+ * the journal grows past the compaction threshold, the background thread
+ * folds it into a new snapshot, written with {@link ProgressEncoder}, which
+ * replaces the old one atomically, and empties the journal. Every record
+ * carries a sequence number and the snapshot records the last one it
+ * contains, so records already in the snapshot are skipped if the journal
+ * wasn't emptied. Each record is checksummed, and a torn record at the end of
+ * the journal is discarded. A snapshot which can't be read stops the store
+ * from opening, rather than being replaced by what the journal holds.
+ *
+ * {@link #close()} must be called to write any queued records before
+ * shutting down.
+ */
+public class JournalProgressStore implements ProgressStore {
+    /**
+     * The default time, in milliseconds, between group commits.
+     */
+    public static final long DEFAULT_COMMIT_INTERVAL = 1000;
+    /**
+     * The default size, in bytes, the journal may grow to before it is
+     * compacted into the snapshot.
+     */
+    public static final long DEFAULT_COMPACT_THRESHOLD = 4 * 1024 * 1024;
+
+    /**
+     * Identifies a snapshot file. The snapshot holds this, the sequence number
+     * of the last record it includes, encoded in progress data, encoded
+     * completed data and a CRC32 of everything before it.
+     */
+    private static final int SNAPSHOT_MAGIC = 0x514A5332;
+    /**
+     * The largest valid record body - anything bigger means corruption.
+     */
+    private static final int MAX_RECORD_LENGTH = 1024 * 1024;
+
+    private final File snapshotFile;
+    private final File journalFile;
+    private final long commitInterval;
+    private final long compactThreshold;
+
+    // everything below is guarded by this
+
+    /**
+     * Player names to quest names to serialized progression, for in progress
+     * quests, as of the last queued record.
+     */
+    private final Map<String, Map<String, String>> current = new HashMap<>();
+    /**
+     * The same for completed quests.
+     */
+    private final Map<String, Map<String, String>> completed = new HashMap<>();
+    /**
+     * Encoded records which haven't been written to the journal yet.
+     */
+    private List<byte[]> pending = new ArrayList<>();
+    /**
+     * The sequence number of the last queued record.
+     */
+    private long sequence;
+    private boolean open;
+    private boolean closed;
+    private FileChannel journal;
+    private ScheduledExecutorService committer;
+
+    // only touched by the committer thread, or by close() once it has stopped
+    private long journalSize;
+
+    public JournalProgressStore(File storageDirectory) {
+        this(storageDirectory, DEFAULT_COMMIT_INTERVAL,
+                DEFAULT_COMPACT_THRESHOLD);
+    }
+
+    /**
+     * Constructs a new journal store using the given directory.
+     *
+     * @param storageDirectory the directory to store the snapshot and journal
+     *        in
+     * @param commitInterval the time, in milliseconds, between group commits
+     * @param compactThreshold the journal size, in bytes, at which it is
+     *        compacted into the snapshot
+     */
+    public JournalProgressStore(File storageDirectory, long commitInterval,
+            long compactThreshold) {
+        if (commitInterval < 1 || compactThreshold < 1) {
+            throw new IllegalArgumentException(
+                    "commitInterval and compactThreshold must be positive");
+        }
+        this.snapshotFile = new File(storageDirectory, "progress.snapshot");
+        this.journalFile = new File(storageDirectory, "progress.journal");
+        this.commitInterval = commitInterval;
+        this.compactThreshold = compactThreshold;
+    }
+
+    /**
+     * Checks whether this store has any files, without opening it.
+     *
+     * @return whether the store has been written to before
+     */
+    public boolean exists() {
+        return snapshotFile.exists() || journalFile.exists();
+    }
+
+    /**
+     * Checks whether this store contains no progression at all, for example
+     * because it has never been saved to.
+     *
+     * @return whether nothing is stored
+     */
+    public synchronized boolean isEmpty() {
+        ensureOpen();
+        return current.isEmpty() && completed.isEmpty();
+    }
+
+    @Override
+    public synchronized void saveCurrentQuestData(
+            Map<String, Map<String, String>> data) {
+        ensureOpen();
+        record(replacing(current, data), new HashMap<>());
+    }
+
+    @Override
+    public synchronized Map<String, Map<String, String>>
+            loadCurrentQuestData() {
+        ensureOpen();
+        return copy(current);
+    }
+
+    @Override
+    public synchronized void saveCompletedQuestData(
+            Map<String, Map<String, String>> data) {
+        ensureOpen();
+        record(new HashMap<>(), replacing(completed, data));
+    }
+
+    @Override
+    public synchronized Map<String, Map<String, String>>
+            loadCompletedQuestData() {
+        ensureOpen();
+        return copy(completed);
+    }
+
+    @Override
+    public synchronized void saveChangedQuestData(
+            Map<String, Map<String, String>> current,
+            Map<String, Map<String, String>> completed) {
+        ensureOpen();
+        record(current, completed);
+    }
+
+    /**
+     * Writes any queued records to the journal and stops the background
+     * thread. Saving after this has been called throws an {@link
+     * IllegalStateException}.
+     */
+    @Override
+    public void close() {
+        ScheduledExecutorService committer;
+        synchronized (this) {
+            if (!open || closed) {
+                closed = true;
+                return;
+            }
+            closed = true;
+            committer = this.committer;
+        }
+
+        committer.shutdown();
+        try {
+            committer.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        commit();
+        try {
+            journal.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Compares the changed data for each player with what is stored, queueing
+     * a record for each difference and applying it.
+     */
+    private void record(Map<String, Map<String, String>> changedCurrent,
+            Map<String, Map<String, String>> changedCompleted) {
+        List<String> players = new ArrayList<>(changedCurrent.keySet());
+        for (String player : changedCompleted.keySet()) {
+            if (!changedCurrent.containsKey(player)) {
+                players.add(player);
+            }
+        }
+
+        for (String player : players) {
+            // copied as applying records modifies the stored maps
+            Map<String, String> oldCurrent = copyQuests(current.get(player));
+            Map<String, String> oldCompleted = copyQuests(
+                    completed.get(player));
+            Map<String, String> newCurrent = changedCurrent
+                    .containsKey(player) ? changedCurrent.get(player) :
+                    oldCurrent;
+            Map<String, String> newCompleted = changedCompleted
+                    .containsKey(player) ? changedCompleted.get(player) :
+                    oldCompleted;
+
+            for (Map.Entry<String, String> quest : newCurrent.entrySet()) {
+                String old = oldCurrent.get(quest.getKey());
+                if (old == null) {
+                    append(Op.START, player, quest.getKey(), quest.getValue());
+                } else if (!old.equals(quest.getValue())) {
+                    append(Op.UPDATE, player, quest.getKey(), quest.getValue());
+                }
+            }
+            for (String quest : oldCurrent.keySet()) {
+                if (newCurrent.containsKey(quest)) {
+                    continue;
+                }
+                String summary = newCompleted.get(quest);
+                if (summary != null
+                        && !summary.equals(oldCompleted.get(quest))) {
+                    append(Op.COMPLETE, player, quest, summary);
+                    oldCompleted.put(quest, summary);
+                } else {
+                    append(Op.ABANDON, player, quest, null);
+                }
+            }
+            for (Map.Entry<String, String> quest : newCompleted.entrySet()) {
+                if (!quest.getValue().equals(
+                        oldCompleted.get(quest.getKey()))) {
+                    append(Op.SET_COMPLETED, player, quest.getKey(),
+                            quest.getValue());
+                }
+            }
+            for (String quest : oldCompleted.keySet()) {
+                if (!newCompleted.containsKey(quest)) {
+                    append(Op.REMOVE_COMPLETED, player, quest, null);
+                }
+            }
+        }
+    }
+
+    private void append(Op op, String player, String quest, String value) {
+        if (closed) {
+            throw new IllegalStateException("store has been closed");
+        }
+        apply(op, player, quest, value);
+        pending.add(encode(++sequence, op, player, quest, value));
+    }
+
+    private void apply(Op op, String player, String quest, String value) {
+        switch (op) {
+            case START:
+            case UPDATE:
+                current.computeIfAbsent(player, k -> new HashMap<>())
+                        .put(quest, value);
+                break;
+            case ABANDON:
+                remove(current, player, quest);
+                break;
+            case COMPLETE:
+                remove(current, player, quest);
+                completed.computeIfAbsent(player, k -> new HashMap<>())
+                        .put(quest, value);
+                break;
+            case SET_COMPLETED:
+                completed.computeIfAbsent(player, k -> new HashMap<>())
+                        .put(quest, value);
+                break;
+            case REMOVE_COMPLETED:
+                remove(completed, player, quest);
+                break;
+        }
+    }
+
+    /**
+     * Writes queued records to the journal in one go and syncs it, compacting
+     * afterwards if the journal has grown large enough.
+     */
+    private void commit() {
+        List<byte[]> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new ArrayList<>();
+        }
+
+        int size = 0;
+        for (byte[] record : batch) {
+            size += record.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        for (byte[] record : batch) {
+            buffer.put(record);
+        }
+        buffer.flip();
+
+        try {
+            if (journal.size() > journalSize) {
+                // part of a batch which failed to be written, which would
+                // end replay early if records were appended after it
+                journal.truncate(journalSize);
+            }
+            while (buffer.hasRemaining()) {
+                journal.write(buffer);
+            }
+            journal.force(false);
+            journalSize += size;
+        } catch (IOException e) {
+            e.printStackTrace();
+            // keep the records for the next commit rather than losing them
+            synchronized (this) {
+                batch.addAll(pending);
+                pending = batch;
+            }
+            return;
+        }
+
+        if (journalSize >= compactThreshold) {
+            compact();
+        }
+    }
+
+    /**
+     * Folds everything stored into a new snapshot and empties the journal.
+     * Records queued while this happens are already included in the
+     * snapshot, but are still written to the journal afterwards - they are
+     * skipped on replay because of their sequence numbers.
+     */
+    private void compact() {
+        Map<String, Map<String, String>> current;
+        Map<String, Map<String, String>> completed;
+        long sequence;
+        synchronized (this) {
+            current = copy(this.current);
+            completed = copy(this.completed);
+            sequence = this.sequence;
+        }
+
+        File temp = new File(snapshotFile.getPath() + ".tmp");
+        try (FileOutputStream fileOut = new FileOutputStream(temp)) {
+            DataOutputStream buffered = new DataOutputStream(
+                    new BufferedOutputStream(fileOut));
+            CheckedOutputStream checked = new CheckedOutputStream(buffered,
+                    new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(sequence);
+            ProgressEncoder encoder = new ProgressEncoder(checked);
+            encoder.writeAll(current);
+            encoder.finish();
+            encoder = new ProgressEncoder(checked);
+            encoder.writeAll(completed);
+            encoder.finish();
+            buffered.writeInt((int) checked.getChecksum().getValue());
+            buffered.flush();
+            fileOut.getFD().sync();
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        try {
+            Files.move(temp.toPath(), snapshotFile.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+            journal.truncate(0);
+            journal.force(false);
+            journalSize = 0;
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Reads the snapshot and replays the journal over it, the first time the
+     * store is used, then starts the background thread.
+     */
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("store has been closed");
+        }
+        if (open) {
+            return;
+        }
+
+        long snapshotSequence = 0;
+        if (snapshotFile.exists()) {
+            try (DataInputStream buffered = new DataInputStream(
+                    new BufferedInputStream(
+                            new FileInputStream(snapshotFile)))) {
+                CheckedInputStream checked = new CheckedInputStream(buffered,
+                        new CRC32());
+                DataInputStream in = new DataInputStream(checked);
+                if (in.readInt() != SNAPSHOT_MAGIC) {
+                    throw new IOException("not a progress snapshot: "
+                            + snapshotFile);
+                }
+                long snapshotSeq = in.readLong();
+                Map<String, Map<String, String>> current = new ProgressDecoder(
+                        checked).readAll();
+                Map<String, Map<String, String>> completed =
+                        new ProgressDecoder(checked).readAll();
+                if ((int) checked.getChecksum().getValue() != buffered
+                        .readInt()) {
+                    throw new IOException("corrupt progress snapshot: "
+                            + snapshotFile);
+                }
+                this.current.putAll(current);
+                this.completed.putAll(completed);
+                snapshotSequence = snapshotSeq;
+            } catch (IOException e) {
+                // the next compaction would replace it with only the journal
+                throw new IllegalStateException(
+                        "couldn't read progress snapshot", e);
+            }
+        }
+        sequence = snapshotSequence;
+
+        try {
+            journalFile.getParentFile().mkdirs();
+            long valid = 0;
+            if (journalFile.exists()) {
+                try (DataInputStream in = new DataInputStream(
+                        new BufferedInputStream(
+                                new FileInputStream(journalFile)))) {
+                    valid = replay(in, snapshotSequence);
+                }
+            }
+            journal = FileChannel.open(journalFile.toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            if (journal.size() > valid) {
+                // a torn or corrupt tail from a crash mid-write
+                journal.truncate(valid);
+            }
+            journalSize = valid;
+        } catch (IOException e) {
+            throw new IllegalStateException("couldn't open progress journal",
+                    e);
+        }
+
+        committer = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "Questy-Journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        committer.scheduleWithFixedDelay(this::commit, commitInterval,
+                commitInterval, TimeUnit.MILLISECONDS);
+        open = true;
+    }
+
+    /**
+     * Applies records from the given stream until it ends or a bad record is
+     * found, skipping those with a sequence number no greater than {@code
+     * after}.
+     *
+     * @return the number of bytes of valid records read
+     */
+    private long replay(DataInputStream in, long after) throws IOException {
+        long valid = 0;
+        CRC32 crc = new CRC32();
+        while (true) {
+            int length;
+            try {
+                length = in.readInt();
+            } catch (EOFException e) {
+                return valid;
+            }
+            if (length < 0 || length > MAX_RECORD_LENGTH) {
+                return valid;
+            }
+
+            byte[] body = new byte[length];
+            int checksum;
+            try {
+                in.readFully(body);
+                checksum = in.readInt();
+            } catch (EOFException e) {
+                return valid;
+            }
+            crc.reset();
+            crc.update(body, 0, length);
+            if ((int) crc.getValue() != checksum) {
+                return valid;
+            }
+
+            DataInputStream record = new DataInputStream(
+                    new ByteArrayInputStream(body));
+            long seq = record.readLong();
+            Op op = Op.byCode(record.readByte());
+            if (op == null) {
+                return valid;
+            }
+            String player = record.readUTF();
+            String quest = record.readUTF();
+            String value = op.hasValue ? record.readUTF() : null;
+            if (seq > after) {
+                apply(op, player, quest, value);
+            }
+            sequence = Math.max(sequence, seq);
+            valid += 8 + length;
+        }
+    }
+
+    /**
+     * Encodes a record as its length, its body and a CRC32 of the body.
+     */
+    private static byte[] encode(long seq, Op op, String player, String quest,
+            String value) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream body = new DataOutputStream(bytes);
+            body.writeLong(seq);
+            body.writeByte(op.code);
+            body.writeUTF(player);
+            body.writeUTF(quest);
+            if (op.hasValue) {
+                body.writeUTF(value);
+            }
+
+            byte[] encoded = bytes.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(encoded, 0, encoded.length);
+            return ByteBuffer.allocate(encoded.length + 8)
+                    .putInt(encoded.length).put(encoded)
+                    .putInt((int) crc.getValue()).array();
+        } catch (IOException e) {
+            // can't happen when writing to a byte array
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Builds changes which make the stored data equal to {@code data}, by
+     * mapping players which are stored but not in {@code data} to nothing.
+     */
+    private static Map<String, Map<String, String>> replacing(
+            Map<String, Map<String, String>> stored,
+            Map<String, Map<String, String>> data) {
+        Map<String, Map<String, String>> changes = new HashMap<>(data);
+        for (String player : stored.keySet()) {
+            changes.putIfAbsent(player, new HashMap<>());
+        }
+        return changes;
+    }
+
+    private static void remove(Map<String, Map<String, String>> data,
+            String player, String quest) {
+        Map<String, String> quests = data.get(player);
+        if (quests != null) {
+            quests.remove(quest);
+            if (quests.isEmpty()) {
+                data.remove(player);
+            }
+        }
+    }
+
+    private static Map<String, String> copyQuests(Map<String, String> quests) {
+        return quests == null ? new HashMap<>() : new HashMap<>(quests);
+    }
+
+    private static Map<String, Map<String, String>> copy(
+            Map<String, Map<String, String>> data) {
+        Map<String, Map<String, String>> result = new HashMap<>();
+        for (Map.Entry<String, Map<String, String>> entry : data.entrySet()) {
+            result.put(entry.getKey(), new HashMap<>(entry.getValue()));
+        }
+        return result;
+    }
+
+    /**
+     * The kinds of record stored in the journal. Codes must never change.
+     */
+    private enum Op {
+        START(1, true),
+        /**
+         * Progress in a quest was updated, or it moved to another objective.
+         */
+        UPDATE(2, true),
+        ABANDON(3, false),
+        /**
+         * A quest was completed, so is removed from the in progress quests
+         * and added to the completed ones.
+         */
+        COMPLETE(4, true),
+        SET_COMPLETED(5, true),
+        REMOVE_COMPLETED(6, false);
+
+        private final byte code;
+        private final boolean hasValue;
+
+        Op(int code, boolean hasValue) {
+            this.code = (byte) code;
+            this.hasValue = hasValue;
+        }
+
+        private static Op byCode(byte code) {
+            for (Op op : values()) {
+                if (op.code == code) {
+                    return op;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,288 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.volumetricpixels.questy.storage.store;
+
+import com.volumetricpixels.questy.storage.ProgressStore;
+import com.volumetricpixels.questy.storage.codec.ProgressDecoder;
+import com.volumetricpixels.questy.storage.codec.ProgressEncoder;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@link ProgressStore} which keeps each player's progression in a file of
+ * its own, written with {@link ProgressEncoder}, so that players can be
+ * loaded and saved individually. {@link com.volumetricpixels.questy.QuestManager}s
+ * using this store load a player's progression when they're needed rather
+ * than everyone's at startup, so neither startup time nor memory use grow
+ * with the number of players who have ever had progression.
+ *
+ * Files are spread over 256 subdirectories by a hash of the player's name,
+ * and are replaced atomically when saved. Different players may be loaded
+ * and saved concurrently. A file which can't be read fails the load of its
+ * player rather than reading as empty, so it isn't saved over.
+ */
+public class ShardedProgressStore implements ProgressStore {
+    /**
+     * The number of locks players are spread over.
+     */
+    private static final int STRIPES = 64;
+    private static final String EXTENSION = ".dat";
+
+    private final File directory;
+    private final Object[] locks;
+
+    public ShardedProgressStore(File storageDirectory) {
+        this.directory = new File(storageDirectory, "players");
+        this.locks = new Object[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    @Override
+    public boolean isPerQuester() {
+        return true;
+    }
+
+    /**
+     * Checks whether this store contains no progression at all, for example
+     * because it has never been saved to.
+     *
+     * @return whether nothing is stored
+     */
+    public boolean isEmpty() {
+        File[] buckets = directory.listFiles(File::isDirectory);
+        if (buckets != null) {
+            for (File bucket : buckets) {
+                File[] files = bucket.listFiles(
+                        file -> file.getName().endsWith(EXTENSION));
+                if (files != null && files.length > 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Map<String, String> loadCurrentQuestData(String player) {
+        return load(player).current;
+    }
+
+    @Override
+    public Map<String, String> loadCompletedQuestData(String player) {
+        return load(player).completed;
+    }
+
+    @Override
+    public void saveChangedQuestData(Map<String, Map<String, String>> current,
+            Map<String, Map<String, String>> completed) {
+        Set<String> players = new HashSet<>(current.keySet());
+        players.addAll(completed.keySet());
+        for (String player : players) {
+            save(player, current.get(player), completed.get(player));
+        }
+    }
+
+    // the methods below deal with every player, so visit every file
+
+    @Override
+    public void saveCurrentQuestData(Map<String, Map<String, String>> data) {
+        Set<String> players = new HashSet<>(data.keySet());
+        players.addAll(loadAll().keySet());
+        for (String player : players) {
+            Map<String, String> quests = data.get(player);
+            save(player, quests == null ? new HashMap<>() : quests, null);
+        }
+    }
+
+    @Override
+    public Map<String, Map<String, String>> loadCurrentQuestData() {
+        Map<String, Map<String, String>> result = new HashMap<>();
+        for (Map.Entry<String, Record> entry : loadAll().entrySet()) {
+            if (!entry.getValue().current.isEmpty()) {
+                result.put(entry.getKey(), entry.getValue().current);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void saveCompletedQuestData(Map<String, Map<String, String>> data) {
+        Set<String> players = new HashSet<>(data.keySet());
+        players.addAll(loadAll().keySet());
+        for (String player : players) {
+            Map<String, String> quests = data.get(player);
+            save(player, null, quests == null ? new HashMap<>() : quests);
+        }
+    }
+
+    @Override
+    public Map<String, Map<String, String>> loadCompletedQuestData() {
+        Map<String, Map<String, String>> result = new HashMap<>();
+        for (Map.Entry<String, Record> entry : loadAll().entrySet()) {
+            if (!entry.getValue().completed.isEmpty()) {
+                result.put(entry.getKey(), entry.getValue().completed);
+            }
+        }
+        return result;
+    }
+
+    private Record load(String player) {
+        File file = fileFor(player);
+        synchronized (lockFor(player)) {
+            if (!file.exists()) {
+                return new Record(new HashMap<>(), new HashMap<>());
+            }
+            try {
+                return read(file);
+            } catch (IOException e) {
+                throw new IllegalStateException(
+                        "couldn't read progression of " + player, e);
+            }
+        }
+    }
+
+    /**
+     * Replaces the given player's stored data, keeping whichever of the two
+     * {@link Map}s is {@code null} as it is.
+     */
+    private void save(String player, Map<String, String> current,
+            Map<String, String> completed) {
+        File file = fileFor(player);
+        synchronized (lockFor(player)) {
+            try {
+                if (current == null || completed == null) {
+                    Record stored = file.exists() ? read(file) : new Record(
+                            new HashMap<>(), new HashMap<>());
+                    current = current == null ? stored.current : current;
+                    completed = completed == null ? stored.completed :
+                            completed;
+                }
+
+                if (current.isEmpty() && completed.isEmpty()) {
+                    Files.deleteIfExists(file.toPath());
+                    return;
+                }
+
+                file.getParentFile().mkdirs();
+                File temp = new File(file.getPath() + ".tmp");
+                try (ProgressEncoder encoder = new ProgressEncoder(
+                        new BufferedOutputStream(
+                                new FileOutputStream(temp)))) {
+                    encoder.writePlayer(player, current);
+                    encoder.writePlayer(player, completed);
+                }
+                Files.move(temp.toPath(), file.toPath(),
+                        StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private Map<String, Record> loadAll() {
+        Map<String, Record> result = new HashMap<>();
+        File[] buckets = directory.listFiles(File::isDirectory);
+        if (buckets == null) {
+            return result;
+        }
+        for (File bucket : buckets) {
+            File[] files = bucket.listFiles(
+                    file -> file.getName().endsWith(EXTENSION));
+            if (files == null) {
+                continue;
+            }
+            for (File file : files) {
+                try {
+                    Record record = read(file);
+                    result.put(record.player, record);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+        return result;
+    }
+
+    private static Record read(File file) throws IOException {
+        try (InputStream in = new BufferedInputStream(
+                new FileInputStream(file))) {
+            ProgressDecoder decoder = new ProgressDecoder(in);
+            String player = decoder.nextPlayer();
+            Map<String, String> current = decoder.readQuests();
+            decoder.nextPlayer();
+            Map<String, String> completed = decoder.readQuests();
+            return new Record(player, current, completed);
+        } catch (IllegalStateException e) {
+            // a player entry was missing
+            throw new IOException("malformed progression file " + file, e);
+        }
+    }
+
+    private File fileFor(String player) {
+        String bucket = String.format("%02x", player.hashCode() & 0xff);
+        return new File(new File(directory, bucket),
+                encodeName(player) + EXTENSION);
+    }
+
+    private Object lockFor(String player) {
+        return locks[(player.hashCode() & Integer.MAX_VALUE) % STRIPES];
+    }
+
+    /**
+     * Makes a file name from a player's name which is the same on every
+     * file system. Lower case letters, digits, '-' and '_' are kept as they
+     * are, which covers UUIDs, and anything else is escaped.
+     */
+    private static String encodeName(String player) {
+        StringBuilder result = new StringBuilder(player.length());
+        for (int i = 0; i < player.length(); i++) {
+            char c = player.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-'
+                    || c == '_') {
+                result.append(c);
+            } else {
+                result.append('%').append(String.format("%04x", (int) c));
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * The stored data of a single player.
+     */
+    private static final class Record {
+        private final String player;
+        private final Map<String, String> current;
+        private final Map<String, String> completed;
+
+        private Record(Map<String, String> current,
+                Map<String, String> completed) {
+            this(null, current, completed);
+        }
+
+        private Record(String player, Map<String, String> current,
+                Map<String, String> completed) {
+            this.player = player;
+            this.current = current;
+            this.completed = completed;
+        }
+    }
+}
@@ -6,21 +6,31 @@
 package com.volumetricpixels.questy.storage.store;
 
 import com.volumetricpixels.questy.storage.ProgressStore;
-import com.volumetricpixels.questy.util.Serialization;
+import com.volumetricpixels.questy.storage.codec.LegacyProgressReader;
+import com.volumetricpixels.questy.storage.codec.ProgressEncoder;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
+import static com.volumetricpixels.questy.util.General.mergeQuesterData;
+
 /**
- * Simple implementation of a {@link ProgressStore} which uses the Java serialization API to write Map objects to files. Not advisable for use in a production environment, this is
+ * Simple implementation of a {@link ProgressStore} which uses {@link ProgressEncoder} to write Map objects to files. Files written with the Java serialization
+ * API by older versions are still read, and are rewritten in the new format when next saved. Not advisable for use in a production environment, this is
  * simply a way of testing the framework and alternatives will be implemented before release.
  */
 // this file doesn't really need documenting beyond the above
 public class SimpleProgressStore implements ProgressStore {
     private final File currentStore;
     private final File completedStore;
+    // what is currently stored in each file, so incremental saves don't have
+    // to read the file back - null until first loaded or saved
+    private Map<String, Map<String, String>> currentImage;
+    private Map<String, Map<String, String>> completedImage;
 
     public SimpleProgressStore(File storageDirectory) {
         this(new File(storageDirectory, "current"),
@@ -32,32 +42,70 @@ public class SimpleProgressStore implements ProgressStore {
         this.completedStore = completedStore;
     }
 
+    // whether anything has ever been saved here
+    public boolean exists() {
+        return currentStore.exists() || completedStore.exists();
+    }
+
+    @Override
+    public synchronized void saveCurrentQuestData(
+            Map<String, Map<String, String>> data) {
+        currentImage = new HashMap<>(data);
+        doSaveData(currentStore, currentImage);
+    }
+
     @Override
-    public void saveCurrentQuestData(Map<String, Map<String, String>> data) {
-        doSaveData(currentStore, data);
+    public synchronized Map<String, Map<String, String>> loadCurrentQuestData() {
+        Map<String, Map<String, String>> data = doLoadData(currentStore);
+        currentImage = data == null ? null : new HashMap<>(data);
+        return data;
     }
 
     @Override
-    public Map<String, Map<String, String>> loadCurrentQuestData() {
-        return doLoadData(currentStore);
+    public synchronized void saveCompletedQuestData(
+            Map<String, Map<String, String>> data) {
+        completedImage = new HashMap<>(data);
+        doSaveData(completedStore, completedImage);
     }
 
     @Override
-    public void saveCompletedQuestData(Map<String, Map<String, String>> data) {
-        doSaveData(completedStore, data);
+    public synchronized Map<String, Map<String, String>> loadCompletedQuestData() {
+        Map<String, Map<String, String>> data = doLoadData(completedStore);
+        completedImage = data == null ? null : new HashMap<>(data);
+        return data;
     }
 
+    // files are only rewritten if something in them changed, and unchanged
+    // players' data is reused from the image rather than re-serialized
     @Override
-    public Map<String, Map<String, String>> loadCompletedQuestData() {
-        return doLoadData(completedStore);
+    public synchronized void saveChangedQuestData(
+            Map<String, Map<String, String>> current,
+            Map<String, Map<String, String>> completed) {
+        if (!current.isEmpty()) {
+            if (currentImage == null) {
+                loadCurrentQuestData();
+            }
+            if (currentImage != null) {
+                mergeQuesterData(currentImage, current);
+                doSaveData(currentStore, currentImage);
+            }
+        }
+        if (!completed.isEmpty()) {
+            if (completedImage == null) {
+                loadCompletedQuestData();
+            }
+            if (completedImage != null) {
+                mergeQuesterData(completedImage, completed);
+                doSaveData(completedStore, completedImage);
+            }
+        }
     }
 
     private void doSaveData(File file, Map<String, Map<String, String>> data) {
-        try {
-            file.getParentFile().mkdirs();
-            file.delete();
-            file.createNewFile();
-            Serialization.writeObject(file, data);
+        file.getParentFile().mkdirs();
+        try (ProgressEncoder encoder = new ProgressEncoder(
+                new BufferedOutputStream(new FileOutputStream(file)))) {
+            encoder.writeAll(data);
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -70,8 +118,8 @@ public class SimpleProgressStore implements ProgressStore {
         }
 
         try {
-            return (Map) Serialization.readObject(file);
-        } catch (Exception e) {
+            return LegacyProgressReader.read(file);
+        } catch (IOException e) {
             e.printStackTrace();
             return null;
         }
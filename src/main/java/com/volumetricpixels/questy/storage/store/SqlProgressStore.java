@@ -0,0 +1,626 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.volumetricpixels.questy.storage.store;
+
+import com.volumetricpixels.questy.storage.ProgressStore;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A {@link ProgressStore} which keeps progression in a SQL database through
+ * JDBC, such as an embedded SQLite or H2 database or a MySQL server. Any
+ * database with a JDBC driver on the classpath can be used.
+ *
+ * Each quest instance is a row in {@code questy_quest}, and the progress in
+ * each of its outcomes is a row in {@code questy_outcome}, so both can be
+ * looked up by quester or by quest through an index rather than by loading
+ * everything. Progression which doesn't split up into objectives and outcomes
+ * is kept as it is in the quest row. Saves replace the rows of each changed
+ * player in a single transaction using batched statements.
+ *
+ * A small fixed pool of connections is kept open, so different players may be
+ * loaded and saved concurrently where the database allows it.
+ */
+public class SqlProgressStore implements ProgressStore {
+    /**
+     * The default number of pooled connections.
+     */
+    public static final int DEFAULT_POOL_SIZE = 2;
+
+    private static final String QUEST_TABLE = "questy_quest";
+    private static final String OUTCOME_TABLE = "questy_outcome";
+
+    private static final String[] CREATE = {
+            "CREATE TABLE " + QUEST_TABLE + " ("
+                    + "quester VARCHAR(64) NOT NULL, "
+                    + "quest VARCHAR(128) NOT NULL, "
+                    + "completed SMALLINT NOT NULL, "
+                    + "current_objective INTEGER NOT NULL, "
+                    + "raw VARCHAR(8192), "
+                    + "PRIMARY KEY (quester, completed, quest))",
+            "CREATE INDEX questy_quest_by_quest ON " + QUEST_TABLE
+                    + " (quest, completed)",
+            "CREATE TABLE " + OUTCOME_TABLE + " ("
+                    + "quester VARCHAR(64) NOT NULL, "
+                    + "quest VARCHAR(128) NOT NULL, "
+                    + "completed SMALLINT NOT NULL, "
+                    + "objective_index INTEGER NOT NULL, "
+                    + "objective VARCHAR(128) NOT NULL, "
+                    + "outcome_index INTEGER NOT NULL, "
+                    + "outcome VARCHAR(128) NOT NULL, "
+                    + "value VARCHAR(1024) NOT NULL, "
+                    + "PRIMARY KEY (quester, completed, quest, "
+                    + "objective_index, outcome_index))"
+    };
+
+    private static final String SELECT_QUESTS = "SELECT quester, quest, "
+            + "current_objective, raw FROM " + QUEST_TABLE
+            + " WHERE completed = ?";
+    private static final String SELECT_OUTCOMES = "SELECT quester, quest, "
+            + "objective_index, objective, outcome_index, outcome, value FROM "
+            + OUTCOME_TABLE + " WHERE completed = ?";
+    private static final String BY_QUESTER = " AND quester = ?";
+    private static final String OUTCOME_ORDER = " ORDER BY quester, quest, "
+            + "objective_index, outcome_index";
+
+    private static final String INSERT_QUEST = "INSERT INTO " + QUEST_TABLE
+            + " (quester, quest, completed, current_objective, raw) "
+            + "VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_OUTCOME = "INSERT INTO " + OUTCOME_TABLE
+            + " (quester, quest, completed, objective_index, objective, "
+            + "outcome_index, outcome, value) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * {@code current_objective} for progression which is kept as it is.
+     */
+    private static final int RAW = -2;
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final BlockingQueue<Connection> pool;
+
+    /**
+     * Opens a pool of connections to the database at the given JDBC url,
+     * creating the tables if they don't exist.
+     *
+     * @param url the JDBC url of the database
+     * @param user the user to connect as, or {@code null}
+     * @param password the user's password, or {@code null}
+     * @param poolSize the number of connections to keep open
+     * @throws SQLException if the database can't be connected to
+     */
+    public SqlProgressStore(String url, String user, String password,
+            int poolSize) throws SQLException {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("poolSize must be positive");
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.pool = new ArrayBlockingQueue<>(poolSize);
+        try {
+            for (int i = 0; i < poolSize; i++) {
+                pool.add(open());
+            }
+            Connection connection = pool.peek();
+            if (!tableExists(connection, QUEST_TABLE)) {
+                try (Statement statement = connection.createStatement()) {
+                    for (String create : CREATE) {
+                        statement.executeUpdate(create);
+                    }
+                }
+                connection.commit();
+            }
+        } catch (SQLException e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean isPerQuester() {
+        return true;
+    }
+
+    /**
+     * Checks whether this store contains no progression at all, for example
+     * because it has never been saved to.
+     *
+     * @return whether nothing is stored
+     */
+    public boolean isEmpty() {
+        Connection connection = acquire();
+        try (Statement statement = connection.createStatement()) {
+            statement.setMaxRows(1);
+            try (ResultSet result = statement.executeQuery(
+                    "SELECT quester FROM " + QUEST_TABLE)) {
+                return !result.next();
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        } finally {
+            release(connection);
+        }
+    }
+
+    /**
+     * Gets the players who have progression in the quest with the given name,
+     * using the index on quest names.
+     *
+     * @param quest the name of the quest
+     * @param completed whether to find players who have completed the quest
+     *        rather than players who are in the middle of it
+     * @return the names of the players found
+     */
+    public Set<String> getQuesters(String quest, boolean completed) {
+        Set<String> result = new HashSet<>();
+        Connection connection = acquire();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT quester FROM " + QUEST_TABLE
+                        + " WHERE quest = ? AND completed = ?")) {
+            statement.setString(1, quest);
+            statement.setInt(2, completed ? 1 : 0);
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    result.add(rows.getString(1));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } finally {
+            release(connection);
+        }
+        return result;
+    }
+
+    @Override
+    public void saveCurrentQuestData(Map<String, Map<String, String>> data) {
+        replace(data, null, true);
+    }
+
+    @Override
+    public Map<String, Map<String, String>> loadCurrentQuestData() {
+        return load(null, false);
+    }
+
+    @Override
+    public void saveCompletedQuestData(Map<String, Map<String, String>> data) {
+        replace(null, data, true);
+    }
+
+    @Override
+    public Map<String, Map<String, String>> loadCompletedQuestData() {
+        return load(null, true);
+    }
+
+    @Override
+    public Map<String, String> loadCurrentQuestData(String player) {
+        Map<String, String> data = load(player, false).get(player);
+        return data == null ? new HashMap<>() : data;
+    }
+
+    @Override
+    public Map<String, String> loadCompletedQuestData(String player) {
+        Map<String, String> data = load(player, true).get(player);
+        return data == null ? new HashMap<>() : data;
+    }
+
+    @Override
+    public void saveChangedQuestData(Map<String, Map<String, String>> current,
+            Map<String, Map<String, String>> completed) {
+        // together, so that a completed quest can't be lost in between
+        replace(current.isEmpty() ? null : current,
+                completed.isEmpty() ? null : completed, false);
+    }
+
+    @Override
+    public void close() {
+        Connection connection;
+        while ((connection = pool.poll()) != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Loads the progression of the given player, or of every player if it is
+     * {@code null}. A failed query throws rather than giving what had been
+     * read so far, which would be saved back over the rest.
+     */
+    private Map<String, Map<String, String>> load(String player,
+            boolean completed) {
+        Map<String, Map<String, String>> result = new HashMap<>();
+        Map<String, Map<String, StringBuilder>> built = new HashMap<>();
+        String filter = player == null ? "" : BY_QUESTER;
+        Connection connection = acquire();
+        try {
+            // the current objective of each structured quest
+            Map<String, Map<String, Integer>> currents = new HashMap<>();
+            try (PreparedStatement statement = connection.prepareStatement(
+                    SELECT_QUESTS + filter)) {
+                bind(statement, player, completed);
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        String quester = rows.getString(1);
+                        String quest = rows.getString(2);
+                        int current = rows.getInt(3);
+                        if (current == RAW) {
+                            result.computeIfAbsent(quester,
+                                    k -> new HashMap<>())
+                                    .put(quest, rows.getString(4));
+                        } else {
+                            currents.computeIfAbsent(quester,
+                                    k -> new HashMap<>()).put(quest, current);
+                        }
+                    }
+                }
+            }
+
+            try (PreparedStatement statement = connection.prepareStatement(
+                    SELECT_OUTCOMES + filter + OUTCOME_ORDER)) {
+                bind(statement, player, completed);
+                try (ResultSet rows = statement.executeQuery()) {
+                    String lastQuester = null;
+                    String lastQuest = null;
+                    StringBuilder progression = null;
+                    int current = -1;
+                    int objective = -1;
+                    while (rows.next()) {
+                        String quester = rows.getString(1);
+                        String quest = rows.getString(2);
+                        if (!quester.equals(lastQuester)
+                                || !quest.equals(lastQuest)) {
+                            finish(progression, objective, current);
+                            Integer found = currents.getOrDefault(quester,
+                                    new HashMap<>()).get(quest);
+                            if (found == null) {
+                                // outcomes without a quest row are ignored
+                                progression = null;
+                                lastQuester = lastQuest = null;
+                                continue;
+                            }
+                            progression = new StringBuilder(quest)
+                                    .append('_');
+                            built.computeIfAbsent(quester,
+                                    k -> new HashMap<>())
+                                    .put(quest, progression);
+                            lastQuester = quester;
+                            lastQuest = quest;
+                            current = found;
+                            objective = -1;
+                        }
+
+                        int objectiveIndex = rows.getInt(3);
+                        if (objectiveIndex != objective) {
+                            if (objective >= 0) {
+                                finish(progression, objective, current);
+                                progression.append('%');
+                            }
+                            progression.append(rows.getString(4))
+                                    .append("//");
+                            objective = objectiveIndex;
+                        } else {
+                            progression.append("&&");
+                        }
+                        progression.append(rows.getString(6)).append("==")
+                                .append(rows.getString(7));
+                    }
+                    finish(progression, objective, current);
+                }
+            }
+
+            // quests which didn't have any outcome rows
+            for (Map.Entry<String, Map<String, Integer>> quester : currents
+                    .entrySet()) {
+                for (String quest : quester.getValue().keySet()) {
+                    built.computeIfAbsent(quester.getKey(),
+                            k -> new HashMap<>()).computeIfAbsent(quest,
+                            k -> new StringBuilder(quest).append('_'));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("couldn't load progression", e);
+        } finally {
+            release(connection);
+        }
+
+        for (Map.Entry<String, Map<String, StringBuilder>> quester : built
+                .entrySet()) {
+            Map<String, String> quests = result.computeIfAbsent(
+                    quester.getKey(), k -> new HashMap<>());
+            for (Map.Entry<String, StringBuilder> quest : quester.getValue()
+                    .entrySet()) {
+                quests.put(quest.getKey(), quest.getValue().toString());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Marks the objective just written as the current one, if it is.
+     */
+    private static void finish(StringBuilder progression, int objective,
+            int current) {
+        if (progression != null && objective >= 0 && objective == current) {
+            progression.append("<c>");
+        }
+    }
+
+    private static void bind(PreparedStatement statement, String player,
+            boolean completed) throws SQLException {
+        statement.setInt(1, completed ? 1 : 0);
+        if (player != null) {
+            statement.setString(2, player);
+        }
+    }
+
+    /**
+     * Replaces the stored current and completed progression of the players in
+     * the given {@link Map}s, or of every player if {@code all} is set, in a
+     * single transaction. Either {@link Map} may be {@code null} to leave that
+     * progression as it is.
+     */
+    private void replace(Map<String, Map<String, String>> current,
+            Map<String, Map<String, String>> completed, boolean all) {
+        if (current == null && completed == null) {
+            return;
+        }
+        Connection connection = acquire();
+        try {
+            if (current != null) {
+                replace(connection, current, false, all);
+            }
+            if (completed != null) {
+                replace(connection, completed, true, all);
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            try {
+                connection.rollback();
+            } catch (SQLException rollback) {
+                rollback.printStackTrace();
+            }
+        } finally {
+            release(connection);
+        }
+    }
+
+    /**
+     * Replaces the rows of either current or completed progression on the
+     * given connection, without committing.
+     */
+    private static void replace(Connection connection,
+            Map<String, Map<String, String>> data, boolean completed,
+            boolean all) throws SQLException {
+        int state = completed ? 1 : 0;
+        if (all) {
+            for (String table : new String[] { OUTCOME_TABLE, QUEST_TABLE }) {
+                try (PreparedStatement delete = connection
+                        .prepareStatement("DELETE FROM " + table
+                                + " WHERE completed = ?")) {
+                    delete.setInt(1, state);
+                    delete.executeUpdate();
+                }
+            }
+        } else {
+            for (String table : new String[] { OUTCOME_TABLE, QUEST_TABLE }) {
+                try (PreparedStatement delete = connection
+                        .prepareStatement("DELETE FROM " + table
+                                + " WHERE completed = ?" + BY_QUESTER)) {
+                    for (String player : data.keySet()) {
+                        bind(delete, player, completed);
+                        delete.addBatch();
+                    }
+                    delete.executeBatch();
+                }
+            }
+        }
+
+        try (PreparedStatement quests = connection.prepareStatement(
+                INSERT_QUEST);
+             PreparedStatement outcomes = connection.prepareStatement(
+                     INSERT_OUTCOME)) {
+            for (Map.Entry<String, Map<String, String>> player : data
+                    .entrySet()) {
+                for (Map.Entry<String, String> quest : player.getValue()
+                        .entrySet()) {
+                    insert(quests, outcomes, player.getKey(),
+                            quest.getKey(), state, quest.getValue());
+                }
+            }
+            quests.executeBatch();
+            outcomes.executeBatch();
+        }
+    }
+
+    /**
+     * Adds the rows for a single quest to the given batches. Progression in
+     * the form {@code
+     * quest_objective//outcome==value&&outcome==value<c>%objective//...} is
+     * split into an outcome row per {@code outcome==value}, and anything else
+     * is kept as it is in the quest row.
+     */
+    private static void insert(PreparedStatement quests,
+            PreparedStatement outcomes, String player, String quest,
+            int state, String progression) throws SQLException {
+        List<String[]> rows = split(progression, quest);
+        quests.setString(1, player);
+        quests.setString(2, quest);
+        quests.setInt(3, state);
+        if (rows == null) {
+            quests.setInt(4, RAW);
+            quests.setString(5, progression);
+            quests.addBatch();
+            return;
+        }
+
+        int current = -1;
+        for (String[] row : rows) {
+            if (row[0] != null) {
+                current = Integer.parseInt(row[0]);
+            }
+        }
+        quests.setInt(4, current);
+        quests.setString(5, null);
+        quests.addBatch();
+
+        for (String[] row : rows) {
+            outcomes.setString(1, player);
+            outcomes.setString(2, quest);
+            outcomes.setInt(3, state);
+            outcomes.setInt(4, Integer.parseInt(row[1]));
+            outcomes.setString(5, row[2]);
+            outcomes.setInt(6, Integer.parseInt(row[3]));
+            outcomes.setString(7, row[4]);
+            outcomes.setString(8, row[5]);
+            outcomes.addBatch();
+        }
+    }
+
+    /**
+     * Splits progression into outcome rows of the current objective index
+     * (only set on the current objective's rows), objective index, objective
+     * name, outcome index, outcome name and value.
+     *
+     * @return the rows, or {@code null} if the progression doesn't split up
+     */
+    private static List<String[]> split(String progression, String quest) {
+        if (!progression.startsWith(quest + "_")) {
+            return null;
+        }
+
+        List<String[]> rows = new ArrayList<>();
+        boolean foundCurrent = false;
+        int from = quest.length() + 1;
+        for (int i = 0; ; i++) {
+            int end = progression.indexOf('%', from);
+            end = end < 0 ? progression.length() : end;
+            int objectiveEnd = end;
+            String current = null;
+            if (end - 3 >= from && progression.startsWith("<c>", end - 3)) {
+                if (foundCurrent) {
+                    return null;
+                }
+                foundCurrent = true;
+                current = Integer.toString(i);
+                objectiveEnd -= 3;
+            }
+
+            int nameEnd = progression.indexOf("//", from);
+            if (nameEnd < 0 || nameEnd + 2 > objectiveEnd) {
+                return null;
+            }
+            String objective = progression.substring(from, nameEnd);
+            int outcome = nameEnd + 2;
+            for (int j = 0; ; j++) {
+                int outcomeEnd = progression.indexOf("&&", outcome);
+                if (outcomeEnd < 0 || outcomeEnd > objectiveEnd) {
+                    outcomeEnd = objectiveEnd;
+                }
+                int valueStart = progression.indexOf("==", outcome);
+                if (valueStart < 0 || valueStart + 2 > outcomeEnd) {
+                    return null;
+                }
+                rows.add(new String[] { current, Integer.toString(i),
+                        objective, Integer.toString(j),
+                        progression.substring(outcome, valueStart),
+                        progression.substring(valueStart + 2, outcomeEnd) });
+                if (outcomeEnd == objectiveEnd) {
+                    break;
+                }
+                outcome = outcomeEnd + 2;
+            }
+
+            if (end == progression.length()) {
+                return rows;
+            }
+            from = end + 1;
+        }
+    }
+
+    private Connection open() throws SQLException {
+        Connection connection = DriverManager.getConnection(url, user,
+                password);
+        connection.setAutoCommit(false);
+        return connection;
+    }
+
+    /**
+     * Takes a connection from the pool, waiting for one to be returned if
+     * they're all in use and replacing it if it has been closed.
+     */
+    private Connection acquire() {
+        Connection connection;
+        try {
+            connection = pool.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted waiting for a "
+                    + "database connection", e);
+        }
+
+        try {
+            if (!connection.isValid(2)) {
+                try {
+                    connection.close();
+                } catch (SQLException ignore) {
+                }
+                connection = open();
+            }
+        } catch (SQLException e) {
+            // hand back the broken connection so the pool doesn't shrink,
+            // and let the statements using it fail
+            e.printStackTrace();
+        }
+        return connection;
+    }
+
+    private void release(Connection connection) {
+        try {
+            // end any transaction left open by reads, which would otherwise
+            // hold locks in some databases
+            connection.rollback();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        pool.offer(connection);
+    }
+
+    private static boolean tableExists(Connection connection, String table)
+            throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        // some databases change the case of unquoted names
+        try (ResultSet tables = metaData.getTables(null, null, "%",
+                new String[] { "TABLE" })) {
+            while (tables.next()) {
+                if (table.equalsIgnoreCase(tables.getString("TABLE_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -1,5 +1,7 @@
 package com.volumetricpixels.questy.util;
 
+import java.util.Map;
+
 /**
  * General utility methods which are used throughout the Questy framework. More specific utilities can be found in other classes in the util package.
  */
@@ -19,6 +21,26 @@ public final class General {
         return builder;
     }
 
+    /**
+     * Merges changed progression data for some players into the given data
+     * for all players. Players mapped to an empty {@link Map} in {@code
+     * changes} are removed.
+     *
+     * @param into a {@link Map} of player names to quest names to serialized
+     *        progression, which is modified
+     * @param changes a {@link Map} of player names to their changed data
+     */
+    public static void mergeQuesterData(Map<String, Map<String, String>> into,
+            Map<String, Map<String, String>> changes) {
+        for (Map.Entry<String, Map<String, String>> entry : changes.entrySet()) {
+            if (entry.getValue().isEmpty()) {
+                into.remove(entry.getKey());
+            } else {
+                into.put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
     /**
      * This class never needs to be instantiated.
      */
@@ -0,0 +1,131 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.volumetricpixels.questy.util;
+
+/**
+ * Recognises numbers in text without throwing and catching {@link
+ * NumberFormatException}s, which makes telling numbers apart from other text
+ * cheap when most of it isn't numeric. Works on a range of a {@link String}
+ * so that values don't need to be copied out before being looked at.
+ */
+public final class Numbers {
+    /**
+     * The text isn't a number.
+     */
+    public static final int NONE = 0;
+    /**
+     * The text is a whole number which fits in a {@code long}, and can be read
+     * with {@link #parseLong(String, int, int)}.
+     */
+    public static final int INTEGER = 1;
+    /**
+     * The text is a number which {@link Double#parseDouble(String)} accepts,
+     * but isn't an {@link #INTEGER}.
+     */
+    public static final int DECIMAL = 2;
+
+    /**
+     * Works out which kind of number, if any, the given range of text is.
+     * Decimals are recognised in the forms {@link Double#toString(double)}
+     * writes, with an optional sign, fraction and exponent, as well as {@code
+     * NaN} and {@code Infinity}.
+     *
+     * @param text the text containing the number
+     * @param from the index of the first character of the number
+     * @param to the index after the last character of the number
+     * @return {@link #NONE}, {@link #INTEGER} or {@link #DECIMAL}
+     */
+    public static int classify(String text, int from, int to) {
+        int i = from;
+        if (i < to && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            i++;
+        }
+        if (i == to) {
+            return NONE;
+        }
+        if (text.startsWith("NaN", i) && i + 3 == to) {
+            return DECIMAL;
+        }
+        if (text.startsWith("Infinity", i) && i + 8 == to) {
+            return DECIMAL;
+        }
+
+        int digitsStart = i;
+        long value = 0;
+        boolean overflow = false;
+        while (i < to && isDigit(text.charAt(i))) {
+            int digit = text.charAt(i) - '0';
+            // accumulate negatively, as Long.MIN_VALUE has no positive
+            if (value < (Long.MIN_VALUE + digit) / 10) {
+                overflow = true;
+            }
+            value = value * 10 - digit;
+            i++;
+        }
+        int digits = i - digitsStart;
+        if (i == to) {
+            boolean negative = text.charAt(from) == '-';
+            return overflow || (!negative && value == Long.MIN_VALUE) ?
+                    DECIMAL : INTEGER;
+        }
+
+        if (text.charAt(i) == '.') {
+            i++;
+            int fractionStart = i;
+            while (i < to && isDigit(text.charAt(i))) {
+                i++;
+            }
+            digits += i - fractionStart;
+        }
+        if (digits == 0) {
+            return NONE;
+        }
+        if (i < to && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+            i++;
+            if (i < to && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+                i++;
+            }
+            int exponentStart = i;
+            while (i < to && isDigit(text.charAt(i))) {
+                i++;
+            }
+            if (i == exponentStart) {
+                return NONE;
+            }
+        }
+        return i == to ? DECIMAL : NONE;
+    }
+
+    /**
+     * Reads a whole number from the given range of text, which must have been
+     * classified as an {@link #INTEGER}.
+     *
+     * @param text the text containing the number
+     * @param from the index of the first character of the number
+     * @param to the index after the last character of the number
+     * @return the number
+     */
+    public static long parseLong(String text, int from, int to) {
+        boolean negative = text.charAt(from) == '-';
+        int i = negative || text.charAt(from) == '+' ? from + 1 : from;
+        long value = 0;
+        for (; i < to; i++) {
+            value = value * 10 - (text.charAt(i) - '0');
+        }
+        return negative ? value : -value;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * This class never needs to be instantiated.
+     */
+    private Numbers() {
+        throw new UnsupportedOperationException();
+    }
+}
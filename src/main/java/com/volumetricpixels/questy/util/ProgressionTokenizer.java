@@ -0,0 +1,188 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package com.volumetricpixels.questy.util;
+
+/**
+ * Walks through serialized progression of the form {@code
+ * objective//outcome==value&&outcome==value<c>%objective//...} in a single
+ * pass, where {@code <c>} marks the current objective. Only names are copied
+ * out of the text; values are given as a range of it, so that numbers can be
+ * read in place with {@link Numbers}.
+ *
+ * Call {@link #nextObjective()} to move to each objective in turn, then
+ * {@link #nextOutcome()} to move to each of its outcomes.
+ */
+public final class ProgressionTokenizer {
+    /**
+     * Marks the current objective.
+     */
+    public static final String CURRENT_MARKER = "<c>";
+
+    private final String text;
+    /**
+     * The start of the next objective, or {@code -1} if there are no more.
+     */
+    private int nextObjective;
+    /**
+     * The end of the current objective's outcomes.
+     */
+    private int objectiveEnd;
+    /**
+     * The start of the next outcome, or {@code -1} if there are no more.
+     */
+    private int nextOutcome;
+
+    private String objective;
+    private boolean current;
+    private String outcome;
+    private int valueStart;
+    private int valueEnd;
+
+    /**
+     * Creates a tokenizer for the objectives in the given text, starting at
+     * the given index.
+     *
+     * @param text the serialized progression
+     * @param from the index of the start of the first objective
+     */
+    public ProgressionTokenizer(String text, int from) {
+        this.text = text;
+        this.nextObjective = from;
+        this.nextOutcome = -1;
+    }
+
+    /**
+     * Moves to the next objective.
+     *
+     * @return {@code false} if there are no more objectives
+     */
+    public boolean nextObjective() {
+        if (nextObjective < 0) {
+            return false;
+        }
+
+        int from = nextObjective;
+        int end = text.indexOf('%', from);
+        if (end < 0) {
+            end = text.length();
+            nextObjective = -1;
+        } else {
+            nextObjective = end + 1;
+        }
+
+        current = end - CURRENT_MARKER.length() >= from && text.startsWith(
+                CURRENT_MARKER, end - CURRENT_MARKER.length());
+        objectiveEnd = current ? end - CURRENT_MARKER.length() : end;
+        int nameEnd = indexOf("//", from, objectiveEnd);
+        objective = text.substring(from, nameEnd);
+        nextOutcome = nameEnd + 2 < objectiveEnd ? nameEnd + 2 : -1;
+        return true;
+    }
+
+    /**
+     * Moves to the next outcome of the current objective.
+     *
+     * @return {@code false} if the objective has no more outcomes
+     */
+    public boolean nextOutcome() {
+        if (nextOutcome < 0) {
+            return false;
+        }
+
+        int from = nextOutcome;
+        int end = indexOf("&&", from, objectiveEnd);
+        nextOutcome = end < objectiveEnd ? end + 2 : -1;
+
+        int nameEnd = indexOf("==", from, end);
+        outcome = text.substring(from, nameEnd);
+        valueStart = nameEnd < end ? nameEnd + 2 : -1;
+        valueEnd = end;
+        return true;
+    }
+
+    /**
+     * Gets the name of the current objective.
+     *
+     * @return the objective's name
+     */
+    public String getObjective() {
+        return objective;
+    }
+
+    /**
+     * Checks whether the current objective is marked as the one the quester
+     * is on.
+     *
+     * @return whether the objective is marked as current
+     */
+    public boolean isCurrent() {
+        return current;
+    }
+
+    /**
+     * Gets the name of the current outcome.
+     *
+     * @return the outcome's name
+     */
+    public String getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * Checks whether the current outcome has a value, which isn't the case
+     * for progression written by very old versions.
+     *
+     * @return whether there is a value
+     */
+    public boolean hasValue() {
+        return valueStart >= 0;
+    }
+
+    /**
+     * Gets the text being tokenized, which the current outcome's value is a
+     * range of.
+     *
+     * @return the serialized progression
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Gets the index of the first character of the current outcome's value.
+     *
+     * @return the start of the value
+     */
+    public int getValueStart() {
+        return valueStart;
+    }
+
+    /**
+     * Gets the index after the last character of the current outcome's value.
+     *
+     * @return the end of the value
+     */
+    public int getValueEnd() {
+        return valueEnd;
+    }
+
+    /**
+     * Finds the given two character separator between the given indices,
+     * without looking any further.
+     *
+     * @return the index of the separator, or {@code to} if it isn't there
+     */
+    private int indexOf(String separator, int from, int to) {
+        char first = separator.charAt(0);
+        char second = separator.charAt(1);
+        for (int i = from; i + 1 < to; i++) {
+            if (text.charAt(i) == first && text.charAt(i + 1) == second) {
+                return i;
+            }
+        }
+        return to;
+    }
+}
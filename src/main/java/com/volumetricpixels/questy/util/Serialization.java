@@ -26,19 +26,18 @@ public final class Serialization {
 
     static {
         addCommonTypeHandler((str) -> {
-            try {
-                return Integer.parseInt(str);
-            } catch (Exception e) {
+            if (Numbers.classify(str, 0, str.length()) != Numbers.INTEGER) {
                 return null;
             }
+            long value = Numbers.parseLong(str, 0, str.length());
+            return value == (int) value ? (Object) (int) value : null;
         });
 
         addCommonTypeHandler((str) -> {
-            try {
-                return Double.parseDouble(str);
-            } catch (Exception e) {
+            if (Numbers.classify(str, 0, str.length()) == Numbers.NONE) {
                 return null;
             }
+            return Double.parseDouble(str);
         });
 
         addCommonTypeHandler((str) -> {
@@ -0,0 +1,193 @@
+/*
+ * This file is part of RolecraftQuests.
+ *
+ * Copyright (c) 2016 RolecraftDev <http://rolecraftdev.github.com>
+ * RolecraftQuests is licensed under the Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License. To view a copy of this
+ * license, visit http://creativecommons.org/licenses/by-nc-nd/3.0
+ *
+ * As long as you follow the following terms, you are free to copy and redistribute
+ * the material in any medium or format.
+ *
+ * You must give appropriate credit, provide a link to the license, and indicate
+ * whether any changes were made to the material. You may do so in any reasonable
+ * manner, but not in any way which suggests the licensor endorses you or your use.
+ *
+ * You may not use the material for commercial purposes.
+ *
+ * If you remix, transform, or build upon the material, you may not distribute the
+ * modified material.
+ *
+ * You may not apply legal terms or technological measures that legally restrict
+ * others from doing anything the license permits.
+ *
+ * DISCLAIMER: This is a human-readable summary of (and not a substitute for) the
+ * license.
+ */
+package com.volumetricpixels.questy.questy;
+
+import com.volumetricpixels.questy.Quest;
+import com.volumetricpixels.questy.QuestManager;
+import com.volumetricpixels.questy.QuestManager.QuestLoadHelper;
+import com.volumetricpixels.questy.loading.QuestBuilder;
+import com.volumetricpixels.questy.loading.QuestLoader;
+import com.volumetricpixels.questy.questy.loader.QuestCache;
+import com.volumetricpixels.questy.questy.loader.YMLQuestLoader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Synthetic YAML quests for tests and benchmarks which load a lot of them.
+ * Quest {@code i} is named {@code q_i}, requires {@code q_(i-1)} and is a
+ * chain of objectives {@code obj0}, {@code obj1} and so on, each with the
+ * same outcomes {@code out0}, {@code out1} and so on. Apart from their names
+ * the quests repeat the same descriptions and types.
+ */
+public final class QuestFixtures {
+    public static final String DESCRIPTION = "A quest in the northern lands";
+    public static final String OBJECTIVE_DESCRIPTION =
+            "Defeat the creatures which roam the hills";
+
+    private QuestFixtures() {
+    }
+
+    /**
+     * Writes the given number of quests to the given directory.
+     *
+     * @param directory the directory to write to
+     * @param quests the number of quests
+     * @param objectives the number of objectives in each quest
+     * @param outcomes the number of outcomes in each objective
+     * @throws IOException if a file can't be written
+     */
+    public static void writeAll(File directory, int quests, int objectives,
+            int outcomes) throws IOException {
+        for (int i = 0; i < quests; i++) {
+            write(directory, i, objectives, outcomes, DESCRIPTION,
+                    OBJECTIVE_DESCRIPTION);
+        }
+    }
+
+    /**
+     * Writes quest {@code q_quest} to {@code qquest.yml} in the given
+     * directory, replacing it if it's there.
+     *
+     * @param directory the directory to write to
+     * @param quest the number of the quest
+     * @param objectives the number of objectives
+     * @param outcomes the number of outcomes in each objective
+     * @param description the description of the quest
+     * @param objectiveDescription the description of every objective
+     * @return the file written
+     * @throws IOException if the file can't be written
+     */
+    public static File write(File directory, int quest, int objectives,
+            int outcomes, String description, String objectiveDescription)
+            throws IOException {
+        StringBuilder yml = new StringBuilder("name: q_").append(quest)
+                .append("\ndescription: ").append(description)
+                .append("\nprerequisites: [q_").append(Math.max(0, quest - 1))
+                .append("]\nrewards: [gold, experience]\nobjectives:\n");
+        for (int o = 0; o < objectives; o++) {
+            yml.append("  obj").append(o).append(":\n    description: ")
+                    .append(objectiveDescription).append("\n    outcomes:\n");
+            for (int c = 0; c < outcomes; c++) {
+                yml.append("      out").append(c).append(":\n")
+                        .append("        description: Kill ten zombies\n")
+                        .append("        type: kill:zombie:10\n");
+                if (o < objectives - 1) {
+                    yml.append("        next: obj").append(o + 1).append('\n');
+                }
+            }
+        }
+        File file = new File(directory, "q" + quest + ".yml");
+        Files.write(file.toPath(), yml.toString().getBytes(
+                StandardCharsets.UTF_8));
+        return file;
+    }
+
+    /**
+     * Loads the quests in the given directory through a {@link QuestCache},
+     * as on startup: the cache is read, the quests are loaded through the
+     * wrapped loader and the cache is saved.
+     *
+     * @param questManager the manager to load into
+     * @param loader the loader to wrap with the cache
+     * @param directory the directory to load
+     * @param cacheFile the cache file
+     */
+    public static void loadCached(SimpleQuestManager questManager,
+            QuestLoader loader, File directory, File cacheFile) {
+        QuestCache cache = new QuestCache(questManager, cacheFile);
+        cache.load();
+        questManager.addLoader(cache.wrap(loader));
+        questManager.loadQuests(directory);
+        cache.save();
+    }
+
+    /**
+     * Deletes the given file, or directory and everything in it.
+     *
+     * @param file the file to delete
+     */
+    public static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    /**
+     * Loads YAML quests, counting the files it parses and keeping hold of the
+     * {@link QuestLoadHelper} each of them was parsed with.
+     */
+    public static final class RecordingLoader implements QuestLoader {
+        private final QuestManager questManager;
+        private final YMLQuestLoader loader;
+        private final AtomicInteger parsed = new AtomicInteger();
+        private final Set<QuestLoadHelper> sessions = Collections
+                .newSetFromMap(new ConcurrentHashMap<>());
+
+        public RecordingLoader(QuestManager questManager) {
+            this.questManager = questManager;
+            this.loader = new YMLQuestLoader(questManager);
+        }
+
+        public int getParsed() {
+            return parsed.get();
+        }
+
+        public Set<QuestLoadHelper> getSessions() {
+            return sessions;
+        }
+
+        @Override
+        public Map<String, Quest> loadQuests(File directory) {
+            return loader.loadQuests(directory);
+        }
+
+        @Override
+        public List<File> getQuestFiles(File directory) {
+            return loader.getQuestFiles(directory);
+        }
+
+        @Override
+        public QuestBuilder parseQuest(File file) {
+            parsed.incrementAndGet();
+            sessions.add(questManager.getQuestLoadHelper());
+            return loader.parseQuest(file);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * This file is part of RolecraftQuests.
+ *
+ * Copyright (c) 2016 RolecraftDev <http://rolecraftdev.github.com>
+ * RolecraftQuests is licensed under the Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License. To view a copy of this
+ * license, visit http://creativecommons.org/licenses/by-nc-nd/3.0
+ *
+ * As long as you follow the following terms, you are free to copy and redistribute
+ * the material in any medium or format.
+ *
+ * You must give appropriate credit, provide a link to the license, and indicate
+ * whether any changes were made to the material. You may do so in any reasonable
+ * manner, but not in any way which suggests the licensor endorses you or your use.
+ *
+ * You may not use the material for commercial purposes.
+ *
+ * If you remix, transform, or build upon the material, you may not distribute the
+ * modified material.
+ *
+ * You may not apply legal terms or technological measures that legally restrict
+ * others from doing anything the license permits.
+ *
+ * DISCLAIMER: This is a human-readable summary of (and not a substitute for) the
+ * license.
+ */
+package com.volumetricpixels.questy.questy;
+
+import com.volumetricpixels.questy.Quest;
+import com.volumetricpixels.questy.QuestManager.QuestLoadHelper;
+import com.volumetricpixels.questy.objective.Objective;
+import com.volumetricpixels.questy.objective.Outcome;
+import com.volumetricpixels.questy.questy.QuestFixtures.RecordingLoader;
+import com.volumetricpixels.questy.questy.loader.YMLQuestLoader;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Checks the heap footprint of loaded quests, by counting the string
+ * instances a large synthetic set of quests keeps. The quests repeat the same
+ * descriptions, names and types, so once strings are shared they should only
+ * hold one copy of each, no matter how many quests there are or when they
+ * were loaded.
+ */
+public class QuestFootprintTest {
+    private static final int QUESTS = 2000;
+    private static final int OBJECTIVES = 4;
+    private static final int OUTCOMES = 3;
+    /**
+     * The repeated strings in each quest: the quest, objective and outcome
+     * descriptions, the outcome type and the objective and outcome names.
+     */
+    private static final int SHARED = 4 + OBJECTIVES + OUTCOMES;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private File directory;
+    private SimpleQuestManager questManager;
+
+    @Before
+    public void setup() throws IOException {
+        directory = folder.newFolder("quests");
+        QuestFixtures.writeAll(directory, QUESTS, OBJECTIVES, OUTCOMES);
+        questManager = new SimpleQuestManager(null);
+        questManager.addLoader(new YMLQuestLoader(questManager));
+        questManager.loadQuests(directory);
+    }
+
+    @Test
+    public void loadedQuestsShareStrings() {
+        assertEquals(QUESTS, questManager.getLoadedQuests().size());
+        assertEquals(SHARED, sharedStrings().size());
+    }
+
+    @Test
+    public void reloadedQuestsShareStrings() throws IOException {
+        Quest previous = questManager.getQuest("q_0");
+        // the same quest with one new description
+        File file = QuestFixtures.write(directory, 0, OBJECTIVES, OUTCOMES,
+                QuestFixtures.DESCRIPTION,
+                "Defeat the creatures which roam the valleys");
+
+        List<Quest> reloaded = questManager.reloadQuests(
+                questManager.parseQuests(Collections.singleton(file)),
+                quest -> true);
+        assertEquals(1, reloaded.size());
+        Quest quest = questManager.getQuest("q_0");
+        assertNotSame(previous, quest);
+        assertSame(questManager.getQuest("q_1").getDescription(),
+                quest.getDescription());
+        // only the new description is added
+        assertEquals(SHARED + 1, sharedStrings().size());
+    }
+
+    @Test
+    public void loadReleasesBuilders() {
+        SimpleQuestManager manager = new SimpleQuestManager(null);
+        RecordingLoader loader = new RecordingLoader(manager);
+        manager.addLoader(loader);
+        manager.loadQuests(directory);
+
+        assertEquals(QUESTS, manager.getLoadedQuests().size());
+        // every file was parsed in the same load session
+        assertEquals(1, loader.getSessions().size());
+        QuestLoadHelper session = loader.getSessions().iterator().next();
+        assertNotSame(manager.getQuestLoadHelper(), session);
+        for (int i = 0; i < QUESTS; i++) {
+            assertNull(session.getBuilder("q_" + i));
+        }
+    }
+
+    /**
+     * Collects the distinct instances of the strings which each loaded quest
+     * repeats.
+     */
+    private Set<String> sharedStrings() {
+        Set<String> strings = Collections.newSetFromMap(
+                new IdentityHashMap<>());
+        for (Quest quest : questManager.getLoadedQuests().values()) {
+            strings.add(quest.getDescription());
+            for (Objective objective : quest.getObjectives()) {
+                strings.add(objective.getName());
+                strings.add(objective.getDescription());
+                for (Outcome outcome : objective.getOutcomes()) {
+                    strings.add(outcome.getName());
+                    strings.add(outcome.getDescription());
+                    strings.add(outcome.getType());
+                }
+            }
+        }
+        return strings;
+    }
+}
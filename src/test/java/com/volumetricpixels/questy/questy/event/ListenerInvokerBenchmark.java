@@ -0,0 +1,113 @@
+/*
+ * This file is part of RolecraftQuests.
+ *
+ * Copyright (c) 2016 RolecraftDev <http://rolecraftdev.github.com>
+ * RolecraftQuests is licensed under the Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License. To view a copy of this
+ * license, visit http://creativecommons.org/licenses/by-nc-nd/3.0
+ *
+ * As long as you follow the following terms, you are free to copy and redistribute
+ * the material in any medium or format.
+ *
+ * You must give appropriate credit, provide a link to the license, and indicate
+ * whether any changes were made to the material. You may do so in any reasonable
+ * manner, but not in any way which suggests the licensor endorses you or your use.
+ *
+ * You may not use the material for commercial purposes.
+ *
+ * If you remix, transform, or build upon the material, you may not distribute the
+ * modified material.
+ *
+ * You may not apply legal terms or technological measures that legally restrict
+ * others from doing anything the license permits.
+ *
+ * DISCLAIMER: This is a human-readable summary of (and not a substitute for) the
+ * license.
+ */
+package com.volumetricpixels.questy.questy.event;
+
+import com.volumetricpixels.questy.event.Listen;
+import com.volumetricpixels.questy.event.quest.QuestAbandonEvent;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures delivery of an event to a single listener through {@link
+ * SimpleEventManager}, comparing an invoker spun by {@link
+ * java.lang.invoke.LambdaMetafactory} with the bound {@link
+ * java.lang.invoke.MethodHandle} fallback used for methods generated code
+ * can't call. Both go through the same dispatch, so the difference is the
+ * cost of the call itself.
+ *
+ * Run with {@code mvn test-compile} followed by this class's {@link
+ * #main(String[])} on the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListenerInvokerBenchmark {
+    private final QuestAbandonEvent event = new QuestAbandonEvent(null);
+
+    private SimpleEventManager spun;
+    private SimpleEventManager bound;
+
+    @Setup
+    public void setup() {
+        spun = new SimpleEventManager();
+        spun.register(new PublicListener());
+        // a package-private method can't be called from a spun class
+        bound = new SimpleEventManager();
+        bound.register(new HiddenListener());
+    }
+
+    @Benchmark
+    public QuestAbandonEvent spunInvoker() {
+        return spun.fire(event);
+    }
+
+    @Benchmark
+    public QuestAbandonEvent boundMethodHandle() {
+        return bound.fire(event);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ListenerInvokerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    public static class PublicListener {
+        private int calls;
+
+        @Listen
+        public void onAbandon(QuestAbandonEvent event) {
+            calls++;
+        }
+    }
+
+    public static class HiddenListener {
+        private int calls;
+
+        @Listen
+        void onAbandon(QuestAbandonEvent event) {
+            calls++;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * This file is part of RolecraftQuests.
+ *
+ * Copyright (c) 2016 RolecraftDev <http://rolecraftdev.github.com>
+ * RolecraftQuests is licensed under the Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License. To view a copy of this
+ * license, visit http://creativecommons.org/licenses/by-nc-nd/3.0
+ *
+ * As long as you follow the following terms, you are free to copy and redistribute
+ * the material in any medium or format.
+ *
+ * You must give appropriate credit, provide a link to the license, and indicate
+ * whether any changes were made to the material. You may do so in any reasonable
+ * manner, but not in any way which suggests the licensor endorses you or your use.
+ *
+ * You may not use the material for commercial purposes.
+ *
+ * If you remix, transform, or build upon the material, you may not distribute the
+ * modified material.
+ *
+ * You may not apply legal terms or technological measures that legally restrict
+ * others from doing anything the license permits.
+ *
+ * DISCLAIMER: This is a human-readable summary of (and not a substitute for) the
+ * license.
+ */
+package com.volumetricpixels.questy.questy.loader;
+
+import com.volumetricpixels.questy.Quest;
+import com.volumetricpixels.questy.questy.QuestFixtures;
+import com.volumetricpixels.questy.questy.SimpleQuestManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures loading a directory of quests on startup through {@link
+ * QuestCache}, comparing a cold start, where there is no cache file and every
+ * quest is parsed, with a warm start, where every quest is rebuilt from the
+ * cache. Both save the cache afterwards, as a server does on startup.
+ *
+ * Run with {@code mvn test-compile} followed by this class's {@link
+ * #main(String[])} on the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuestCacheBenchmark {
+    @Param({ "100", "1000" })
+    public int quests;
+
+    private File directory;
+    private File coldCache;
+    private File warmCache;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("quests").toFile();
+        QuestFixtures.writeAll(directory, quests, 4, 3);
+        File caches = Files.createTempDirectory("caches").toFile();
+        coldCache = new File(caches, "cold.cache");
+        warmCache = new File(caches, "warm.cache");
+        load(warmCache);
+    }
+
+    @TearDown
+    public void tearDown() {
+        QuestFixtures.delete(directory);
+        QuestFixtures.delete(coldCache.getParentFile());
+    }
+
+    @Benchmark
+    public Map<String, Quest> cold() {
+        coldCache.delete();
+        return load(coldCache);
+    }
+
+    @Benchmark
+    public Map<String, Quest> warm() {
+        return load(warmCache);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(QuestCacheBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    private Map<String, Quest> load(File cacheFile) {
+        SimpleQuestManager questManager = new SimpleQuestManager(null);
+        QuestFixtures.loadCached(questManager,
+                new YMLQuestLoader(questManager), directory, cacheFile);
+        return questManager.getLoadedQuests();
+    }
+}
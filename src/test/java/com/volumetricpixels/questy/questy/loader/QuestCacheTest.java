@@ -0,0 +1,133 @@
+/*
+ * This file is part of RolecraftQuests.
+ *
+ * Copyright (c) 2016 RolecraftDev <http://rolecraftdev.github.com>
+ * RolecraftQuests is licensed under the Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License. To view a copy of this
+ * license, visit http://creativecommons.org/licenses/by-nc-nd/3.0
+ *
+ * As long as you follow the following terms, you are free to copy and redistribute
+ * the material in any medium or format.
+ *
+ * You must give appropriate credit, provide a link to the license, and indicate
+ * whether any changes were made to the material. You may do so in any reasonable
+ * manner, but not in any way which suggests the licensor endorses you or your use.
+ *
+ * You may not use the material for commercial purposes.
+ *
+ * If you remix, transform, or build upon the material, you may not distribute the
+ * modified material.
+ *
+ * You may not apply legal terms or technological measures that legally restrict
+ * others from doing anything the license permits.
+ *
+ * DISCLAIMER: This is a human-readable summary of (and not a substitute for) the
+ * license.
+ */
+package com.volumetricpixels.questy.questy.loader;
+
+import com.volumetricpixels.questy.Quest;
+import com.volumetricpixels.questy.questy.QuestFixtures;
+import com.volumetricpixels.questy.questy.QuestFixtures.RecordingLoader;
+import com.volumetricpixels.questy.questy.SimpleQuestManager;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * Checks which quest files {@link QuestCache} rebuilds from the cache and
+ * which it passes on to be parsed.
+ */
+public class QuestCacheTest {
+    private static final int QUESTS = 50;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private File directory;
+    private File cacheFile;
+
+    @Before
+    public void setup() throws IOException {
+        directory = folder.newFolder("quests");
+        cacheFile = new File(folder.getRoot(), "quests.cache");
+        QuestFixtures.writeAll(directory, QUESTS, 2, 1);
+    }
+
+    @Test
+    public void unchangedFilesAreNotParsed() {
+        assertEquals(QUESTS, load().parsed);
+        Load warm = load();
+        assertEquals(0, warm.parsed);
+        assertEquals(QUESTS, warm.quests.size());
+        assertEquals(QuestFixtures.DESCRIPTION,
+                warm.quests.get("q_3").getDescription());
+    }
+
+    @Test
+    public void changedFileIsParsed() throws IOException {
+        load();
+        QuestFixtures.write(directory, 3, 2, 1,
+                "A quest in the southern lands",
+                QuestFixtures.OBJECTIVE_DESCRIPTION);
+
+        Load changed = load();
+        assertEquals(1, changed.parsed);
+        assertEquals("A quest in the southern lands",
+                changed.quests.get("q_3").getDescription());
+        assertEquals(QuestFixtures.DESCRIPTION,
+                changed.quests.get("q_4").getDescription());
+        // and the new version is what's cached
+        assertEquals(0, load().parsed);
+    }
+
+    @Test
+    public void corruptCacheIsParsed() throws IOException {
+        load();
+        try (RandomAccessFile cache = new RandomAccessFile(cacheFile, "rw")) {
+            // the last byte of the checksum
+            long last = cache.length() - 1;
+            cache.seek(last);
+            int checksum = cache.read();
+            cache.seek(last);
+            cache.write(~checksum);
+        }
+
+        Load corrupt = load();
+        assertEquals(QUESTS, corrupt.parsed);
+        assertEquals(QUESTS, corrupt.quests.size());
+        assertNotNull(corrupt.quests.get("q_3").getObjective("obj1"));
+        assertEquals(0, load().parsed);
+    }
+
+    /**
+     * Loads the quests through a fresh {@link SimpleQuestManager}, as on
+     * startup.
+     */
+    private Load load() {
+        SimpleQuestManager questManager = new SimpleQuestManager(null);
+        RecordingLoader loader = new RecordingLoader(questManager);
+        QuestFixtures.loadCached(questManager, loader, directory, cacheFile);
+        return new Load(questManager.getLoadedQuests(), loader.getParsed());
+    }
+
+    private static final class Load {
+        private final Map<String, Quest> quests;
+        private final int parsed;
+
+        private Load(Map<String, Quest> quests, int parsed) {
+            this.quests = quests;
+            this.parsed = parsed;
+        }
+    }
+}
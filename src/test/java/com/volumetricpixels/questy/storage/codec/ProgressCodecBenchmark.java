@@ -0,0 +1,137 @@
+/*
+ * This file is part of RolecraftQuests.
+ *
+ * Copyright (c) 2016 RolecraftDev <http://rolecraftdev.github.com>
+ * RolecraftQuests is licensed under the Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License. To view a copy of this
+ * license, visit http://creativecommons.org/licenses/by-nc-nd/3.0
+ *
+ * As long as you follow the following terms, you are free to copy and redistribute
+ * the material in any medium or format.
+ *
+ * You must give appropriate credit, provide a link to the license, and indicate
+ * whether any changes were made to the material. You may do so in any reasonable
+ * manner, but not in any way which suggests the licensor endorses you or your use.
+ *
+ * You may not use the material for commercial purposes.
+ *
+ * If you remix, transform, or build upon the material, you may not distribute the
+ * modified material.
+ *
+ * You may not apply legal terms or technological measures that legally restrict
+ * others from doing anything the license permits.
+ *
+ * DISCLAIMER: This is a human-readable summary of (and not a substitute for) the
+ * license.
+ */
+package com.volumetricpixels.questy.storage.codec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures saving and loading progression with {@link ProgressEncoder} and
+ * {@link ProgressDecoder}, compared with Java serialization of the same
+ * {@link HashMap}s through {@link ObjectOutputStream}, which is how
+ * progression used to be stored. Each player has several quests in the usual
+ * text form, with a mix of counts, fractional values and text.
+ *
+ * The size of the encoded data is printed during setup, as that is the other
+ * half of the comparison.
+ *
+ * Run with {@code mvn test-compile} followed by this class's {@link
+ * #main(String[])} on the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProgressCodecBenchmark {
+    @Param({ "1000", "10000" })
+    public int players;
+
+    private HashMap<String, Map<String, String>> data;
+    private byte[] encoded;
+    private byte[] serialized;
+
+    @Setup
+    public void setup() throws IOException {
+        data = new HashMap<>();
+        for (int player = 0; player < players; player++) {
+            HashMap<String, String> quests = new HashMap<>();
+            for (int quest = 0; quest < 8; quest++) {
+                String name = "quest_" + quest;
+                quests.put(name, name + "_hunt//kill==" + (player % 40)
+                        + "&&flee==0" + (quest == 0 ? "<c>" : "")
+                        + "%travel//distance==" + (player * 0.25)
+                        + "<c>%report//talk==mayor");
+            }
+            data.put("Player" + player, quests);
+        }
+        encoded = encode();
+        serialized = serialize();
+        System.out.println("encoded " + encoded.length + " bytes, serialized "
+                + serialized.length + " bytes");
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ProgressEncoder encoder = new ProgressEncoder(bytes);
+        encoder.writeAll(data);
+        encoder.finish();
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public Map<String, Map<String, String>> decode() throws IOException {
+        return new ProgressDecoder(new ByteArrayInputStream(encoded))
+                .readAll();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(data);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public Object deserialize() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(
+                new ByteArrayInputStream(serialized))) {
+            return in.readObject();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProgressCodecBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
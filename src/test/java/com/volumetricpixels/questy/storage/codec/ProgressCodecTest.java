@@ -0,0 +1,200 @@
+/*
+ * This file is part of RolecraftQuests.
+ *
+ * Copyright (c) 2016 RolecraftDev <http://rolecraftdev.github.com>
+ * RolecraftQuests is licensed under the Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License. To view a copy of this
+ * license, visit http://creativecommons.org/licenses/by-nc-nd/3.0
+ *
+ * As long as you follow the following terms, you are free to copy and redistribute
+ * the material in any medium or format.
+ *
+ * You must give appropriate credit, provide a link to the license, and indicate
+ * whether any changes were made to the material. You may do so in any reasonable
+ * manner, but not in any way which suggests the licensor endorses you or your use.
+ *
+ * You may not use the material for commercial purposes.
+ *
+ * If you remix, transform, or build upon the material, you may not distribute the
+ * modified material.
+ *
+ * You may not apply legal terms or technological measures that legally restrict
+ * others from doing anything the license permits.
+ *
+ * DISCLAIMER: This is a human-readable summary of (and not a substitute for) the
+ * license.
+ */
+package com.volumetricpixels.questy.storage.codec;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that {@link ProgressEncoder} and {@link ProgressDecoder} give back
+ * exactly the progression they were given, whichever way each value is
+ * encoded.
+ */
+public class ProgressCodecTest {
+    @Test
+    public void wholeNumbers() throws IOException {
+        // canonical counts, then values which must stay text to round trip
+        assertRoundTrip("q_o1//a==0&&b==-1&&c==5<c>");
+        assertRoundTrip("q_o1//a==-0&&b==007&&c==-01<c>");
+        assertRoundTrip("q_o1//a==999999999999999999&&b==-999999999999999999");
+        assertRoundTrip("q_o1//a==1234567890123456789&&b==-9223372036854775808"
+                + "&&c==99999999999999999999");
+    }
+
+    @Test
+    public void fractionalValues() throws IOException {
+        assertRoundTrip("q_o1//a==2.5&&b==-0.0&&c==1.0E10<c>");
+        // not how Double.toString writes them
+        assertRoundTrip("q_o1//a==2.50&&b==1.&&c==1e5&&d==0.1000<c>");
+        assertRoundTrip("q_o1//a==NaN&&b==Infinity&&c==.5");
+    }
+
+    @Test
+    public void currentObjective() throws IOException {
+        assertStructured("q_o1//a==1<c>%o2//b==0%o3//c==0");
+        assertStructured("q_o1//a==1%o2//b==2%o3//c==3<c>");
+        assertStructured("q_o1//a==1%o2//b==2");
+    }
+
+    @Test
+    public void underscoresInNames() throws IOException {
+        assertStructured("the_long_quest_first_objective//an_outcome==1<c>");
+        Map<String, Map<String, String>> data = new HashMap<>();
+        data.computeIfAbsent("Some_Player", k -> new HashMap<>()).put(
+                "the_long_quest", "the_long_quest_o1//a==3<c>");
+        assertEquals(data, roundTrip(data));
+    }
+
+    @Test
+    public void rawFallback() throws IOException {
+        assertRaw("NULL");
+        assertRaw("");
+        assertRaw("noquest");
+        assertRaw("q_o1");
+        assertRaw("q_o1//a");
+        assertRaw("q_o1//a==1<c>%o2//b==2<c>");
+        assertRaw("q_o1//a==1%");
+        assertRaw("q_<c>");
+    }
+
+    @Test
+    public void sharedNames() throws IOException {
+        Map<String, Map<String, String>> data = new HashMap<>();
+        for (int player = 0; player < 50; player++) {
+            Map<String, String> quests = data.computeIfAbsent(
+                    "Zo\u00eb" + player, k -> new HashMap<>());
+            for (int quest = 0; quest < 5; quest++) {
+                quests.put("q" + quest, "q" + quest + "_o1//a==" + player
+                        + "<c>%o2//b==" + quest + ".5&&c==done");
+            }
+        }
+        assertEquals(data, roundTrip(data));
+    }
+
+    @Test
+    public void streaming() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ProgressEncoder encoder = new ProgressEncoder(bytes);
+        encoder.beginPlayer("Bob", 2);
+        encoder.writeQuest("q1", "q1_o1//a==1<c>");
+        encoder.writeQuest("q2", "q2_o1//a==2<c>");
+        encoder.writePlayer("Alice", new HashMap<>());
+        encoder.finish();
+
+        ProgressDecoder decoder = new ProgressDecoder(
+                new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals("Bob", decoder.nextPlayer());
+        assertEquals("q2_o1//a==2<c>", decoder.readQuests().get("q2"));
+        assertEquals("Alice", decoder.nextPlayer());
+        assertTrue(decoder.readQuests().isEmpty());
+        assertNull(decoder.nextPlayer());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void missingQuests() throws IOException {
+        ProgressEncoder encoder = new ProgressEncoder(
+                new ByteArrayOutputStream());
+        encoder.beginPlayer("Bob", 2);
+        encoder.writeQuest("q1", "q1_o1//a==1<c>");
+        encoder.finish();
+    }
+
+    private static void assertRoundTrip(String progression)
+            throws IOException {
+        assertEquals(progression, roundTrip(progression));
+    }
+
+    private static void assertStructured(String progression)
+            throws IOException {
+        assertRoundTrip(progression);
+        assertFalse(contains(encode(progression), progression));
+    }
+
+    private static void assertRaw(String progression) throws IOException {
+        assertRoundTrip(progression);
+        if (!progression.isEmpty()) {
+            assertTrue(contains(encode(progression), progression));
+        }
+    }
+
+    private static String roundTrip(String progression) throws IOException {
+        return roundTrip(data(progression)).get("player").get("quest");
+    }
+
+    private static Map<String, Map<String, String>> roundTrip(
+            Map<String, Map<String, String>> data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ProgressEncoder encoder = new ProgressEncoder(bytes);
+        encoder.writeAll(data);
+        encoder.finish();
+        return new ProgressDecoder(new ByteArrayInputStream(
+                bytes.toByteArray())).readAll();
+    }
+
+    private static byte[] encode(String progression) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ProgressEncoder encoder = new ProgressEncoder(bytes);
+        encoder.writeAll(data(progression));
+        encoder.finish();
+        return bytes.toByteArray();
+    }
+
+    private static Map<String, Map<String, String>> data(String progression) {
+        Map<String, Map<String, String>> data = new HashMap<>();
+        data.computeIfAbsent("player", k -> new HashMap<>()).put("quest",
+                progression);
+        return data;
+    }
+
+    /**
+     * Checks whether the given progression was written as one run of text.
+     */
+    private static boolean contains(byte[] encoded, String progression) {
+        byte[] text = progression.getBytes(StandardCharsets.UTF_8);
+        outer:
+        for (int i = 0; i + text.length <= encoded.length; i++) {
+            for (int j = 0; j < text.length; j++) {
+                if (encoded[i + j] != text[j]) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * This file is part of RolecraftQuests.
+ *
+ * Copyright (c) 2016 RolecraftDev <http://rolecraftdev.github.com>
+ * RolecraftQuests is licensed under the Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License. To view a copy of this
+ * license, visit http://creativecommons.org/licenses/by-nc-nd/3.0
+ *
+ * As long as you follow the following terms, you are free to copy and redistribute
+ * the material in any medium or format.
+ *
+ * You must give appropriate credit, provide a link to the license, and indicate
+ * whether any changes were made to the material. You may do so in any reasonable
+ * manner, but not in any way which suggests the licensor endorses you or your use.
+ *
+ * You may not use the material for commercial purposes.
+ *
+ * If you remix, transform, or build upon the material, you may not distribute the
+ * modified material.
+ *
+ * You may not apply legal terms or technological measures that legally restrict
+ * others from doing anything the license permits.
+ *
+ * DISCLAIMER: This is a human-readable summary of (and not a substitute for) the
+ * license.
+ */
+package com.volumetricpixels.questy.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that {@link Numbers} agrees with {@link Long#parseLong(String)} and
+ * {@link Double#parseDouble(String)} without needing to catch their
+ * exceptions.
+ */
+public class NumbersTest {
+    @Test
+    public void integers() {
+        for (String text : new String[] { "0", "-0", "+7", "007", "-12",
+                "9223372036854775807", "-9223372036854775808" }) {
+            assertEquals(text, Numbers.INTEGER, classify(text));
+            assertEquals(text, Long.parseLong(text),
+                    Numbers.parseLong(text, 0, text.length()));
+        }
+    }
+
+    @Test
+    public void decimals() {
+        for (String text : new String[] { "2.5", "-0.0", "1.", ".5",
+                "1.0E10", "1e-5", "+3.25E+2", "NaN", "-Infinity",
+                "9223372036854775808", "-9223372036854775809" }) {
+            assertEquals(text, Numbers.DECIMAL, classify(text));
+            // accepted by Double.parseDouble
+            Double.parseDouble(text);
+        }
+    }
+
+    @Test
+    public void notNumbers() {
+        for (String text : new String[] { "", "-", ".", "NULL", "abc", "1e",
+                "e5", "1.2.3", "1,000", "12a", "--1", "Infinityy" }) {
+            assertEquals(text, Numbers.NONE, classify(text));
+        }
+    }
+
+    @Test
+    public void ranges() {
+        String text = "a==42&&b==1.5";
+        assertEquals(Numbers.INTEGER, Numbers.classify(text, 3, 5));
+        assertEquals(42L, Numbers.parseLong(text, 3, 5));
+        assertEquals(Numbers.DECIMAL, Numbers.classify(text, 10,
+                text.length()));
+        assertEquals(Numbers.NONE, Numbers.classify(text, 0, 5));
+    }
+
+    private static int classify(String text) {
+        return Numbers.classify(text, 0, text.length());
+    }
+}
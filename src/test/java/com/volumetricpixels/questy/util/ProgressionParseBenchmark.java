@@ -0,0 +1,215 @@
+/*
+ * This file is part of RolecraftQuests.
+ *
+ * Copyright (c) 2016 RolecraftDev <http://rolecraftdev.github.com>
+ * RolecraftQuests is licensed under the Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License. To view a copy of this
+ * license, visit http://creativecommons.org/licenses/by-nc-nd/3.0
+ *
+ * As long as you follow the following terms, you are free to copy and redistribute
+ * the material in any medium or format.
+ *
+ * You must give appropriate credit, provide a link to the license, and indicate
+ * whether any changes were made to the material. You may do so in any reasonable
+ * manner, but not in any way which suggests the licensor endorses you or your use.
+ *
+ * You may not use the material for commercial purposes.
+ *
+ * If you remix, transform, or build upon the material, you may not distribute the
+ * modified material.
+ *
+ * You may not apply legal terms or technological measures that legally restrict
+ * others from doing anything the license permits.
+ *
+ * DISCLAIMER: This is a human-readable summary of (and not a substitute for) the
+ * license.
+ */
+package com.volumetricpixels.questy.util;
+
+import com.volumetricpixels.questy.Quest;
+import com.volumetricpixels.questy.QuestInstance;
+import com.volumetricpixels.questy.QuesterId;
+import com.volumetricpixels.questy.loading.QuestBuilder;
+import com.volumetricpixels.questy.objective.Objective;
+import com.volumetricpixels.questy.objective.Outcome;
+import com.volumetricpixels.questy.questy.SimpleQuestManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading serialized progression with {@link ProgressionTokenizer}
+ * and {@link Numbers}, compared with the {@code String.split} and
+ * exception-driven parsing that {@link QuestInstance} used before. Both
+ * {@link #split(Blackhole)} and {@link #tokenizer(Blackhole)} look up every
+ * objective and outcome and parse every value, so they do the same work;
+ * {@link #load()} builds the {@link QuestInstance}s as startup does.
+ *
+ * Quest names have no '_' in them, as the old parsing couldn't read them.
+ *
+ * Run with {@code mvn test-compile} followed by this class's {@link
+ * #main(String[])} on the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProgressionParseBenchmark {
+    private static final int QUESTS = 8;
+
+    @Param({ "1000", "10000" })
+    public int players;
+
+    private SimpleQuestManager questManager;
+    private Quest[] quests;
+    private String[] serialized;
+
+    @Setup
+    public void setup() {
+        questManager = new SimpleQuestManager(null);
+        quests = new Quest[QUESTS];
+        for (int quest = 0; quest < QUESTS; quest++) {
+            QuestBuilder builder = QuestBuilder.begin(questManager,
+                    "quest" + quest);
+            QuestBuilder.ObjectiveBuilder report = builder.objective(
+                    "report");
+            report.outcome("talk").type("talk");
+            QuestBuilder.ObjectiveBuilder travel = builder.objective(
+                    "travel");
+            travel.outcome("distance").type("travel").next(report);
+            QuestBuilder.ObjectiveBuilder hunt = builder.objective("hunt");
+            hunt.outcome("kill").type("kill").next(travel);
+            hunt.outcome("flee").type("flee").next(travel);
+            quests[quest] = builder.build();
+            questManager.addQuest(quests[quest]);
+        }
+
+        serialized = new String[players * QUESTS];
+        for (int player = 0; player < players; player++) {
+            for (int quest = 0; quest < QUESTS; quest++) {
+                serialized[player * QUESTS + quest] = "quest" + quest
+                        + "_hunt//kill==" + (player % 40) + "&&flee==0"
+                        + (quest == 0 ? "<c>" : "") + "%travel//distance=="
+                        + (player * 0.25) + "<c>%report//talk==mayor";
+            }
+        }
+    }
+
+    @Benchmark
+    public void split(Blackhole blackhole) {
+        for (String text : serialized) {
+            String[] split = text.split("_");
+            Quest quest = questManager.getQuest(split[0]);
+            for (String objective : split[1].split("%")) {
+                String[] objectiveSplit = objective.split("//");
+                Objective info = quest.getObjective(objectiveSplit[0]);
+                blackhole.consume(objective.endsWith("<c>"));
+                for (String outcome : objectiveSplit[1].split("&&")) {
+                    String[] outcomeSplit = outcome.split("==");
+                    blackhole.consume(info.getOutcome(outcomeSplit[0]));
+                    String value = outcomeSplit.length > 1 ? outcomeSplit[1]
+                            : "NULL";
+                    if (value.endsWith("<c>")) {
+                        value = value.substring(0, value.length() - 3);
+                    }
+                    blackhole.consume(oldParse(value));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void tokenizer(Blackhole blackhole) {
+        for (String text : serialized) {
+            Quest quest = questManager.getQuest(
+                    text.substring(0, text.indexOf('_')));
+            ProgressionTokenizer tokens = new ProgressionTokenizer(text,
+                    quest.getName().length() + 1);
+            while (tokens.nextObjective()) {
+                Objective info = quest.getObjective(tokens.getObjective());
+                blackhole.consume(tokens.isCurrent());
+                while (tokens.nextOutcome()) {
+                    Outcome outcome = info.getOutcome(tokens.getOutcome());
+                    blackhole.consume(outcome);
+                    int from = tokens.getValueStart();
+                    int to = tokens.getValueEnd();
+                    switch (Numbers.classify(text, from, to)) {
+                        case Numbers.INTEGER:
+                            blackhole.consume(Numbers.parseLong(text, from,
+                                    to));
+                            break;
+                        case Numbers.DECIMAL:
+                            blackhole.consume(Double.parseDouble(
+                                    text.substring(from, to)));
+                            break;
+                        default:
+                            blackhole.consume(Serialization
+                                    .handleCommonTypes(text.substring(from,
+                                            to)));
+                    }
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public QuestInstance[] load() {
+        QuestInstance[] instances = new QuestInstance[serialized.length];
+        for (int i = 0; i < serialized.length; i++) {
+            instances[i] = new QuestInstance(quests[i % QUESTS],
+                    QuesterId.of("Player" + i / QUESTS), serialized[i]);
+        }
+        return instances;
+    }
+
+    /**
+     * The old parsing of a progress value, including the old {@link
+     * Serialization} handlers, which tried a double and then an integer
+     * before a character.
+     */
+    private static Object oldParse(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException ignore) {
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException ignore) {
+        }
+        if (value.length() == 1) {
+            return value.charAt(0);
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (Exception ignore) {
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (Exception ignore) {
+        }
+        return value;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProgressionParseBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
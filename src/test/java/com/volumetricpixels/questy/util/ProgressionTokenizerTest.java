@@ -0,0 +1,145 @@
+/*
+ * This file is part of RolecraftQuests.
+ *
+ * Copyright (c) 2016 RolecraftDev <http://rolecraftdev.github.com>
+ * RolecraftQuests is licensed under the Creative Commons
+ * Attribution-NonCommercial-NoDerivs 3.0 Unported License. To view a copy of this
+ * license, visit http://creativecommons.org/licenses/by-nc-nd/3.0
+ *
+ * As long as you follow the following terms, you are free to copy and redistribute
+ * the material in any medium or format.
+ *
+ * You must give appropriate credit, provide a link to the license, and indicate
+ * whether any changes were made to the material. You may do so in any reasonable
+ * manner, but not in any way which suggests the licensor endorses you or your use.
+ *
+ * You may not use the material for commercial purposes.
+ *
+ * If you remix, transform, or build upon the material, you may not distribute the
+ * modified material.
+ *
+ * You may not apply legal terms or technological measures that legally restrict
+ * others from doing anything the license permits.
+ *
+ * DISCLAIMER: This is a human-readable summary of (and not a substitute for) the
+ * license.
+ */
+package com.volumetricpixels.questy.util;
+
+import com.volumetricpixels.questy.Quest;
+import com.volumetricpixels.questy.QuestInstance;
+import com.volumetricpixels.questy.QuesterId;
+import com.volumetricpixels.questy.loading.QuestBuilder;
+import com.volumetricpixels.questy.objective.ObjectiveProgress;
+import com.volumetricpixels.questy.objective.OutcomeProgress;
+import com.volumetricpixels.questy.questy.SimpleQuestManager;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that {@link ProgressionTokenizer} splits progression up as {@code
+ * String.split} used to, and that quests load from it.
+ */
+public class ProgressionTokenizerTest {
+    @Test
+    public void objectivesAndOutcomes() {
+        ProgressionTokenizer tokens = new ProgressionTokenizer(
+                "q_o1//a==1&&b==text<c>%o2//c==2.5", 2);
+
+        assertTrue(tokens.nextObjective());
+        assertEquals("o1", tokens.getObjective());
+        assertTrue(tokens.isCurrent());
+        assertOutcome(tokens, "a", "1");
+        assertOutcome(tokens, "b", "text");
+        assertFalse(tokens.nextOutcome());
+
+        assertTrue(tokens.nextObjective());
+        assertEquals("o2", tokens.getObjective());
+        assertFalse(tokens.isCurrent());
+        assertOutcome(tokens, "c", "2.5");
+        assertFalse(tokens.nextOutcome());
+        assertFalse(tokens.nextObjective());
+    }
+
+    @Test
+    public void underscoresInNames() {
+        String quest = "the_long_quest";
+        ProgressionTokenizer tokens = new ProgressionTokenizer(quest
+                + "_first_step//kill_count==3<c>%last_step//talk_to==0",
+                quest.length() + 1);
+
+        assertTrue(tokens.nextObjective());
+        assertEquals("first_step", tokens.getObjective());
+        assertTrue(tokens.isCurrent());
+        assertOutcome(tokens, "kill_count", "3");
+        assertTrue(tokens.nextObjective());
+        assertEquals("last_step", tokens.getObjective());
+        assertOutcome(tokens, "talk_to", "0");
+    }
+
+    @Test
+    public void legacyForms() {
+        ProgressionTokenizer tokens = new ProgressionTokenizer(
+                "o1//a==NULL&&b<c>%o2//", 0);
+
+        assertTrue(tokens.nextObjective());
+        assertTrue(tokens.isCurrent());
+        assertOutcome(tokens, "a", "NULL");
+        assertTrue(tokens.nextOutcome());
+        assertEquals("b", tokens.getOutcome());
+        assertFalse(tokens.hasValue());
+
+        // an objective without any outcomes
+        assertTrue(tokens.nextObjective());
+        assertEquals("o2", tokens.getObjective());
+        assertFalse(tokens.isCurrent());
+        assertFalse(tokens.nextOutcome());
+        assertFalse(tokens.nextObjective());
+    }
+
+    @Test
+    public void loadsQuestsWithUnderscores() {
+        SimpleQuestManager questManager = new SimpleQuestManager(null);
+        // "the" is loaded too, so the first '_' isn't where the name ends
+        questManager.addQuest(QuestBuilder.begin(questManager, "the")
+                .objective("intro").outcome("x").type("kill").quest()
+                .build());
+        QuestBuilder builder = QuestBuilder.begin(questManager,
+                "the_long_quest");
+        QuestBuilder.ObjectiveBuilder last = builder.objective("last_step");
+        last.outcome("talk_to").type("talk");
+        builder.objective("first_step").outcome("kill_count").type("kill")
+                .next(last);
+        Quest quest = builder.build();
+        questManager.addQuest(quest);
+
+        String serialized = "the_long_quest_first_step//kill_count==3"
+                + "%last_step//talk_to==NULL<c>";
+        QuestInstance instance = new QuestInstance(questManager,
+                QuesterId.of("Bob"), serialized);
+        assertSame(quest, instance.getInfo());
+        ObjectiveProgress current = instance.getCurrentObjective();
+        assertEquals("last_step", current.getInfo().getName());
+        OutcomeProgress talk = current.getOutcomeProgresses().iterator()
+                .next();
+        // NULL is unset, which leaves the outcome at a count of nothing
+        assertEquals(0L, talk.getProgress());
+        OutcomeProgress kill = instance.getObjectiveProgresses()[0]
+                .getOutcomeProgresses().iterator().next();
+        assertEquals(3L, kill.getCount());
+    }
+
+    private static void assertOutcome(ProgressionTokenizer tokens,
+            String outcome, String value) {
+        assertTrue(tokens.nextOutcome());
+        assertEquals(outcome, tokens.getOutcome());
+        assertTrue(tokens.hasValue());
+        assertEquals(value, tokens.getText().substring(tokens.getValueStart(),
+                tokens.getValueEnd()));
+    }
+}